@@ -0,0 +1,279 @@
+package climatechange;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+
+public class ClimateBenchmark {
+	//the bundled data file, which the scaled datasets are made from
+	static final String DATA_FILE = "data/world_temp_2000-2016.csv";
+
+	//the number of years in the bundled data file, used to shift the years of each copy in a scaled dataset
+	private static final int YEARS_PER_COPY = 17;
+
+	//measured results are folded into this value so that the JIT cannot remove the benchmarked calls
+	private static volatile long blackhole;
+
+	private long warmupMillis;
+	private long measureMillis;
+	private com.sun.management.ThreadMXBean threads;
+
+	/**
+	 * (Constructor)
+	 * Creates a ClimateBenchmark, a smoke runner that runs each operation repeatedly for a short time after a warmup in a
+	 * single JVM, and prints a rough throughput, average latency and the bytes it allocates per call
+	 * It checks that every operation runs on every dataset; the numbers to compare come from the JMH benchmarks in jmh
+	 * @param warmupMillis the time each operation runs before it is measured, in milliseconds
+	 * @param measureMillis the time each operation is measured for, in milliseconds
+	 */
+	public ClimateBenchmark(long warmupMillis, long measureMillis) {
+		this.warmupMillis = warmupMillis;
+		this.measureMillis = measureMillis;
+
+		//allocation is measured per thread where the JVM supports it, as the GC profiler of JMH does
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threads = (com.sun.management.ThreadMXBean) bean;
+			threads.setThreadAllocatedMemoryEnabled(true);
+		}
+	}
+
+	//a benchmarked operation, which returns a value derived from its result
+	private interface Operation {
+		long run() throws Exception;
+	}
+
+	/**
+	 * Runs the given operation for the warmup time, then for the measured time, and prints one line of results
+	 * @param name the name of the operation
+	 * @param operation the operation to run
+	 */
+	public void measure(String name, Operation operation) throws Exception {
+		long warmupEnd = System.nanoTime() + warmupMillis * 1_000_000L;
+		do {
+			blackhole += operation.run();
+		} while(System.nanoTime() < warmupEnd);
+
+		long calls = 0;
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		long end = start + measureMillis * 1_000_000L;
+		long now;
+		do {
+			blackhole += operation.run();
+			calls++;
+			now = System.nanoTime();
+		} while(now < end);
+		long allocated = allocatedBytes() - allocatedBefore;
+
+		double seconds = (now - start) / 1e9;
+		double throughput = calls / seconds;
+		double latencyMicros = (now - start) / 1e3 / calls;
+		String allocation = threads == null ? "n/a" : String.format("%,d", allocated / calls);
+		System.out.println(String.format("%-44s %12.1f ops/s %14.1f us/op %18s B/op", name, throughput, latencyMicros, allocation));
+	}
+
+	/**
+	 * (Helper Method for measure)
+	 * Gets the number of bytes allocated so far by the current thread, or 0 if it cannot be measured
+	 */
+	private long allocatedBytes() {
+		return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Measures every IWeatherIO read and write operation and every IClimateAnalyzer task on the given data file
+	 * @param dataFile the directory/name of the data file
+	 * @param label the name of the dataset, printed before its results
+	 */
+	public void run(String dataFile, String label) throws Exception {
+		System.out.println();
+		System.out.println("Dataset " + label + ": " + dataFile + " (" + String.format("%,d", Files.size(Paths.get(dataFile))) + " bytes)");
+
+		WeatherIO weather = new WeatherIO();
+		measure("WeatherIO.readDataFromFile", () -> weather.readDataFromFile(dataFile).size());
+		measure("WeatherIO.readDataFromFile (mapped, sink)", () -> {
+			TemperatureTable table = new TemperatureTable();
+			weather.readDataFromFile(dataFile, table);
+			return table.size();
+		});
+		measure("WeatherIO.readDataFromFileParallel", () -> {
+			TemperatureTable table = new TemperatureTable();
+			weather.readDataFromFileParallel(dataFile, table);
+			return table.size();
+		});
+		measure("ClimateAnalyzer (load and index)", () -> new ClimateAnalyzer(dataFile).listOfAllCountries().size());
+
+		ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+		String country = analyzer.listOfAllCountries().get(0);
+		measure("A-1 getLowestTempByMonth", () -> analyzer.getLowestTempByMonth(country, 7).getYear());
+		measure("A-1 getHighestTempByMonth", () -> analyzer.getHighestTempByMonth(country, 7).getYear());
+		measure("A-2 getLowestTempByYear", () -> analyzer.getLowestTempByYear(country, 2010).getYear());
+		measure("A-2 getHighestTempByYear", () -> analyzer.getHighestTempByYear(country, 2010).getYear());
+		measure("A-3 getTempWithinRange", () -> analyzer.getTempWithinRange(country, 0, 15).size());
+		measure("A-4 getLowestTempYearByCountry", () -> analyzer.getLowestTempYearByCountry(country).getYear());
+		measure("A-4 getHighestTempYearByCountry", () -> analyzer.getHighestTempYearByCountry(country).getYear());
+		measure("B-1 allCountriesGetTop10LowestTemp", () -> analyzer.allCountriesGetTop10LowestTemp(7).size());
+		measure("B-1 allCountriesGetTop10HighestTemp", () -> analyzer.allCountriesGetTop10HighestTemp(7).size());
+		measure("B-2 allCountriesGetTop10LowestTemp", () -> analyzer.allCountriesGetTop10LowestTemp().size());
+		measure("B-2 allCountriesGetTop10HighestTemp", () -> analyzer.allCountriesGetTop10HighestTemp().size());
+		measure("B-3 allCountriesGetAllDataWithinTempRange", () -> analyzer.allCountriesGetAllDataWithinTempRange(10, 12).size());
+		measure("C-1 allCountriesTop10TempDelta", () -> analyzer.allCountriesTop10TempDelta(1, 2000, 2016).size());
+
+		//the same Task A lookups answered from the MaterializedAggregates, and the time and memory it takes to build them
+		measure("MaterializedAggregates (build)", () -> {
+			analyzer.setMaterializedAggregates(false);
+			analyzer.setMaterializedAggregates(true);
+			return analyzer.getMaterializedAggregates().size();
+		});
+		System.out.println("MaterializedAggregates: " + analyzer.getMaterializedAggregates().size() + " groups, "
+				+ analyzer.getMaterializedAggregates().getMemoryBytes() + " bytes");
+		measure("A-1 getLowestTempByMonth (aggregates)", () -> analyzer.getLowestTempByMonth(country, 7).getYear());
+		measure("A-2 getHighestTempByYear (aggregates)", () -> analyzer.getHighestTempByYear(country, 2010).getYear());
+		measure("A-4 getLowestTempYearByCountry (aggregates)", () -> analyzer.getLowestTempYearByCountry(country).getYear());
+		analyzer.setMaterializedAggregates(false);
+
+		//the size of the BitmapIndex, and an ad-hoc slice of three countries over two years of winter months answered from it
+		System.out.println("BitmapIndex: " + analyzer.getBitmapIndex().size() + " bitmaps, "
+				+ analyzer.getBitmapIndex().getMemoryBytes() + " bytes");
+		List<String> sliceCountries = analyzer.listOfAllCountries().subList(0, 3);
+		measure("getSlice (3 countries, 2 years, 3 months)", () -> analyzer.getSlice(sliceCountries, Arrays.asList(2005, 2010), Arrays.asList(12, 1, 2)).size());
+
+		//the lowest and highest temperature of the whole column with every kernel this JVM can run, and A-4 with each of them
+		TemperatureTable column = new TemperatureTable();
+		weather.readDataFromFileParallel(dataFile, column);
+		ITemperatureKernels selected = analyzer.getKernels();
+		List<ITemperatureKernels> kernels = new ArrayList<>();
+		kernels.add(new ScalarKernels());
+		if(ScalarKernels.vector() != null) {
+			kernels.add(ScalarKernels.vector());
+		}
+		for(ITemperatureKernels kernel: kernels) {
+			measure("lowestIndex + highestIndex (" + kernel.getName() + ")",
+					() -> kernel.lowestIndex(column.temperatureColumn(), 0, column.size()) + kernel.highestIndex(column.temperatureColumn(), 0, column.size()));
+			analyzer.setKernels(kernel);
+			measure("A-4 getLowestTempYearByCountry (" + kernel.getName() + ")", () -> analyzer.getLowestTempYearByCountry(country).getYear());
+		}
+		analyzer.setKernels(selected);
+
+		//the same scans and lookup with the temperatures stored in hundredths of a degree, and the memory of both tables
+		TemperatureTable centiColumn = new TemperatureTable(true);
+		weather.readDataFromFileParallel(dataFile, centiColumn);
+		System.out.println("TemperatureTable: " + column.getMemoryBytes() + " bytes with doubles, "
+				+ centiColumn.getMemoryBytes() + " bytes with hundredths of a degree");
+		for(ITemperatureKernels kernel: kernels) {
+			measure("lowestIndex + highestIndex, centi-degrees (" + kernel.getName() + ")",
+					() -> kernel.lowestIndex(centiColumn.centiColumn(), 0, centiColumn.size()) + kernel.highestIndex(centiColumn.centiColumn(), 0, centiColumn.size()));
+		}
+		ClimateAnalyzer centiAnalyzer = new ClimateAnalyzer(dataFile, true);
+		measure("A-4 getLowestTempYearByCountry (centi-degrees)", () -> centiAnalyzer.getLowestTempYearByCountry(country).getYear());
+
+		//the A-1, B-1, B-3 and C-1 queries above answered together in a single streaming pass over the data file
+		StreamingAnalyzer streaming = new StreamingAnalyzer();
+		measure("StreamingAnalyzer.run (4 queries, one pass)", () -> {
+			StreamingQuery<ITemperature> lowest = streaming.getLowestTempByMonth(country, 7);
+			StreamingQuery<ArrayList<ITemperature>> top = streaming.allCountriesGetTopKLowestTemp(7, 10);
+			StreamingQuery<ArrayList<ITemperature>> range = streaming.allCountriesGetAllDataWithinTempRange(10, 12);
+			StreamingQuery<ArrayList<ITemperature>> deltas = streaming.allCountriesTopKTempDelta(1, 2000, 2016, 10);
+			streaming.run(dataFile);
+			return lowest.getResult().getYear() + top.getResult().size() + range.getResult().size() + deltas.getResult().size();
+		});
+
+		//writes the B-3 result, the largest result of any task, to a temporary file that is emptied before each call
+		ArrayList<ITemperature> rows = analyzer.allCountriesGetAllDataWithinTempRange(10, 12);
+		Path output = Files.createTempFile("taskB3_benchmark", ".csv");
+		try {
+			measure("WeatherIO.writeDataToFile (" + rows.size() + " rows)", () -> {
+				Files.write(output, new byte[0]);
+				weather.writeDataToFile(output.toString(), "Temperature, Year, Month_Avg, Country, Country_Code", rows);
+				return Files.size(output);
+			});
+		}
+		finally {
+			Files.deleteIfExists(output);
+		}
+	}
+
+	/**
+	 * Writes a dataset with the given number of copies of the bundled data file, each copy shifted by 17 years,
+	 * so that every (country, year, month) of the scaled dataset is still unique
+	 * @param factor the number of copies
+	 * @return the temporary file holding the dataset, which is deleted when the JVM exits
+	 */
+	public static Path scaledDataset(int factor) throws IOException {
+		List<String> lines = Files.readAllLines(Paths.get(DATA_FILE));
+		Path file = Files.createTempFile("world_temp_x" + factor, ".csv");
+		file.toFile().deleteOnExit();
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write(lines.get(0));
+			out.newLine();
+			for(int copy = 0; copy < factor; copy++) {
+				for(int i = 1; i < lines.size(); i++) {
+					String[] fields = lines.get(i).split(",", -1);
+					if(fields.length < 5) {
+						continue;
+					}
+					int year = Integer.parseInt(fields[1].trim()) + copy * YEARS_PER_COPY;
+					out.write(fields[0] + ", " + year + "," + fields[2] + "," + fields[3] + "," + fields[4]);
+					out.newLine();
+				}
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Runs the smoke benchmarks on the bundled data file and on scaled datasets
+	 * Arguments: [--scales 1,10,100] [--dataset file] [--warmup milliseconds] [--time milliseconds]
+	 * The default scales are 1 and 10; scales of 100 and 1000 need a large heap (i.e -Xmx8g and -Xmx64g)
+	 * A dataset written by DatasetGenerator can be measured as well with --dataset
+	 */
+	public static void main(String[] args) throws Exception {
+		String scales = "1,10";
+		String dataset = null;
+		long warmupMillis = 200;
+		long measureMillis = 500;
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			switch(args[i]) {
+			case "--scales":
+				scales = args[i + 1];
+				break;
+			case "--dataset":
+				dataset = args[i + 1];
+				break;
+			case "--warmup":
+				warmupMillis = Long.parseLong(args[i + 1]);
+				break;
+			case "--time":
+				measureMillis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}
+		}
+
+		ClimateBenchmark benchmark = new ClimateBenchmark(warmupMillis, measureMillis);
+		System.out.println("Java " + System.getProperty("java.version") + ", " + Runtime.getRuntime().availableProcessors()
+				+ " processors, max heap " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + "MB");
+		for(String scale: scales.split(",")) {
+			int factor = Integer.parseInt(scale.trim());
+			if(factor == 1) {
+				benchmark.run(DATA_FILE, "1x");
+			}
+			else {
+				Path scaled = scaledDataset(factor);
+				try {
+					benchmark.run(scaled.toString(), factor + "x");
+				}
+				finally {
+					Files.deleteIfExists(scaled);
+				}
+			}
+		}
+		if(dataset != null) {
+			benchmark.run(dataset, "custom");
+		}
+		System.out.println();
+		System.out.println("(blackhole " + blackhole + ")");
+	}
+}
@@ -0,0 +1,233 @@
+package climatechange;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class DatasetGenerator {
+	//the topic line of the weather data file, as in data/world_temp_2000-2016.csv
+	private static final String TOPIC = "Temperature, Year, Month_Avg, Country, Country_Code";
+
+	//the largest number of countries, since every country needs a distinct 3-letter code
+	private static final int MAX_COUNTRIES = 26 * 26 * 26;
+
+	private int countries;
+	private int startYear;
+	private int years;
+	private int readingsPerMonth;
+	private long seed;
+
+	/**
+	 * (Constructor)
+	 * Creates a DatasetGenerator, which writes synthetic weather data files in the same CSV format that WeatherIO reads
+	 * The file has one reading per country, year, month and sub-monthly period, i.e countries * years * 12 * readingsPerMonth rows,
+	 * ordered by country, then year, then month, as in the bundled data file
+	 * @param countries the number of countries, at most 17576
+	 * @param startYear the first year of the readings
+	 * @param years the number of years of readings of each country
+	 * @param readingsPerMonth the number of readings of each month (1 for monthly averages, i.e 4 for weekly readings)
+	 * @param seed the seed of the random numbers, so that the same arguments always write the same file
+	 */
+	public DatasetGenerator(int countries, int startYear, int years, int readingsPerMonth, long seed) {
+		if(countries < 1 || countries > MAX_COUNTRIES) {
+			throw new IllegalArgumentException("countries must be between 1 and " + MAX_COUNTRIES + ", but was " + countries);
+		}
+		if(years < 1 || startYear < Short.MIN_VALUE || startYear + years - 1 > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("years " + startYear + " to " + (startYear + years - 1) + " are out of range");
+		}
+		if(readingsPerMonth < 1) {
+			throw new IllegalArgumentException("readingsPerMonth must be at least 1, but was " + readingsPerMonth);
+		}
+		this.countries = countries;
+		this.startYear = startYear;
+		this.years = years;
+		this.readingsPerMonth = readingsPerMonth;
+		this.seed = seed;
+	}
+
+	// get the number of rows the generator writes
+	public long getRowCount() {
+		return (long) countries * years * 12 * readingsPerMonth;
+	}
+
+	/**
+	 * Writes the dataset to the given file, replacing it if it exists
+	 * @param fileName the directory/name of the file to write
+	 */
+	public void write(String fileName) throws IOException {
+		try(OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName), 1 << 20)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Writes the dataset to the given stream
+	 * Each country gets its own climate from a random number generator seeded by the seed and the country,
+	 * i.e a mean temperature, a seasonal amplitude (negative in the southern hemisphere), a warming trend and an amount of noise.
+	 * Each reading is the mean, plus the seasonal curve at the middle of its period, plus the trend, plus gaussian noise.
+	 * @param out the stream the dataset is written to
+	 */
+	public void write(OutputStream out) throws IOException {
+		out.write((TOPIC + "\n").getBytes(StandardCharsets.US_ASCII));
+		byte[] line = new byte[64];
+		for(int country = 0; country < countries; country++) {
+			SplittableRandom random = new SplittableRandom(seed * 1_000_003L + country);
+
+			//the latitude between -60 and 70 degrees decides how warm the country is and how strong its seasons are
+			double latitude = -60 + random.nextDouble() * 130;
+			double mean = 28 - 0.45 * Math.abs(latitude) + random.nextDouble() * 4 - 2;
+			double amplitude = Math.signum(latitude) * (1 + Math.abs(latitude) * 0.3) * (0.8 + random.nextDouble() * 0.4);
+			double trendPerYear = 0.01 + random.nextDouble() * 0.04;
+			double noise = 0.3 + random.nextDouble() * 1.2;
+
+			byte[] name = countryName(country).getBytes(StandardCharsets.UTF_8);
+			byte[] code = countryCode(country).getBytes(StandardCharsets.US_ASCII);
+			int suffixLength = 2 + name.length + 2 + code.length + 1;
+			if(line.length < 32 + suffixLength) {
+				line = new byte[2 * (32 + suffixLength)];
+			}
+
+			for(int year = startYear; year < startYear + years; year++) {
+				double trend = trendPerYear * (year - startYear);
+				for(int month = 1; month <= 12; month++) {
+					byte[] monthName = TemperatureTable.getMonthAsString(month).getBytes(StandardCharsets.US_ASCII);
+					for(int reading = 0; reading < readingsPerMonth; reading++) {
+						//the seasonal curve peaks in the middle of July in the northern hemisphere
+						double time = month - 1 + (reading + 0.5) / readingsPerMonth;
+						double seasonal = -amplitude * Math.cos(2 * Math.PI * (time - 0.5) / 12);
+						double temperature = mean + seasonal + trend + noise * random.nextGaussian();
+
+						int length = formatTemperature(line, temperature);
+						line[length++] = ',';
+						line[length++] = ' ';
+						length = formatInt(line, length, year);
+						line[length++] = ',';
+						line[length++] = ' ';
+						System.arraycopy(monthName, 0, line, length, monthName.length);
+						length += monthName.length;
+						line[length++] = ',';
+						line[length++] = ' ';
+						System.arraycopy(name, 0, line, length, name.length);
+						length += name.length;
+						line[length++] = ',';
+						line[length++] = ' ';
+						System.arraycopy(code, 0, line, length, code.length);
+						length += code.length;
+						line[length++] = '\n';
+						out.write(line, 0, length);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the name of the given country, i.e "Country 0042"
+	 */
+	static String countryName(int country) {
+		return String.format("Country %05d", country);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the 3-letter code of the given country, i.e "AAA" for country 0 and "AAB" for country 1
+	 */
+	static String countryCode(int country) {
+		char[] code = new char[3];
+		for(int i = 2; i >= 0; i--) {
+			code[i] = (char) ('A' + country % 26);
+			country /= 26;
+		}
+		return new String(code);
+	}
+
+	/**
+	 * (Helper Method for write)
+	 * Writes a temperature with 5 decimal places at the start of the line, i.e "-3.14159"
+	 * @return the number of bytes written
+	 */
+	private static int formatTemperature(byte[] line, double temperature) {
+		long scaled = Math.round(temperature * 100_000);
+		int length = 0;
+		if(scaled < 0) {
+			line[length++] = '-';
+			scaled = -scaled;
+		}
+		length = formatInt(line, length, scaled / 100_000);
+		line[length++] = '.';
+		long fraction = scaled % 100_000;
+		for(long divisor = 10_000; divisor > 0; divisor /= 10) {
+			line[length++] = (byte) ('0' + fraction / divisor % 10);
+		}
+		return length;
+	}
+
+	/**
+	 * (Helper Method for write)
+	 * Writes the digits of a number into the line at the given position
+	 * @return the position after the last digit
+	 */
+	private static int formatInt(byte[] line, int position, long value) {
+		if(value < 0) {
+			line[position++] = '-';
+			value = -value;
+		}
+		long divisor = 1;
+		while(divisor <= value / 10) {
+			divisor *= 10;
+		}
+		for(; divisor > 0; divisor /= 10) {
+			line[position++] = (byte) ('0' + value / divisor % 10);
+		}
+		return position;
+	}
+
+	/**
+	 * Writes a synthetic dataset
+	 * Arguments: --output file [--countries 200] [--start-year 2000] [--years 17] [--per-month 1] [--seed 1]
+	 * i.e 200 countries, 17 years and 4 readings per month write about 163,000 rows,
+	 * and 5000 countries, 100 years and 30 readings per month write 180 million rows
+	 */
+	public static void main(String[] args) throws IOException {
+		String output = null;
+		int countries = 200;
+		int startYear = 2000;
+		int years = 17;
+		int readingsPerMonth = 1;
+		long seed = 1;
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			switch(args[i]) {
+			case "--output":
+				output = args[i + 1];
+				break;
+			case "--countries":
+				countries = Integer.parseInt(args[i + 1]);
+				break;
+			case "--start-year":
+				startYear = Integer.parseInt(args[i + 1]);
+				break;
+			case "--years":
+				years = Integer.parseInt(args[i + 1]);
+				break;
+			case "--per-month":
+				readingsPerMonth = Integer.parseInt(args[i + 1]);
+				break;
+			case "--seed":
+				seed = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}
+		}
+		if(output == null) {
+			System.out.println("Usage: DatasetGenerator --output file [--countries 200] [--start-year 2000] [--years 17] [--per-month 1] [--seed 1]");
+			return;
+		}
+
+		DatasetGenerator generator = new DatasetGenerator(countries, startYear, years, readingsPerMonth, seed);
+		long start = System.nanoTime();
+		generator.write(output);
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println(String.format("Wrote %,d rows to %s in %,d ms", generator.getRowCount(), output, millis));
+	}
+}
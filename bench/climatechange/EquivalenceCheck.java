@@ -0,0 +1,1825 @@
+package climatechange;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+public class EquivalenceCheck {
+	//the bundled data file, which every check runs on
+	private static final String DATA_FILE = "data/world_temp_2000-2016.csv";
+
+	//the tasks whose results runClimateAnalyzer and runBatch write to the data/taskXX_climate_info.csv files
+	private static final String[] TASKS = {"A1", "A2", "A3", "A4", "B1", "B2", "B3", "C1"};
+
+	private String dataFile;
+
+	//every reading of the data file, read with the Scanner of WeatherIO.readDataFromFile as the baseline did
+	private ArrayList<ITemperature> data;
+
+	//the same readings grouped by the lower case name of their country, still in file order, so that the baseline scans
+	//of a single country only read its readings
+	private HashMap<String, ArrayList<ITemperature>> byCountry;
+
+	//whether the baseline scans compare and return temperatures in Fahrenheit, as its getFahrenheit flag did
+	private boolean fahrenheit;
+
+	private int checks;
+	private int failures;
+
+	/**
+	 * (Constructor)
+	 * Creates an EquivalenceCheck, which compares the results of every indexed, parallel, cached, streaming and appended path
+	 * of ClimateAnalyzer with the results of a plain scan over every reading of the data file, as the baseline computed them
+	 * @param dataFile the directory/name of the data file the checks run on
+	 */
+	public EquivalenceCheck(String dataFile) throws IOException {
+		this.dataFile = dataFile;
+		data = new WeatherIO().readDataFromFile(dataFile);
+		byCountry = new HashMap<>();
+		for(ITemperature t: data) {
+			byCountry.computeIfAbsent(t.getCountry().toLowerCase(), country -> new ArrayList<>()).add(t);
+		}
+	}
+
+	//a check, which throws an AssertionError (or any other exception) when a result differs from the baseline scan
+	private interface Check {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Runs the given check and prints whether it passed
+	 * @param name the name of the check
+	 * @param check the check to run
+	 */
+	public void check(String name, Check check) {
+		checks++;
+		try {
+			check.run();
+			System.out.println("  ok      " + name);
+		}
+		catch(Throwable e) {
+			failures++;
+			System.out.println("  FAILED  " + name + ": " + e.getMessage());
+		}
+		finally {
+			fahrenheit = false;
+		}
+	}
+
+	// get the number of checks that failed so far
+	public int getFailures() {
+		return failures;
+	}
+
+	// get the number of checks that ran so far
+	public int getChecks() {
+		return checks;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Throws an AssertionError if the given results are not the same readings, compared by their temperature, year, month,
+	 * country and code in that order
+	 * @param what the result being compared, for the message
+	 * @param expected the result of the baseline scan
+	 * @param actual the result of the path being checked
+	 */
+	private void expect(String what, Object expected, Object actual) {
+		String expectedText = describe(expected);
+		String actualText = describe(actual);
+		if(!expectedText.equals(actualText)) {
+			throw new AssertionError(what + ": expected " + shorten(expectedText) + " but got " + shorten(actualText));
+		}
+	}
+
+	/**
+	 * (Helper Method for expect)
+	 * Writes a reading, or every reading of a collection in its order, as text
+	 */
+	private String describe(Object result) {
+		if(result instanceof ITemperature) {
+			ITemperature t = (ITemperature) result;
+			return t.getTemperature(fahrenheit) + "|" + t.getYear() + "|" + t.getMonth() + "|" + t.getCountry() + "|" + t.getCountry3LetterCode();
+		}
+		if(result instanceof Collection) {
+			StringBuilder text = new StringBuilder();
+			text.append(((Collection<?>) result).size()).append(" [");
+			for(Object item: (Collection<?>) result) {
+				text.append(describe(item)).append(", ");
+			}
+			return text.append("]").toString();
+		}
+		return String.valueOf(result);
+	}
+
+	/**
+	 * (Helper Method for expect)
+	 * Cuts a long result down to its start, so that a failure stays readable
+	 */
+	private static String shorten(String text) {
+		return text.length() > 300 ? text.substring(0, 300) + "..." : text;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the countries of the data file in the order they first appear, as the baseline listOfAllCountries did
+	 */
+	private ArrayList<String> countries() {
+		LinkedHashSet<String> countries = new LinkedHashSet<>();
+		for(ITemperature t: data) {
+			countries.add(t.getCountry());
+		}
+		return new ArrayList<>(countries);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the years of the data file, from the lowest to the highest
+	 */
+	private ArrayList<Integer> years() {
+		TreeSet<Integer> years = new TreeSet<>();
+		for(ITemperature t: data) {
+			years.add(t.getYear());
+		}
+		return new ArrayList<>(years);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the readings of the given country, ignoring case, in file order
+	 */
+	private ArrayList<ITemperature> readingsOf(String country) {
+		ArrayList<ITemperature> readings = byCountry.get(country.toLowerCase());
+		return readings != null ? readings : new ArrayList<>();
+	}
+
+	/**
+	 * (Baseline Scan for TASK A-1, A-2 and A-4)
+	 * Gets the lowest reading of the given country and, if not 0, month and year, by scanning every reading
+	 * Like the baseline, a later reading with the same temperature wins, and the first reading is returned if none matches
+	 */
+	private ITemperature scanLowest(String country, int month, int year) {
+		double minValue = Double.MAX_VALUE;
+		ITemperature lowest = data.get(0);
+		for(ITemperature t: readingsOf(country)) {
+			if((month == 0 || t.getMonth().equals(TemperatureTable.getMonthAsString(month)))
+					&& (year == 0 || t.getYear() == year) && t.getTemperature(fahrenheit) <= minValue) {
+				minValue = t.getTemperature(fahrenheit);
+				lowest = t;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * (Baseline Scan for TASK A-1, A-2 and A-4)
+	 * Gets the highest reading of the given country and, if not 0, month and year, by scanning every reading
+	 * The scan starts below every temperature, so that a country whose readings are all negative still has a highest one
+	 */
+	private ITemperature scanHighest(String country, int month, int year) {
+		double maxValue = Double.NEGATIVE_INFINITY;
+		ITemperature highest = data.get(0);
+		for(ITemperature t: readingsOf(country)) {
+			if((month == 0 || t.getMonth().equals(TemperatureTable.getMonthAsString(month)))
+					&& (year == 0 || t.getYear() == year) && t.getTemperature(fahrenheit) >= maxValue) {
+				maxValue = t.getTemperature(fahrenheit);
+				highest = t;
+			}
+		}
+		return highest;
+	}
+
+	/**
+	 * (Baseline Scan for TASK C-1)
+	 * Gets the reading of the given country, month and year, by scanning every reading
+	 * Like the baseline getTemp, the last matching reading wins, and null is returned if none matches
+	 */
+	private ITemperature scanTemp(String country, int month, int year) {
+		ITemperature match = null;
+		for(ITemperature t: readingsOf(country)) {
+			if(t.getMonth().equals(TemperatureTable.getMonthAsString(month)) && t.getYear() == year) {
+				match = t;
+			}
+		}
+		return match;
+	}
+
+	/**
+	 * (Baseline Scan for TASK B-1 and B-2)
+	 * Gets the lowest or highest reading of every country with a reading in the given month, or in any month if 0,
+	 * with the baseline scans of Task A-1 and A-4, sorted from low to high with Collections.sort
+	 */
+	private ArrayList<ITemperature> scanCountryExtremes(int month, boolean highest) {
+		ArrayList<ITemperature> extremes = new ArrayList<>();
+		for(String country: countries()) {
+			boolean hasReading = false;
+			for(ITemperature t: readingsOf(country)) {
+				hasReading |= month == 0 || t.getMonth().equals(TemperatureTable.getMonthAsString(month));
+			}
+			if(hasReading) {
+				extremes.add(highest ? scanHighest(country, month, 0) : scanLowest(country, month, 0));
+			}
+		}
+		Collections.sort(extremes);
+		return extremes;
+	}
+
+	/**
+	 * (Baseline Scan for TASK C-1)
+	 * Gets the temperature delta of every country with a reading of the given month in both years, with the baseline getTemp
+	 * scan, sorted from low to high with Collections.sort
+	 */
+	private ArrayList<ITemperature> scanDeltas(int month, int year1, int year2) {
+		ArrayList<ITemperature> deltas = new ArrayList<>();
+		for(String country: countries()) {
+			ITemperature reading1 = scanTemp(country, month, year1);
+			ITemperature reading2 = scanTemp(country, month, year2);
+			if(reading1 != null && reading2 != null) {
+				double difference = Math.abs(reading1.getTemperature(fahrenheit) - reading2.getTemperature(fahrenheit));
+				deltas.add(new Temperature(difference, year2 - year1, TemperatureTable.getMonthAsString(month), country, reading1.getCountry3LetterCode()));
+			}
+		}
+		Collections.sort(deltas);
+		return deltas;
+	}
+
+	/**
+	 * (Baseline Scan for TASK C-1)
+	 * Gets the k largest temperature deltas by repeating the baseline getLargestTempDeltaByCountry selection, which keeps
+	 * the country earliest in the data file of equal deltas with its strict >, and reversing the selected deltas
+	 * Unlike the baseline, a country without a reading of the month in either year is left out instead of being compared
+	 * with the first reading of the file, and the selection stops once no delta above Double.MIN_VALUE is left instead of
+	 * adding the first reading of the file
+	 */
+	private ArrayList<ITemperature> scanTopDeltas(int month, int year1, int year2, int k) {
+		ArrayList<String> existingCountries = countries();
+		ArrayList<ITemperature> narrowedList = new ArrayList<>();
+		for(int count = 1; count <= k; count++) {
+			double maxDifference = Double.MIN_VALUE;
+			ITemperature tempDelta = null;
+			for(String country: existingCountries) {
+				ITemperature reading2 = scanTemp(country, month, year2);
+				ITemperature reading1 = scanTemp(country, month, year1);
+				if(reading1 == null || reading2 == null) {
+					continue;
+				}
+				double difference = Math.abs(reading1.getTemperature(fahrenheit) - reading2.getTemperature(fahrenheit));
+				if(difference > maxDifference) {
+					maxDifference = difference;
+					tempDelta = new Temperature(maxDifference, year2 - year1, TemperatureTable.getMonthAsString(month), country, reading1.getCountry3LetterCode());
+				}
+			}
+			if(tempDelta == null) {
+				break;
+			}
+			narrowedList.add(tempDelta);
+			existingCountries.remove(tempDelta.getCountry());
+		}
+		Collections.reverse(narrowedList);
+		return narrowedList;
+	}
+
+	/**
+	 * (Baseline Scan for TASK A-3)
+	 * Gets every reading of the given country within the range (inclusive), in a TreeSet as the baseline did,
+	 * which keeps a single reading of readings that compare equal
+	 */
+	private TreeSet<ITemperature> scanRange(String country, double lowTemp, double highTemp) {
+		TreeSet<ITemperature> range = new TreeSet<>();
+		for(ITemperature t: readingsOf(country)) {
+			if(t.getTemperature(fahrenheit) >= lowTemp && t.getTemperature(fahrenheit) <= highTemp) {
+				range.add(t);
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * (Baseline Scan for TASK B-3)
+	 * Gets every reading within the range (inclusive) of every country, gathered country by country with the baseline
+	 * Task A-3 scan and sorted from low to high with Collections.sort
+	 */
+	private ArrayList<ITemperature> scanAllRange(double lowTemp, double highTemp) {
+		ArrayList<ITemperature> range = new ArrayList<>();
+		for(String country: countries()) {
+			range.addAll(scanRange(country, lowTemp, highTemp));
+		}
+		Collections.sort(range);
+		return range;
+	}
+
+	/**
+	 * Checks that a TemperatureTable holds every reading of the data file in file order, and that the Task A-1, A-2
+	 * and A-4 lookups of ClimateAnalyzer over it return the reading the baseline scan returns, for every country
+	 */
+	public void checkColumnarTable() {
+		check("TemperatureTable rows and Task A lookups", () -> {
+			TemperatureTable table = TemperatureTable.fromList(data);
+			expect("rows", data, rowsOf(table));
+
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			checkLookups(analyzer);
+
+			//a reading whose month is not a month is rejected, and leaves the table and the analyzer as they were
+			ArrayList<ITemperature> badMonth = new ArrayList<>(data.subList(0, 3));
+			badMonth.add(new Temperature(1.5, 2000, "Jan", "Atlantis", "ATL") {
+				public String getMonth() {
+					return "Foo";
+				}
+			});
+			expectRejected("a reading of month Foo", "Foo", () -> TemperatureTable.fromList(badMonth));
+			long version = analyzer.getDataVersion();
+			expectRejected("a reading of month 13", "13", () -> analyzer.appendReading(1.5, 2000, 13, "Atlantis", "ATL"));
+			expect("data version after the rejected reading", version, analyzer.getDataVersion());
+			checkLookups(analyzer);
+		});
+	}
+
+	/**
+	 * (Helper Method)
+	 * Throws an AssertionError unless the given check throws an IllegalArgumentException whose message holds the given value
+	 */
+	private static void expectRejected(String what, String value, Check check) throws Exception {
+		try {
+			check.run();
+		}
+		catch(IllegalArgumentException e) {
+			if(!e.getMessage().contains(value)) {
+				throw new AssertionError(what + ": the message \"" + e.getMessage() + "\" does not name " + value);
+			}
+			return;
+		}
+		throw new AssertionError(what + " was not rejected");
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets every row of the given table as an ITemperature object
+	 */
+	private static ArrayList<ITemperature> rowsOf(TemperatureTable table) {
+		ArrayList<ITemperature> rows = new ArrayList<>(table.size());
+		for(int row = 0; row < table.size(); row++) {
+			rows.add(table.getRow(row));
+		}
+		return rows;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Compares the Task A-1, A-2 and A-4 lookups of the given analyzer with the baseline scans for every country,
+	 * every month and every year, plus a country and a year that are not in the data
+	 */
+	private void checkLookups(IClimateAnalyzer analyzer) {
+		ArrayList<String> countries = countries();
+		countries.add("Atlantis");
+		ArrayList<Integer> years = years();
+		years.add(1066);
+		for(String country: countries) {
+			for(int month = 1; month <= 12; month++) {
+				expect("A-1 lowest " + country + " " + month, scanLowest(country, month, 0), analyzer.getLowestTempByMonth(country, month));
+				expect("A-1 highest " + country + " " + month, scanHighest(country, month, 0), analyzer.getHighestTempByMonth(country, month));
+			}
+			for(int year: years) {
+				expect("A-2 lowest " + country + " " + year, scanLowest(country, 0, year), analyzer.getLowestTempByYear(country, year));
+				expect("A-2 highest " + country + " " + year, scanHighest(country, 0, year), analyzer.getHighestTempByYear(country, year));
+			}
+			expect("A-4 lowest " + country, scanLowest(country, 0, 0), analyzer.getLowestTempYearByCountry(country));
+			expect("A-4 highest " + country, scanHighest(country, 0, 0), analyzer.getHighestTempYearByCountry(country));
+		}
+	}
+
+	/**
+	 * Checks that the CompositeIndex lookups of ClimateAnalyzer (getTemp and lookup) return the reading the baseline scan
+	 * returns for every country, year and month, and the first reading (getTemp) or null (lookup) when there is none
+	 */
+	public void checkCompositeIndex() {
+		check("CompositeIndex getTemp and lookup", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<String> countries = countries();
+			countries.add("Atlantis");
+			ArrayList<Integer> years = years();
+			years.add(1066);
+			for(String country: countries) {
+				for(int year: years) {
+					for(int month = 1; month <= 12; month++) {
+						ITemperature expected = scanTemp(country, month, year);
+						expect("lookup " + country + " " + year + " " + month, expected, analyzer.lookup(country.toUpperCase(), year, month));
+						expect("getTemp " + country + " " + year + " " + month, expected != null ? expected : data.get(0), analyzer.getTemp(country, month, year));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Checks that the single-pass CountryAggregation of Task B-1 and B-2 finds the same lowest and highest reading of
+	 * every country as the baseline scans of Task A-1 and A-4, asking for every country so that none is cut off
+	 */
+	public void checkCountryAggregation() {
+		check("CountryAggregation of Task B-1 and B-2", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			int all = countries().size();
+			for(int month = 1; month <= 12; month++) {
+				expect("B-1 lowest " + month, scanCountryExtremes(month, false), analyzer.allCountriesGetTopKLowestTemp(month, all));
+				expect("B-1 highest " + month, scanCountryExtremes(month, true), analyzer.allCountriesGetTopKHighestTemp(month, all));
+			}
+			expect("B-2 lowest", scanCountryExtremes(0, false), analyzer.allCountriesGetTopKLowestTemp(all));
+			expect("B-2 highest", scanCountryExtremes(0, true), analyzer.allCountriesGetTopKHighestTemp(all));
+		});
+	}
+
+	/**
+	 * Checks that the bounded heap of TopK selects the same readings as sorting every country and cutting the sorted list,
+	 * the lowest k from its start and the highest k from its end, for k from 0 to more than the number of countries
+	 */
+	public void checkTopK() {
+		check("TopK selection of Task B-1 and B-2", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<ITemperature> lowest = scanCountryExtremes(7, false);
+			ArrayList<ITemperature> highest = scanCountryExtremes(7, true);
+			ArrayList<ITemperature> lowestOverall = scanCountryExtremes(0, false);
+			ArrayList<ITemperature> highestOverall = scanCountryExtremes(0, true);
+			for(int k: new int[] {0, 1, 10, 50, lowest.size() + 5}) {
+				expect("B-1 lowest k=" + k, first(lowest, k), analyzer.allCountriesGetTopKLowestTemp(7, k));
+				expect("B-1 highest k=" + k, last(highest, k), analyzer.allCountriesGetTopKHighestTemp(7, k));
+				expect("B-2 lowest k=" + k, first(lowestOverall, k), analyzer.allCountriesGetTopKLowestTemp(k));
+				expect("B-2 highest k=" + k, last(highestOverall, k), analyzer.allCountriesGetTopKHighestTemp(k));
+			}
+			expect("B-1 top 10 lowest", first(lowest, 10), analyzer.allCountriesGetTop10LowestTemp(7));
+			expect("B-2 top 10 highest", last(highestOverall, 10), analyzer.allCountriesGetTop10HighestTemp());
+		});
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the first k readings of a sorted list, or all of them if there are fewer
+	 */
+	private static ArrayList<ITemperature> first(ArrayList<ITemperature> sorted, int k) {
+		return new ArrayList<>(sorted.subList(0, Math.min(k, sorted.size())));
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the last k readings of a sorted list in their order, or all of them if there are fewer
+	 */
+	private static ArrayList<ITemperature> last(ArrayList<ITemperature> sorted, int k) {
+		return new ArrayList<>(sorted.subList(Math.max(sorted.size() - k, 0), sorted.size()));
+	}
+
+	/**
+	 * Checks that the hash join of TempDeltaJoin finds the same temperature delta of every country as the baseline getTemp
+	 * scans of both years, for every month, for every month at once, and for the top k deltas
+	 */
+	public void checkTempDeltaJoin() {
+		check("TempDeltaJoin of Task C-1", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<Integer> years = years();
+			int[][] yearPairs = {{years.get(0), years.get(years.size() - 1)}, {2005, 2001}, {2010, 2010}, {2003, 1066}};
+			for(int[] pair: yearPairs) {
+				ArrayList<ITemperature> allMonths = new ArrayList<>();
+				for(int month = 1; month <= 12; month++) {
+					ArrayList<ITemperature> deltas = scanDeltas(month, pair[0], pair[1]);
+					allMonths.addAll(deltas);
+					expect("C-1 deltas " + month + " " + pair[0] + "-" + pair[1], deltas, analyzer.allCountriesTempDeltas(month, pair[0], pair[1]));
+					expect("C-1 top 10 " + month + " " + pair[0] + "-" + pair[1], scanTopDeltas(month, pair[0], pair[1], 10), analyzer.allCountriesTop10TempDelta(month, pair[0], pair[1]));
+				}
+				Collections.sort(allMonths);
+				expect("C-1 every month " + pair[0] + "-" + pair[1], allMonths, analyzer.allCountriesTempDeltasAllMonths(pair[0], pair[1]));
+			}
+		});
+	}
+
+	/**
+	 * Checks that the top 10 temperature deltas of Task C-1 are the ones the baseline selection keeps when deltas tie
+	 * across the 10th place, on a copy of the data file with every temperature rounded to a whole degree,
+	 * from ClimateAnalyzer and from a StreamingAnalyzer pass
+	 */
+	public void checkTiedTopDeltas() {
+		check("Task C-1 top 10 with tied deltas", () -> {
+			Path rounded = Files.createTempFile("world_temp_whole", ".csv");
+			try {
+				List<String> lines = Files.readAllLines(Paths.get(dataFile));
+				ArrayList<String> roundedLines = new ArrayList<>();
+				for(String line: lines.subList(1, lines.size())) {
+					String[] fields = line.split(",", 2);
+					roundedLines.add(fields.length < 2 ? line : (double) Math.round(Double.parseDouble(fields[0].trim())) + "," + fields[1]);
+				}
+				writeLines(rounded, lines.get(0), roundedLines);
+				EquivalenceCheck baseline = new EquivalenceCheck(rounded.toString());
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(rounded.toString());
+				ArrayList<Integer> years = baseline.years();
+				int first = years.get(0);
+				int last = years.get(years.size() - 1);
+
+				int straddling = 0;
+				StreamingAnalyzer streaming = new StreamingAnalyzer();
+				ArrayList<StreamingQuery<ArrayList<ITemperature>>> queries = new ArrayList<>();
+				for(int month = 1; month <= 12; month++) {
+					ArrayList<ITemperature> expected = baseline.scanTopDeltas(month, first, last, 10);
+					baseline.expect("C-1 top 10 " + month, expected, analyzer.allCountriesTop10TempDelta(month, first, last));
+					baseline.expect("C-1 top 3 " + month, baseline.scanTopDeltas(month, first, last, 3), analyzer.allCountriesTopKTempDelta(month, first, last, 3));
+					ArrayList<ITemperature> eleven = baseline.scanTopDeltas(month, first, last, 11);
+					if(eleven.size() == 11 && eleven.get(0).getTemperature(false) == eleven.get(1).getTemperature(false)) {
+						straddling++;
+					}
+					queries.add(streaming.allCountriesTopKTempDelta(month, first, last, 10));
+				}
+				if(straddling == 0) {
+					throw new AssertionError("no month has deltas tied across the 10th place");
+				}
+				streaming.run(rounded.toString());
+				for(int month = 1; month <= 12; month++) {
+					baseline.expect("streaming C-1 top 10 " + month, baseline.scanTopDeltas(month, first, last, 10), queries.get(month - 1).getResult());
+				}
+			}
+			finally {
+				Files.deleteIfExists(rounded);
+			}
+		});
+	}
+
+	/**
+	 * Checks that the binary searches of the SortedTemperatureIndex return the same readings as the baseline Task A-3
+	 * and B-3 scans, including a single one of readings that compare equal, for narrow, wide, empty and reversed ranges
+	 */
+	public void checkSortedIndex() {
+		check("SortedTemperatureIndex of Task A-3 and B-3", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			double[][] ranges = {{-5, 12.5}, {25.1, 40}, {-3, 4}, {10, 10.2}, {-100, 100}, {50, 60}, {4, -3}};
+			for(double[] range: ranges) {
+				for(String country: countries()) {
+					expect("A-3 " + country + " " + range[0] + " to " + range[1], scanRange(country, range[0], range[1]),
+							analyzer.getTempWithinRange(country, range[0], range[1]));
+				}
+				expect("B-3 " + range[0] + " to " + range[1], scanAllRange(range[0], range[1]),
+						analyzer.allCountriesGetAllDataWithinTempRange(range[0], range[1]));
+			}
+		});
+	}
+
+	/**
+	 * Checks that the memory-mapped MappedCsvReader reads the same readings, in the same order, as the Scanner of the baseline,
+	 * both as ITemperature objects and into a TemperatureTable
+	 */
+	public void checkMappedReader() {
+		check("MappedCsvReader", () -> {
+			WeatherIO weather = new WeatherIO();
+			expect("readDataFromFileMapped", data, weather.readDataFromFileMapped(dataFile));
+			TemperatureTable table = new TemperatureTable();
+			weather.readDataFromFile(dataFile, table);
+			expect("readDataFromFile (sink)", data, rowsOf(table));
+		});
+	}
+
+	/**
+	 * Checks that ParallelCsvReader reads the same readings, in the same order, as the Scanner of the baseline,
+	 * with chunks small enough that most of them start and end in the middle of a line
+	 */
+	public void checkParallelReader() {
+		check("ParallelCsvReader", () -> {
+			for(int threads : new int[] {1, 3, 8}) {
+				for(long chunkSize : new long[] {97, 4093, 65536}) {
+					WeatherIO weather = new WeatherIO();
+					weather.setIngestThreads(threads);
+					weather.setIngestChunkSize(chunkSize);
+					TemperatureTable table = new TemperatureTable();
+					weather.readDataFromFileParallel(dataFile, table);
+					expect("readDataFromFileParallel(" + threads + " threads, " + chunkSize + " bytes)", data, rowsOf(table));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Checks that a TemperatureSnapshot loads the same readings and sorted rows as parsing the data file, and that a
+	 * ClimateAnalyzer started from a truncated or corrupt snapshot falls back to the data file and replaces the snapshot
+	 */
+	public void checkSnapshot() {
+		check("TemperatureSnapshot", () -> {
+			Path snapshot = Files.createTempFile("world_temp", ".snapshot");
+			try {
+				Files.delete(snapshot);
+				ClimateAnalyzer parsed = new ClimateAnalyzer(dataFile, snapshot.toString());
+				checkSnapshotFile(snapshot);
+				byte[] written = Files.readAllBytes(snapshot);
+
+				ClimateAnalyzer loaded = new ClimateAnalyzer(dataFile, snapshot.toString());
+				checkLookups(loaded);
+				expect("A-3 from the snapshot", parsed.getTempWithinRange("India", 10, 25), loaded.getTempWithinRange("India", 10, 25));
+				expect("B-3 from the snapshot", scanAllRange(-5, 12.5), loaded.allCountriesGetAllDataWithinTempRange(-5, 12.5));
+
+				//a snapshot cut inside its country names, inside its columns and just before its end
+				for(int length: new int[] {60, written.length / 2, written.length - 1}) {
+					Files.write(snapshot, Arrays.copyOf(written, length));
+					checkFallback(snapshot, "truncated to " + length + " bytes");
+				}
+				//a snapshot of the right length whose columns were overwritten
+				byte[] garbage = written.clone();
+				Arrays.fill(garbage, garbage.length / 2, garbage.length, (byte) 0x7F);
+				Files.write(snapshot, garbage);
+				checkFallback(snapshot, "overwritten");
+
+				//a snapshot written through IWeatherIO, without the sorted rows, which are sorted again when it is loaded
+				IWeatherIO weather = new WeatherIO();
+				weather.writeSnapshot(snapshot.toString(), dataFile, TemperatureTable.fromList(data));
+				ClimateAnalyzer unsorted = new ClimateAnalyzer(dataFile, snapshot.toString());
+				checkLookups(unsorted);
+				expect("B-3 from a snapshot without sorted rows", scanAllRange(-5, 12.5), unsorted.allCountriesGetAllDataWithinTempRange(-5, 12.5));
+			}
+			finally {
+				Files.deleteIfExists(snapshot);
+			}
+		});
+	}
+
+	/**
+	 * (Helper Method for checkSnapshot)
+	 * Checks that a ClimateAnalyzer started from the given bad snapshot answers as the baseline scans do,
+	 * and that the snapshot it wrote in its place is whole again
+	 */
+	private void checkFallback(Path snapshot, String what) throws IOException {
+		try {
+			TemperatureSnapshot.read(snapshot.toString(), dataFile, false);
+			throw new AssertionError("a snapshot " + what + " was loaded");
+		}
+		catch(IOException e) {
+			//expected, the snapshot is truncated or corrupt
+		}
+		ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile, snapshot.toString());
+		expect("rows after a snapshot " + what, analyzer.listOfAllCountries(), countries());
+		checkLookups(analyzer);
+		checkSnapshotFile(snapshot);
+	}
+
+	/**
+	 * (Helper Method for checkSnapshot)
+	 * Checks that the given snapshot holds every reading of the data file in file order, and the rows sorted as
+	 * a SortedTemperatureIndex built from the data file sorts them
+	 */
+	private void checkSnapshotFile(Path snapshot) throws IOException {
+		TemperatureSnapshot loaded = TemperatureSnapshot.read(snapshot.toString(), dataFile, true);
+		if(loaded == null || !loaded.hasSortedIndex()) {
+			throw new AssertionError("no snapshot with sorted rows was written to " + snapshot);
+		}
+		expect("snapshot rows", data, rowsOf(loaded.getTable()));
+		int[] sortedRows = new SortedTemperatureIndex(TemperatureTable.fromList(data)).getSortedRows();
+		expect("snapshot sorted rows", Arrays.toString(sortedRows), Arrays.toString(loaded.getSortedIndex().getSortedRows()));
+	}
+
+	/**
+	 * Checks that the dictionary-encoded countries, codes and months read back as the Strings of the data file,
+	 * that the rows of a table share its single String per country, that a Temperature of a month that is not a month
+	 * is rejected, and that listOfAllCountries and validCountry answer as the baseline did with its list of the country
+	 * of every reading
+	 */
+	public void checkDictionaries() {
+		check("Dictionary encoding of countries, codes and months", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<String> countries = countries();
+			expect("listOfAllCountries", countries, analyzer.listOfAllCountries());
+			for(String country: countries) {
+				expect("validCountry " + country, countries.contains(country), analyzer.validCountry(country));
+				String upper = country.toUpperCase();
+				expect("validCountry " + upper, countries.contains(upper), analyzer.validCountry(upper));
+			}
+			expect("validCountry Atlantis", false, analyzer.validCountry("Atlantis"));
+
+			ArrayList<ITemperature> mapped = new WeatherIO().readDataFromFileMapped(dataFile);
+			expect("mapped rows", data, mapped);
+			TemperatureTable table = TemperatureTable.fromList(mapped);
+			for(int i = 0; i < table.size(); i++) {
+				ITemperature expected = data.get(i);
+				ITemperature t = table.getRow(i);
+				if(!t.getCountry3LetterCode().equals(expected.getCountry3LetterCode())
+						|| t.getCountry() != table.getCountryName(table.getCountryIdExact(expected.getCountry()))
+						|| t.getMonth() != TemperatureTable.getMonthAsString(TemperatureTable.getMonthAsInt(expected.getMonth()))) {
+					throw new AssertionError("row " + i + " does not use the Strings of its table");
+				}
+			}
+			expectRejected("a Temperature of month Foo", "Foo", () -> new Temperature(1.5, 2000, "Foo", "Atlantis", "ATL"));
+			expectRejected("a Temperature of month jan", "jan", () -> new Temperature(1.5, 2000, "jan", "Atlantis", "ATL"));
+		});
+	}
+
+	/**
+	 * Checks that the precomputed keys of Temperature.compareTo and the primitive keys of RowSorter order every reading
+	 * as the baseline compareTo did, temperature first, then the country's name, then year and month, and that
+	 * readings that compare equal have the same hash code
+	 */
+	public void checkSortKeys() {
+		check("Temperature sort keys and RowSorter", () -> {
+			ArrayList<ITemperature> expected = new ArrayList<>(data);
+			expected.sort(EquivalenceCheck::compareBaseline);
+
+			ArrayList<ITemperature> shuffled = new ArrayList<>(data);
+			Collections.shuffle(shuffled, new Random(11));
+			ArrayList<ITemperature> sorted = new ArrayList<>(shuffled);
+			Collections.sort(sorted);
+			ArrayList<ITemperature> baselineSorted = new ArrayList<>(shuffled);
+			baselineSorted.sort(EquivalenceCheck::compareBaseline);
+			expect("Collections.sort", baselineSorted, sorted);
+			ArrayList<ITemperature> rowSorted = new ArrayList<>(shuffled);
+			RowSorter.sort(rowSorted);
+			expect("RowSorter.sort(list)", baselineSorted, rowSorted);
+
+			TemperatureTable table = TemperatureTable.fromList(data);
+			ArrayList<ITemperature> rows = new ArrayList<>();
+			for(int row: RowSorter.sort(table)) {
+				rows.add(table.getRow(row));
+			}
+			expect("RowSorter.sort(table)", expected, rows);
+
+			for(int i = 1; i < expected.size(); i++) {
+				ITemperature previous = expected.get(i - 1);
+				ITemperature t = expected.get(i);
+				if(compareBaseline(previous, t) == 0 && (!previous.equals(t) || previous.hashCode() != t.hashCode())) {
+					throw new AssertionError("equal readings " + previous + " and " + t + " are not equal or hash differently");
+				}
+			}
+		});
+	}
+
+	/**
+	 * (Baseline Comparison)
+	 * Compares two readings as the baseline Temperature.compareTo did, by temperature, then country name, then year, then month
+	 */
+	private static int compareBaseline(ITemperature a, ITemperature b) {
+		int temp = Double.compare(a.getTemperature(false), b.getTemperature(false));
+		if(temp != 0) {
+			return temp;
+		}
+		int countries = a.getCountry().compareTo(b.getCountry());
+		if(countries != 0) {
+			return countries;
+		}
+		int years = Integer.compare(a.getYear(), b.getYear());
+		if(years != 0) {
+			return years;
+		}
+		return Integer.compare(TemperatureTable.getMonthAsInt(a.getMonth()), TemperatureTable.getMonthAsInt(b.getMonth()));
+	}
+
+	/**
+	 * Checks that runBatch writes the same task files as writing the results of the baseline scans with the subjects of
+	 * runClimateAnalyzer, and that it skips invalid queries and comments
+	 * The task files in data are put back as they were before the check
+	 */
+	public void checkBatch() {
+		check("runBatch", () -> {
+			Path queries = Files.createTempFile("queries", ".txt");
+			long[] sizes = taskFileSizes();
+			try {
+				Files.write(queries, Arrays.asList("# every task once, and three invalid queries", "A1, India, 7", "A2, Canada, 2005",
+						"A3, India, 10, 25", "A4, Brazil", "", "B1, 1", "B2", "B3, 30, 40", "C1, 6, 2000, 2016",
+						"A1, Atlantis, 7", "B1, 13", "Z9"));
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+				expect("queries completed", 8, analyzer.runBatch(queries.toString()));
+				String[] written = appendedTaskText(sizes);
+				restoreTaskFiles(sizes);
+
+				String topic = "Temperature, Year, Month_Avg, Country, Country_Code";
+				WeatherIO weather = new WeatherIO();
+				writeTask(weather, "A1", "Task A1: lowest temperature for India in Jul", topic, scanLowest("India", 7, 0));
+				writeTask(weather, "A1", "Task A1: highest temperature for India in Jul", topic, scanHighest("India", 7, 0));
+				writeTask(weather, "A2", "Task A2: lowest temperature for Canada in 2005", topic, scanLowest("Canada", 0, 2005));
+				writeTask(weather, "A2", "Task A2: highest temperature for Canada in 2005", topic, scanHighest("Canada", 0, 2005));
+				writeTask(weather, "A3", "Task A3: Temperatures within the specific range of 10.0(C)-25.0(C) for India", topic, scanRange("India", 10, 25));
+				writeTask(weather, "A4", "Task A4: The year with the lowest temperature for Brazil", topic, scanLowest("Brazil", 0, 0));
+				writeTask(weather, "A4", "Task A4: The year with the highest temperature for Brazil", topic, scanHighest("Brazil", 0, 0));
+				writeTask(weather, "B1", "Task B1: Top 10 countries with the lowest temperature reading for Jan between 2000 and 2016", topic, first(scanCountryExtremes(1, false), 10));
+				writeTask(weather, "B1", "Task B1: Top 10 countries with the highest temperature reading for Jan between 2000 and 2016", topic, last(scanCountryExtremes(1, true), 10));
+				writeTask(weather, "B2", "Task B2: Top 10 countries with the lowest temperature from 2000 and 2016", topic, first(scanCountryExtremes(0, false), 10));
+				writeTask(weather, "B2", "Task B2: Top 10 countries with the highest temperature reading from 2000 and 2016", topic, last(scanCountryExtremes(0, true), 10));
+				writeTask(weather, "B3", "Task B3: List all of the countries that fall within a specific temperature range of 30.0(C)-40.0(C)", topic, scanAllRange(30, 40));
+				writeTask(weather, "C1", "Task C1: List of the top 10 countries with the largest change in temperature in Jun between 2000 and 2016",
+						"Temperature Delta, Year Delta, Month_Avg, Country, Country_Code", scanTopDeltas(6, 2000, 2016, 10));
+				String[] expected = appendedTaskText(sizes);
+				for(int i = 0; i < TASKS.length; i++) {
+					if(written[i].isEmpty()) {
+						throw new AssertionError("nothing was written to the file of task " + TASKS[i]);
+					}
+					expect("task " + TASKS[i] + " file", expected[i], written[i]);
+				}
+			}
+			finally {
+				restoreTaskFiles(sizes);
+				Files.deleteIfExists(queries);
+			}
+		});
+	}
+
+	/**
+	 * (Helper Method for checkBatch)
+	 * Writes a subject and its results to the file of the given task, through the writeSubjectHeaderInFile and
+	 * writeDataToFile of the baseline
+	 */
+	private static void writeTask(WeatherIO weather, String task, String subject, String topic, Object result) throws IOException {
+		ArrayList<ITemperature> list = new ArrayList<>();
+		if(result instanceof ITemperature) {
+			list.add((ITemperature) result);
+		}
+		else {
+			for(Object t: (Collection<?>) result) {
+				list.add((ITemperature) t);
+			}
+		}
+		String fileName = taskFile(task).toString();
+		weather.writeSubjectHeaderInFile(fileName, subject);
+		weather.writeDataToFile(fileName, topic, list);
+	}
+
+	// get the file the results of the given task are written to
+	private static Path taskFile(String task) {
+		return Paths.get("data", "task" + task + "_climate_info.csv");
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the size of the file of every task, or -1 for a task file that does not exist yet
+	 */
+	private static long[] taskFileSizes() throws IOException {
+		long[] sizes = new long[TASKS.length];
+		for(int i = 0; i < TASKS.length; i++) {
+			Path file = taskFile(TASKS[i]);
+			sizes[i] = Files.exists(file) ? Files.size(file) : -1;
+		}
+		return sizes;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the text written to the file of every task since its size was taken with taskFileSizes
+	 */
+	private static String[] appendedTaskText(long[] sizes) throws IOException {
+		String[] text = new String[TASKS.length];
+		for(int i = 0; i < TASKS.length; i++) {
+			Path file = taskFile(TASKS[i]);
+			byte[] bytes = Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+			int from = (int) Math.max(sizes[i], 0);
+			text[i] = new String(bytes, from, bytes.length - from, "UTF-8");
+		}
+		return text;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Cuts the file of every task back to the size taken with taskFileSizes, deleting the files that did not exist
+	 */
+	private static void restoreTaskFiles(long[] sizes) throws IOException {
+		for(int i = 0; i < TASKS.length; i++) {
+			Path file = taskFile(TASKS[i]);
+			if(sizes[i] < 0) {
+				Files.deleteIfExists(file);
+			}
+			else if(Files.exists(file)) {
+				try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+					channel.truncate(sizes[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that a ResultSink writes every reading of the data file, and readings whose rounding or notation is awkward,
+	 * exactly as the PrintWriter of the baseline writeSubjectHeaderInFile and writeDataToFile did
+	 */
+	public void checkResultSink() {
+		check("ResultSink formatting", () -> {
+			ArrayList<ITemperature> readings = new ArrayList<>(data);
+			double[] awkward = {0, -0.0, 0.004, -0.004, 0.005, -0.005, 0.015, -0.015, 1.005, -1.005, 2.675, 99.995, -17.7778,
+					-40, 9999999.99, 10000000, -10000000, 123456789.125, 1e-7, -1e-7};
+			for(double temperature: awkward) {
+				readings.add(new Temperature(temperature, 2016, "Dec", "Atlantis", "ATL"));
+			}
+
+			Path file = Files.createTempFile("task_result", ".csv");
+			try {
+				String topic = "Temperature, Year, Month_Avg, Country, Country_Code";
+				try(ResultSink results = new ResultSink()) {
+					results.writeSubjectHeaderInFile(file.toString(), "subject");
+					results.writeDataToFile(file.toString(), topic, readings);
+				}
+
+				StringWriter expected = new StringWriter();
+				PrintWriter pw = new PrintWriter(expected);
+				pw.println("subject");
+				pw.println(topic);
+				for(ITemperature c: readings) {
+					pw.println((Math.round(c.getTemperature(false) * 100.0)/100.0) + "(C) " + (Math.round(c.getTemperature(true) * 100.0)/100.0) + "(F)"
+							+ "," + c.getYear() + "," + c.getMonth()+ "," + c.getCountry() + "," + c.getCountry3LetterCode());
+				}
+				pw.close();
+				expect("task file", expected.toString(), new String(Files.readAllBytes(file), "UTF-8"));
+			}
+			finally {
+				Files.deleteIfExists(file);
+			}
+		});
+	}
+
+	/**
+	 * Checks that the scaled datasets ClimateBenchmark measures hold copies of the bundled data file shifted by 17 years each,
+	 * and that ClimateAnalyzer answers the Task A lookups and Task B-3 on them as the baseline scans do
+	 */
+	public void checkScaledDataset() {
+		check("ClimateBenchmark scaled dataset", () -> {
+			Path scaled = ClimateBenchmark.scaledDataset(2);
+			try {
+				ArrayList<ITemperature> bundled = new WeatherIO().readDataFromFile(DATA_FILE);
+				ArrayList<ITemperature> expected = new ArrayList<>();
+				for(int copy = 0; copy < 2; copy++) {
+					for(ITemperature t: bundled) {
+						expected.add(new Temperature(t.getTemperature(false), t.getYear() + copy * 17, t.getMonth(), t.getCountry(), t.getCountry3LetterCode()));
+					}
+				}
+				EquivalenceCheck copies = new EquivalenceCheck(scaled.toString());
+				expect("scaled rows", expected, copies.data);
+
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(scaled.toString());
+				copies.checkLookups(analyzer);
+				copies.expect("B-3 -5 to 12.5", copies.scanAllRange(-5, 12.5), analyzer.allCountriesGetAllDataWithinTempRange(-5, 12.5));
+			}
+			finally {
+				Files.deleteIfExists(scaled);
+			}
+		});
+	}
+
+	/**
+	 * Checks that DatasetGenerator writes the same file for the same seed, that the file has the announced number of rows
+	 * in country, year and month order, and that every reader and the Task A and B-3 queries of ClimateAnalyzer
+	 * answer on it as the baseline does, with several readings of each month
+	 */
+	public void checkGeneratedDataset() {
+		check("DatasetGenerator", () -> {
+			DatasetGenerator generator = new DatasetGenerator(30, 1995, 4, 3, 7);
+			ByteArrayOutputStream first = new ByteArrayOutputStream();
+			ByteArrayOutputStream second = new ByteArrayOutputStream();
+			generator.write(first);
+			generator.write(second);
+			expect("same seed", true, Arrays.equals(first.toByteArray(), second.toByteArray()));
+			ByteArrayOutputStream otherSeed = new ByteArrayOutputStream();
+			new DatasetGenerator(30, 1995, 4, 3, 8).write(otherSeed);
+			expect("other seed", false, Arrays.equals(first.toByteArray(), otherSeed.toByteArray()));
+
+			Path generated = Files.createTempFile("generated", ".csv");
+			try {
+				Files.write(generated, first.toByteArray());
+				EquivalenceCheck copy = new EquivalenceCheck(generated.toString());
+				expect("rows", generator.getRowCount(), (long) copy.data.size());
+				for(int i = 0; i < copy.data.size(); i++) {
+					ITemperature t = copy.data.get(i);
+					int period = i / 3;
+					expect("row " + i, DatasetGenerator.countryCode(period / 48) + " " + (1995 + period / 12 % 4) + " " + TemperatureTable.getMonthAsString(period % 12 + 1),
+							t.getCountry3LetterCode() + " " + t.getYear() + " " + t.getMonth());
+				}
+
+				WeatherIO weather = new WeatherIO();
+				weather.setIngestChunkSize(4093);
+				TemperatureTable table = new TemperatureTable();
+				weather.readDataFromFileParallel(generated.toString(), table);
+				copy.expect("readDataFromFileParallel", copy.data, rowsOf(table));
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(generated.toString());
+				copy.checkLookups(analyzer);
+				for(String country: copy.countries()) {
+					copy.expect("A-3 " + country, copy.scanRange(country, 0, 15), analyzer.getTempWithinRange(country, 0, 15));
+				}
+				copy.expect("B-3 0 to 15", copy.scanAllRange(0, 15), analyzer.allCountriesGetAllDataWithinTempRange(0, 15));
+			}
+			finally {
+				Files.deleteIfExists(generated);
+			}
+		});
+	}
+
+	/**
+	 * Checks that AnalyzerMetrics counts every query once with the number of readings it returned, that recording metrics
+	 * does not change any result of the baseline scans, and that a CachingClimateAnalyzer only records the queries that miss
+	 */
+	public void checkMetrics() {
+		check("AnalyzerMetrics", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			AnalyzerMetrics metrics = analyzer.getMetrics();
+			metrics.reset();
+			TreeSet<ITemperature> range = scanRange("India", 10, 25);
+			ArrayList<ITemperature> allRange = scanAllRange(30, 40);
+			for(boolean enabled: new boolean[] {true, false}) {
+				metrics.setEnabled(enabled);
+				expect("A-1 metrics " + enabled, scanLowest("India", 7, 0), analyzer.getLowestTempByMonth("India", 7));
+				expect("A-3 metrics " + enabled, range, analyzer.getTempWithinRange("India", 10, 25));
+				expect("B-1 metrics " + enabled, first(scanCountryExtremes(1, false), 10), analyzer.allCountriesGetTop10LowestTemp(1));
+				expect("B-3 metrics " + enabled, allRange, analyzer.allCountriesGetAllDataWithinTempRange(30, 40));
+			}
+			expect("A-1 count", 1L, metrics.getOperation("A-1 getLowestTempByMonth").getCount());
+			expect("A-1 returned", 1L, metrics.getOperation("A-1 getLowestTempByMonth").getRowsReturned());
+			expect("A-3 returned", (long) range.size(), metrics.getOperation("A-3 getTempWithinRange").getRowsReturned());
+			expect("B-1 count", 1L, metrics.getOperation("B-1 allCountriesGetTop10LowestTemp").getCount());
+			expect("B-1 returned", (long) Math.min(10, countries().size()), metrics.getOperation("B-1 allCountriesGetTop10LowestTemp").getRowsReturned());
+			expect("B-1 top k not recorded", 0L, metrics.getOperation("B-1 allCountriesGetTopKLowestTemp").getCount());
+			expect("B-3 returned", (long) allRange.size(), metrics.getOperation("B-3 allCountriesGetAllDataWithinTempRange").getRowsReturned());
+
+			//a Task C-1 query is recorded once, under its own name, with the rows of its month in either year as rows scanned
+			metrics.setEnabled(true);
+			metrics.reset();
+			ArrayList<ITemperature> top = analyzer.allCountriesTop10TempDelta(2, 2000, 2016);
+			long monthRows = 0;
+			for(ITemperature t: data) {
+				monthRows += t.getMonth().equals("Feb") && (t.getYear() == 2000 || t.getYear() == 2016) ? 1 : 0;
+			}
+			expect("C-1 operations", "[C-1 allCountriesTop10TempDelta]", operationNames(metrics));
+			expect("C-1 scanned", monthRows, metrics.getOperation("C-1 allCountriesTop10TempDelta").getRowsScanned());
+			expect("C-1 returned", (long) top.size(), metrics.getOperation("C-1 allCountriesTop10TempDelta").getRowsReturned());
+			metrics.reset();
+			analyzer.allCountriesGetTop10HighestTemp();
+			expect("B-2 operations", "[B-2 allCountriesGetTop10HighestTemp]", operationNames(metrics));
+
+			metrics.reset();
+			CachingClimateAnalyzer cached = new CachingClimateAnalyzer(analyzer, 100, 1 << 20);
+			for(int i = 0; i < 3; i++) {
+				expect("cached A-3", range, cached.getTempWithinRange("India", 10, 25));
+			}
+			expect("cached A-3 count", 1L, metrics.getOperation("A-3 getTempWithinRange").getCount());
+		});
+	}
+
+	/**
+	 * (Helper Method for checkMetrics)
+	 * Gets the names of the operations recorded at least once, as text
+	 */
+	private static String operationNames(AnalyzerMetrics metrics) {
+		ArrayList<String> names = new ArrayList<>();
+		for(OperationStats stats: metrics.getOperations()) {
+			if(stats.getCount() > 0) {
+				names.add(stats.getName());
+			}
+		}
+		return names.toString();
+	}
+
+	/**
+	 * Checks that a CachingClimateAnalyzer answers every Task A lookup as the baseline scans do, both when it misses and
+	 * when it hits, that a country asked in another case hits the same entry, that each unit is cached on its own,
+	 * and that a reading appended to the analyzer behind it drops the cached results of its country, month and year,
+	 * which are computed again, while every other cached result still hits
+	 */
+	public void checkResultCache() {
+		check("CachingClimateAnalyzer", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			CachingClimateAnalyzer cached = new CachingClimateAnalyzer(analyzer, 100_000, 1L << 30);
+			checkLookups(cached);
+			long misses = cached.getCache().getMisses();
+			checkLookups(cached);
+			expect("misses after asking again", misses, cached.getCache().getMisses());
+
+			String country = countries().get(0);
+			ArrayList<String> variants = new ArrayList<>(Arrays.asList(country.toUpperCase(), country.toLowerCase(), country));
+			for(String variant: variants) {
+				expect("A-3 " + variant, scanRange(country, 10, 25), cached.getTempWithinRange(variant, 10, 25));
+				expect("A-1 " + variant, scanLowest(country, 7, 0), cached.getLowestTempByMonth(variant, 7));
+			}
+			expect("misses of every case of " + country, misses + 1, cached.getCache().getMisses());
+
+			cached.setFahrenheit(true);
+			fahrenheit = true;
+			expect("A-3 in Fahrenheit", scanRange(country, 50, 77), cached.getTempWithinRange(country, 50, 77));
+			expect("B-3 in Fahrenheit", scanAllRange(50, 77), cached.allCountriesGetAllDataWithinTempRange(50, 77));
+			fahrenheit = false;
+			cached.setFahrenheit(false);
+			expect("B-3 in Celsius", scanAllRange(50, 77), cached.allCountriesGetAllDataWithinTempRange(50, 77));
+
+			//a reading appended to the analyzer behind the cache only drops the cached results of its country, month and year
+			String other = countries().get(1);
+			int firstYear = years().get(0);
+			LinkedHashMap<String, java.util.function.Function<IClimateAnalyzer, Object>> untouched = new LinkedHashMap<>();
+			untouched.put("A-1 " + other + " in Jul", a -> a.getLowestTempByMonth(other, 7));
+			untouched.put("A-1 " + country + " in Jan", a -> a.getLowestTempByMonth(country, 1));
+			untouched.put("A-2 " + country + " in " + firstYear, a -> a.getLowestTempByYear(country, firstYear));
+			untouched.put("A-4 " + other, a -> a.getHighestTempYearByCountry(other));
+			untouched.put("B-1 in Jan", a -> a.allCountriesGetTop10LowestTemp(1));
+			untouched.put("C-1 in Jan", a -> a.allCountriesTop10TempDelta(1, firstYear, 2016));
+			untouched.put("C-1 in Jul without 2016", a -> a.allCountriesTopKTempDelta(7, firstYear, firstYear + 1, 5));
+			LinkedHashMap<String, java.util.function.Function<IClimateAnalyzer, Object>> touched = new LinkedHashMap<>();
+			touched.put("A-1 " + country + " in Jul", a -> a.getLowestTempByMonth(country, 7));
+			touched.put("A-2 " + country + " in 2016", a -> a.getLowestTempByYear(country, 2016));
+			touched.put("A-3 " + country, a -> a.getTempWithinRange(country, -100, 0));
+			touched.put("A-4 " + country, a -> a.getLowestTempYearByCountry(country));
+			touched.put("B-1 in Jul", a -> a.allCountriesGetTop10LowestTemp(7));
+			touched.put("B-2", a -> a.allCountriesGetTop10LowestTemp());
+			touched.put("B-3", a -> a.allCountriesGetAllDataWithinTempRange(-100, -20));
+			touched.put("C-1 in Jul", a -> a.allCountriesTempDeltas(7, firstYear, 2016));
+			touched.put("C-1 in every month", a -> a.allCountriesTempDeltasAllMonths(firstYear, 2016));
+			HashMap<String, Object> before = new HashMap<>();
+			for(Map<String, java.util.function.Function<IClimateAnalyzer, Object>> queries: Arrays.asList(untouched, touched)) {
+				for(Map.Entry<String, java.util.function.Function<IClimateAnalyzer, Object>> query: queries.entrySet()) {
+					before.put(query.getKey(), query.getValue().apply(cached));
+				}
+			}
+
+			ITemperature reading = new Temperature(-99, 2016, "Jul", country, readingsOf(country).get(0).getCountry3LetterCode());
+			analyzer.appendReading(-99, 2016, 7, country, reading.getCountry3LetterCode());
+			misses = cached.getCache().getMisses();
+			for(Map.Entry<String, java.util.function.Function<IClimateAnalyzer, Object>> query: untouched.entrySet()) {
+				expect(query.getKey() + " after an append", before.get(query.getKey()), query.getValue().apply(cached));
+				expect(query.getKey() + " after an append", query.getValue().apply(analyzer), query.getValue().apply(cached));
+			}
+			expect("misses of the results the append does not change", misses, cached.getCache().getMisses());
+			for(Map.Entry<String, java.util.function.Function<IClimateAnalyzer, Object>> query: touched.entrySet()) {
+				expect(query.getKey() + " after an append", query.getValue().apply(analyzer), query.getValue().apply(cached));
+			}
+			expect("misses of the results the append changes", misses + touched.size(), cached.getCache().getMisses());
+			expect("A-1 after an append", reading, cached.getLowestTempByMonth(country, 7));
+		});
+	}
+
+	/**
+	 * Checks that the Task A lookups answered from MaterializedAggregates return the reading the baseline scans return,
+	 * and that the count and mean of every country, (country, month) and (country, year) group are those of its readings
+	 */
+	public void checkMaterializedAggregates() {
+		check("MaterializedAggregates", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			analyzer.setMaterializedAggregates(true);
+			checkLookups(analyzer);
+			TemperatureTable table = TemperatureTable.fromList(data);
+			expectAggregates("aggregates", table, new MaterializedAggregates(table));
+		});
+	}
+
+	/**
+	 * (Helper Method)
+	 * Compares the count and mean of every group of the given aggregates with a scan of the readings of the given table,
+	 * added in row order, for every country, every month and every year of the data file, plus a year that is not in it
+	 */
+	private void expectAggregates(String what, TemperatureTable table, MaterializedAggregates aggregates) {
+		ArrayList<Integer> years = years();
+		int firstYear = years.get(0);
+		int yearCount = years.get(years.size() - 1) - firstYear + 1;
+		int countries = table.getCountryCount();
+		//column 0 holds every month, columns 1 to 12 each month, and the rest each year
+		int[][] counts = new int[countries][13 + yearCount];
+		double[][] sums = new double[countries][13 + yearCount];
+		for(int row = 0; row < table.size(); row++) {
+			int countryId = table.getCountryId(row);
+			double temperature = table.getTemperature(row);
+			for(int column: new int[] {0, table.getMonth(row), 13 + table.getYear(row) - firstYear}) {
+				counts[countryId][column]++;
+				sums[countryId][column] += temperature;
+			}
+		}
+		for(int countryId = 0; countryId < countries; countryId++) {
+			for(int column = 0; column < 13 + yearCount; column++) {
+				int month = column < 13 ? column : 0;
+				int year = column < 13 ? 0 : firstYear + column - 13;
+				String group = what + " " + table.getCountryName(countryId) + " " + month + " " + year;
+				int count = counts[countryId][column];
+				expect(group + " count", count, aggregates.getCount(countryId, month, year));
+				expect(group + " mean", count == 0 ? Double.NaN : sums[countryId][column] / count, aggregates.getMean(countryId, month, year));
+			}
+			expect(table.getCountryName(countryId) + " 1066 count", 0, aggregates.getCount(countryId, 0, 1066));
+		}
+	}
+
+	/**
+	 * Checks that readings appended to a live ClimateAnalyzer, in batches of several sizes and with new countries and years,
+	 * give the same Task A, A-3 and B-3 results as the baseline scans over the same readings loaded at once, and that the
+	 * appended MaterializedAggregates count every reading once, as aggregates built from the whole table do
+	 */
+	public void checkAppend() {
+		check("appendReadings", () -> {
+			Path initial = Files.createTempFile("world_temp_initial", ".csv");
+			Path whole = Files.createTempFile("world_temp_whole", ".csv");
+			try {
+				//the readings of the first half of the countries before 2009 are loaded, the others are appended
+				ArrayList<String> countries = countries();
+				HashSet<String> initialCountries = new HashSet<>(countries.subList(0, countries.size() / 2));
+				List<String> lines = Files.readAllLines(Paths.get(dataFile));
+				ArrayList<String> loaded = new ArrayList<>();
+				ArrayList<String> appended = new ArrayList<>();
+				for(String line: lines.subList(1, lines.size())) {
+					String[] fields = line.split(",");
+					if(fields.length < 5) {
+						continue;
+					}
+					boolean isInitial = initialCountries.contains(fields[3].trim()) && Integer.parseInt(fields[1].trim()) < 2009;
+					(isInitial ? loaded : appended).add(line);
+				}
+				//a loaded reading appended again, and a new country with a repeated reading in new years
+				appended.add(loaded.get(0));
+				appended.addAll(Arrays.asList("12.5, 2020, Jan, Atlantis, ATL", "30.1, 2021, Feb, Atlantis, ATL", "12.5, 2020, Jan, Atlantis, ATL"));
+				writeLines(initial, lines.get(0), loaded);
+				ArrayList<String> all = new ArrayList<>(loaded);
+				all.addAll(appended);
+				writeLines(whole, lines.get(0), all);
+				EquivalenceCheck baseline = new EquivalenceCheck(whole.toString());
+
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(initial.toString());
+				analyzer.setMaterializedAggregates(true);
+				analyzer.getTempWithinRange("India", 0, 10); //the sorted index is used before the appends
+				List<ITemperature> rest = baseline.data.subList(loaded.size(), baseline.data.size());
+				//the last 300 readings stay in the delta of the SortedTemperatureIndex, the others are merged into its sorted rows
+				int from = 0;
+				for(int batch: new int[] {1, 1, 7, 100, 1000, rest.size() - 1109 - 300, 300}) {
+					int to = Math.min(from + batch, rest.size());
+					TemperatureTable readings = new TemperatureTable();
+					for(ITemperature t: rest.subList(from, to)) {
+						readings.add(t.getTemperature(false), t.getYear(), TemperatureTable.getMonthAsInt(t.getMonth()), t.getCountry(), t.getCountry3LetterCode());
+					}
+					analyzer.appendReadings(readings);
+					from = to;
+				}
+
+				baseline.checkLookups(analyzer);
+				for(String country: baseline.countries()) {
+					baseline.expect("A-3 " + country, baseline.scanRange(country, 0, 15), analyzer.getTempWithinRange(country, 0, 15));
+					baseline.expect("A-3 " + country, baseline.scanRange(country, 12.5, 40), analyzer.getTempWithinRange(country, 12.5, 40));
+				}
+				baseline.expect("B-3 0 to 15", baseline.scanAllRange(0, 15), analyzer.allCountriesGetAllDataWithinTempRange(0, 15));
+				baseline.expect("B-3 -100 to 100", baseline.scanAllRange(-100, 100), analyzer.allCountriesGetAllDataWithinTempRange(-100, 100));
+				TemperatureTable table = TemperatureTable.fromList(baseline.data);
+				baseline.expectAggregates("appended aggregates", table, analyzer.getMaterializedAggregates());
+			}
+			finally {
+				Files.deleteIfExists(initial);
+				Files.deleteIfExists(whole);
+			}
+		});
+	}
+
+	/**
+	 * Checks that following a growing data file with pollTail, including a line that is only half written when it is polled,
+	 * gives the same results as the baseline scans over the whole file, and that a file that shrinks is reported
+	 * and not read again, so that none of its readings is appended twice
+	 */
+	public void checkTail() {
+		check("tailDataFile and pollTail", () -> {
+			Path followed = Files.createTempFile("world_temp_tail", ".csv");
+			try {
+				List<String> lines = Files.readAllLines(Paths.get(dataFile));
+				int loaded = lines.size() / 2;
+				writeLines(followed, lines.get(0), lines.subList(1, loaded));
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(followed.toString());
+				analyzer.tailDataFile(followed.toString(), false);
+				expect("nothing appended yet", 0, analyzer.pollTail());
+
+				int appended = 0;
+				for(int from = loaded; from < lines.size(); from += 5000) {
+					StringBuilder text = new StringBuilder();
+					for(String line: lines.subList(from, Math.min(from + 5000, lines.size()))) {
+						text.append(line).append(System.lineSeparator());
+					}
+					//the last line is written in two halves, with a poll in between
+					int half = text.length() - lines.get(Math.min(from + 5000, lines.size()) - 1).length() / 2;
+					Files.write(followed, text.substring(0, half).getBytes("UTF-8"), StandardOpenOption.APPEND);
+					appended += analyzer.pollTail();
+					Files.write(followed, text.substring(half).getBytes("UTF-8"), StandardOpenOption.APPEND);
+					appended += analyzer.pollTail();
+				}
+				expect("readings appended", data.size() - rowsBefore(lines, loaded), appended);
+				checkLookups(analyzer);
+				expect("B-3 0 to 15", scanAllRange(0, 15), analyzer.allCountriesGetAllDataWithinTempRange(0, 15));
+
+				//the file is cut to its first half, which is already loaded
+				try(FileChannel channel = FileChannel.open(followed, StandardOpenOption.WRITE)) {
+					channel.truncate(Files.size(followed) / 2);
+				}
+				try {
+					analyzer.pollTail();
+					throw new AssertionError("polling a truncated file did not fail");
+				}
+				catch(IOException e) {
+					//expected, the file shrank
+				}
+				expect("polls after the truncated file", 0, analyzer.pollTail());
+				checkLookups(analyzer);
+			}
+			finally {
+				Files.deleteIfExists(followed);
+			}
+		});
+	}
+
+	/**
+	 * (Helper Method for checkTail)
+	 * Gets the number of readings in the lines before the given line, skipping the topic line and lines that are not readings
+	 */
+	private static int rowsBefore(List<String> lines, int end) {
+		int rows = 0;
+		for(String line: lines.subList(1, end)) {
+			rows += line.split(",").length >= 5 ? 1 : 0;
+		}
+		return rows;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Writes a data file with the given topic line and lines
+	 */
+	private static void writeLines(Path file, String topic, List<String> lines) throws IOException {
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write(topic);
+			out.newLine();
+			for(String line: lines) {
+				out.write(line);
+				out.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Checks that StreamingAnalyzer, in one pass over the data file and in one pass over a snapshot of it, answers every task
+	 * with the same readings as the baseline scans, including a single one of readings that compare equal for Task A-3 and B-3
+	 */
+	public void checkStreaming() {
+		check("StreamingAnalyzer passes", () -> {
+			Path snapshot = Files.createTempFile("world_temp_streaming", ".snapshot");
+			try {
+				new WeatherIO().writeSnapshot(snapshot.toString(), dataFile, TemperatureTable.fromList(data));
+				for(boolean fromSnapshot: new boolean[] {false, true}) {
+					checkStreamingPass(fromSnapshot ? snapshot.toString() : null);
+				}
+			}
+			finally {
+				Files.deleteIfExists(snapshot);
+			}
+		});
+	}
+
+	/**
+	 * (Helper Method for checkStreaming)
+	 * Registers a query of every task, answers them in one pass over the data file, or over the given snapshot if not null,
+	 * and compares every result with the baseline scan
+	 */
+	private void checkStreamingPass(String snapshotFile) throws IOException {
+		String pass = snapshotFile != null ? "snapshot " : "";
+		ArrayList<String> countries = new ArrayList<>(countries().subList(0, 5));
+		countries.add(countries().get(countries().size() - 1));
+		countries.add("Atlantis");
+		int year = years().get(years().size() / 2);
+		ArrayList<Integer> years = years();
+
+		StreamingAnalyzer streaming = new StreamingAnalyzer();
+		ArrayList<StreamingQuery<?>> queries = new ArrayList<>();
+		ArrayList<Object> expected = new ArrayList<>();
+		ArrayList<String> names = new ArrayList<>();
+		for(String country: countries) {
+			queries.add(streaming.getLowestTempByMonth(country, 7));
+			expected.add(scanLowest(country, 7, 0));
+			queries.add(streaming.getHighestTempByMonth(country, 7));
+			expected.add(scanHighest(country, 7, 0));
+			queries.add(streaming.getLowestTempByYear(country, year));
+			expected.add(scanLowest(country, 0, year));
+			queries.add(streaming.getHighestTempByYear(country, year));
+			expected.add(scanHighest(country, 0, year));
+			queries.add(streaming.getLowestTempYearByCountry(country));
+			expected.add(scanLowest(country, 0, 0));
+			queries.add(streaming.getHighestTempYearByCountry(country));
+			expected.add(scanHighest(country, 0, 0));
+			queries.add(streaming.getTempWithinRange(country, -5, 12.5));
+			expected.add(scanRange(country, -5, 12.5));
+			Collections.addAll(names, "A-1 lowest " + country, "A-1 highest " + country, "A-2 lowest " + country,
+					"A-2 highest " + country, "A-4 lowest " + country, "A-4 highest " + country, "A-3 " + country);
+		}
+		queries.add(streaming.allCountriesGetTopKLowestTemp(7, 10));
+		expected.add(first(scanCountryExtremes(7, false), 10));
+		queries.add(streaming.allCountriesGetTopKHighestTemp(10));
+		expected.add(last(scanCountryExtremes(0, true), 10));
+		queries.add(streaming.allCountriesGetAllDataWithinTempRange(-5, 12.5));
+		expected.add(scanAllRange(-5, 12.5));
+		queries.add(streaming.allCountriesTempDeltas(1, years.get(0), years.get(years.size() - 1)));
+		expected.add(scanDeltas(1, years.get(0), years.get(years.size() - 1)));
+		queries.add(streaming.allCountriesTopKTempDelta(1, years.get(0), years.get(years.size() - 1), 10));
+		expected.add(scanTopDeltas(1, years.get(0), years.get(years.size() - 1), 10));
+		Collections.addAll(names, "B-1 lowest", "B-2 highest", "B-3", "C-1 deltas", "C-1 top 10");
+
+		long rows = snapshotFile != null ? streaming.runSnapshot(snapshotFile) : streaming.run(dataFile);
+		expect(pass + "readings passed", data.size(), (int) rows);
+		for(int i = 0; i < queries.size(); i++) {
+			expect(pass + names.get(i), expected.get(i), queries.get(i).getResult());
+		}
+	}
+
+	/**
+	 * Checks that getSlice, which ORs and ANDs the bitmaps of the BitmapIndex, returns the same readings in the same order
+	 * as a filter over every reading, for single and multiple countries, years and months, a country that is not in the data
+	 * and no filter at all
+	 */
+	public void checkBitmapSlice() {
+		check("BitmapIndex getSlice", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<String> countries = countries();
+			ArrayList<Integer> years = years();
+			List<List<String>> countryFilters = Arrays.asList(null, Arrays.asList(countries.get(0)),
+					Arrays.asList(countries.get(countries.size() - 1).toUpperCase(), "Atlantis", countries.get(1)), Arrays.asList("Atlantis"));
+			List<List<Integer>> yearFilters = Arrays.asList(null, Arrays.asList(years.get(0)), Arrays.asList(2003, 2010, 1066));
+			List<List<Integer>> monthFilters = Arrays.asList(null, Arrays.asList(7), Arrays.asList(12, 1, 2));
+			for(List<String> countryFilter: countryFilters) {
+				for(List<Integer> yearFilter: yearFilters) {
+					for(List<Integer> monthFilter: monthFilters) {
+						expect("slice " + countryFilter + " " + yearFilter + " " + monthFilter, scanSlice(countryFilter, yearFilter, monthFilter),
+								analyzer.getSlice(countryFilter, yearFilter, monthFilter));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * (Baseline Scan for getSlice)
+	 * Gets every reading, in file order, whose country (ignoring case), year and month are each in their filter,
+	 * where a null filter matches every reading
+	 */
+	private ArrayList<ITemperature> scanSlice(List<String> countries, List<Integer> years, List<Integer> months) {
+		ArrayList<ITemperature> slice = new ArrayList<>();
+		for(ITemperature t: data) {
+			boolean countryMatches = countries == null;
+			for(String country: countries != null ? countries : new ArrayList<String>()) {
+				countryMatches |= t.getCountry().equalsIgnoreCase(country);
+			}
+			boolean monthMatches = months == null;
+			for(int month: months != null ? months : new ArrayList<Integer>()) {
+				monthMatches |= t.getMonth().equals(TemperatureTable.getMonthAsString(month));
+			}
+			if(countryMatches && monthMatches && (years == null || years.contains(t.getYear()))) {
+				slice.add(t);
+			}
+		}
+		return slice;
+	}
+
+	/**
+	 * Checks that the scans of ClimateAnalyzer give the results of the baseline scans with 1, 3 and 4 threads, and that
+	 * ParallelScan splits a scan by the rows it reads, running a scan of a few selected rows on the calling thread only
+	 */
+	public void checkParallelScans() {
+		check("ParallelScan of the ClimateAnalyzer scans", () -> {
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<Integer> years = years();
+			for(int parallelism: new int[] {1, 3, 4}) {
+				analyzer.setParallelism(parallelism);
+				checkLookups(analyzer);
+				expect("B-1 lowest with " + parallelism + " threads", first(scanCountryExtremes(7, false), 10), analyzer.allCountriesGetTopKLowestTemp(7, 10));
+				expect("B-2 highest with " + parallelism + " threads", last(scanCountryExtremes(0, true), 10), analyzer.allCountriesGetTopKHighestTemp(10));
+				expect("C-1 deltas with " + parallelism + " threads", scanDeltas(1, years.get(0), years.get(years.size() - 1)),
+						analyzer.allCountriesTempDeltas(1, years.get(0), years.get(years.size() - 1)));
+			}
+			analyzer.setParallelism(1);
+
+			ParallelScan scan = new ParallelScan(4);
+			try {
+				for(int selected: new int[] {17, 1 << 15, 1 << 20}) {
+					RowBitmap rows = new RowBitmap();
+					for(int i = 0; i < selected; i++) {
+						rows.add(i * ((1 << 22) / selected));
+					}
+					int[] ranges = new int[1];
+					int counted = scan.run(1 << 22, rows.getCardinality(), new ParallelScan.Scan<Integer>() {
+						public Integer scan(int fromRow, int toRow) {
+							synchronized(ranges) {
+								ranges[0]++;
+							}
+							int count = 0;
+							for(int row = rows.next(fromRow); row >= 0 && row < toRow; row = rows.next(row + 1)) {
+								count++;
+							}
+							return count;
+						}
+
+						public Integer merge(Integer left, Integer right) {
+							return left + right;
+						}
+					});
+					expect("rows counted of " + selected, selected, counted);
+					if(selected < 1 << 15 ? ranges[0] != 1 : ranges[0] < 2 || ranges[0] > 4 * 4 * 2) {
+						throw new AssertionError(selected + " selected rows were scanned in " + ranges[0] + " ranges");
+					}
+				}
+			}
+			finally {
+				scan.shutdown();
+			}
+		});
+	}
+
+	/**
+	 * Checks that the scalar kernels, and the Vector API kernels when this JVM can run them, find the same lowest and highest
+	 * index as a plain loop over the temperatures of the data file, in doubles and in hundredths of a degree, for ranges
+	 * of every length up to a few vectors at every offset, with ties, infinities and NaN, and that ClimateAnalyzer gives
+	 * the results of the baseline scans with either of them
+	 */
+	public void checkKernels() {
+		check("ITemperatureKernels", () -> {
+			ArrayList<ITemperatureKernels> kernels = new ArrayList<>();
+			kernels.add(new ScalarKernels());
+			if(ScalarKernels.vector() != null) {
+				kernels.add(ScalarKernels.vector());
+			}
+			double[] temperatures = new double[data.size()];
+			short[] centiDegrees = new short[data.size()];
+			for(int i = 0; i < data.size(); i++) {
+				temperatures[i] = data.get(i).getTemperature(false);
+				centiDegrees[i] = CentiDegrees.encode(temperatures[i]);
+			}
+			//the same values with the special ones mixed in, and a run of equal values
+			double[] special = Arrays.copyOf(temperatures, 200);
+			for(int i = 0; i < special.length; i += 7) {
+				special[i] = i % 3 == 0 ? Double.NaN : i % 3 == 1 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+			}
+			Arrays.fill(special, 100, 140, 21.5);
+
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			for(ITemperatureKernels kernel: kernels) {
+				for(double[] values: new double[][] {temperatures, special, new double[] {Double.NaN, Double.NaN, Double.POSITIVE_INFINITY}}) {
+					for(int from = 0; from < Math.min(40, values.length); from++) {
+						for(int to = from; to <= Math.min(from + 70, values.length); to++) {
+							expect(kernel.getName() + " lowest " + from + " to " + to, loopLowest(values, from, to), kernel.lowestIndex(values, from, to));
+							expect(kernel.getName() + " highest " + from + " to " + to, loopHighest(values, from, to), kernel.highestIndex(values, from, to));
+						}
+					}
+					expect(kernel.getName() + " lowest of all", loopLowest(values, 0, values.length), kernel.lowestIndex(values, 0, values.length));
+					expect(kernel.getName() + " highest of all", loopHighest(values, 0, values.length), kernel.highestIndex(values, 0, values.length));
+				}
+				for(int from = 0; from < 40; from++) {
+					for(int to = from; to <= from + 70; to++) {
+						expect(kernel.getName() + " centi lowest " + from + " to " + to, loopLowest(centiDegrees, from, to), kernel.lowestIndex(centiDegrees, from, to));
+						expect(kernel.getName() + " centi highest " + from + " to " + to, loopHighest(centiDegrees, from, to), kernel.highestIndex(centiDegrees, from, to));
+					}
+				}
+				expect(kernel.getName() + " centi lowest of all", loopLowest(centiDegrees, 0, centiDegrees.length), kernel.lowestIndex(centiDegrees, 0, centiDegrees.length));
+				expect(kernel.getName() + " centi highest of all", loopHighest(centiDegrees, 0, centiDegrees.length), kernel.highestIndex(centiDegrees, 0, centiDegrees.length));
+
+				analyzer.setKernels(kernel);
+				checkLookups(analyzer);
+			}
+		});
+	}
+
+	/**
+	 * (Baseline Scan for checkKernels)
+	 * Gets the last index of the lowest value from one index (inclusive) to another (exclusive) as the baseline scans compared,
+	 * so that values above Double.MAX_VALUE and NaN are never the lowest, or -1 if there is no lowest
+	 */
+	private static int loopLowest(double[] values, int from, int to) {
+		double minValue = Double.MAX_VALUE;
+		int lowest = -1;
+		for(int i = from; i < to; i++) {
+			if(values[i] <= minValue) {
+				minValue = values[i];
+				lowest = i;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * (Baseline Scan for checkKernels)
+	 * Gets the last index of the highest value from one index (inclusive) to another (exclusive), where NaN is never
+	 * the highest, or -1 if there is no highest
+	 */
+	private static int loopHighest(double[] values, int from, int to) {
+		double maxValue = Double.NEGATIVE_INFINITY;
+		int highest = -1;
+		for(int i = from; i < to; i++) {
+			if(values[i] >= maxValue) {
+				maxValue = values[i];
+				highest = i;
+			}
+		}
+		return highest;
+	}
+
+	/**
+	 * (Baseline Scan for checkKernels)
+	 * Gets the last index of the lowest value in hundredths of a degree, or -1 if the range is empty
+	 */
+	private static int loopLowest(short[] values, int from, int to) {
+		int lowest = -1;
+		for(int i = from; i < to; i++) {
+			lowest = lowest < 0 || values[i] <= values[lowest] ? i : lowest;
+		}
+		return lowest;
+	}
+
+	/**
+	 * (Baseline Scan for checkKernels)
+	 * Gets the last index of the highest value in hundredths of a degree, or -1 if the range is empty
+	 */
+	private static int loopHighest(short[] values, int from, int to) {
+		int highest = -1;
+		for(int i = from; i < to; i++) {
+			highest = highest < 0 || values[i] >= values[highest] ? i : highest;
+		}
+		return highest;
+	}
+
+	/**
+	 * Checks that a ClimateAnalyzer in hundredths of a degree answers every task in Celsius and in Fahrenheit as the baseline
+	 * scans do over the data file with its temperatures rounded to 2 decimal places, and that ResultSink writes its readings
+	 * as the baseline PrintWriter formatting writes the rounded ones
+	 */
+	public void checkCentiDegrees() {
+		check("centi-degree temperatures", () -> {
+			Path rounded = Files.createTempFile("world_temp_rounded", ".csv");
+			Path file = Files.createTempFile("task_result", ".csv");
+			try {
+				List<String> lines = Files.readAllLines(Paths.get(dataFile));
+				ArrayList<String> roundedLines = new ArrayList<>();
+				for(String line: lines.subList(1, lines.size())) {
+					String[] fields = line.split(",", 2);
+					roundedLines.add(fields.length < 2 ? line : Math.round(Double.parseDouble(fields[0].trim()) * 100) / 100.0 + "," + fields[1]);
+				}
+				writeLines(rounded, lines.get(0), roundedLines);
+				EquivalenceCheck baseline = new EquivalenceCheck(rounded.toString());
+				ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile, true);
+				ArrayList<Integer> years = baseline.years();
+				for(boolean fahrenheit: new boolean[] {false, true}) {
+					baseline.fahrenheit = fahrenheit;
+					analyzer.setFahrenheit(fahrenheit);
+					baseline.checkLookups(analyzer);
+					baseline.expect("B-1 lowest", first(baseline.scanCountryExtremes(7, false), 10), analyzer.allCountriesGetTopKLowestTemp(7, 10));
+					baseline.expect("B-2 highest", last(baseline.scanCountryExtremes(0, true), 10), analyzer.allCountriesGetTopKHighestTemp(10));
+					baseline.expect("B-3", baseline.scanAllRange(fahrenheit ? 23 : -5, fahrenheit ? 54.5 : 12.5),
+							analyzer.allCountriesGetAllDataWithinTempRange(fahrenheit ? 23 : -5, fahrenheit ? 54.5 : 12.5));
+					baseline.expect("C-1 deltas", baseline.scanDeltas(1, years.get(0), years.get(years.size() - 1)),
+							analyzer.allCountriesTempDeltas(1, years.get(0), years.get(years.size() - 1)));
+				}
+				analyzer.setFahrenheit(false);
+
+				String topic = "Temperature, Year, Month_Avg, Country, Country_Code";
+				ArrayList<ITemperature> readings = analyzer.allCountriesGetAllDataWithinTempRange(-1000, 1000);
+				try(ResultSink results = new ResultSink()) {
+					results.writeDataToFile(file.toString(), topic, readings);
+				}
+				StringWriter expected = new StringWriter();
+				PrintWriter pw = new PrintWriter(expected);
+				pw.println(topic);
+				for(ITemperature c: baseline.scanAllRange(-1000, 1000)) {
+					pw.println((Math.round(c.getTemperature(false) * 100.0)/100.0) + "(C) " + (Math.round(c.getTemperature(true) * 100.0)/100.0) + "(F)"
+							+ "," + c.getYear() + "," + c.getMonth()+ "," + c.getCountry() + "," + c.getCountry3LetterCode());
+				}
+				pw.close();
+				expect("task file", expected.toString(), new String(Files.readAllBytes(file), "UTF-8"));
+			}
+			finally {
+				Files.deleteIfExists(rounded);
+				Files.deleteIfExists(file);
+			}
+		});
+	}
+
+	/**
+	 * Checks that every reading converts to Fahrenheit as the baseline getTemperature(true) did, and that ClimateAnalyzer
+	 * in Fahrenheit, set by setFahrenheit or setUnit, answers every task as the baseline scans comparing Fahrenheit values,
+	 * including ranges whose bounds are the Fahrenheit value of a reading, which StreamingAnalyzer must include as well
+	 */
+	public void checkFahrenheit() {
+		check("Fahrenheit unit", () -> {
+			for(ITemperature t: data) {
+				double celsius = t.getTemperature(false);
+				expect("Fahrenheit of " + celsius, (celsius * 9/5) + 32, ((Temperature) t).getTemperature(TemperatureUnit.FAHRENHEIT));
+				expect("getTemperature(true) of " + celsius, (celsius * 9/5) + 32, t.getTemperature(true));
+			}
+
+			ClimateAnalyzer analyzer = new ClimateAnalyzer(dataFile);
+			ArrayList<Integer> years = years();
+			String country = countries().get(0);
+			ArrayList<ITemperature> readings = readingsOf(country);
+			fahrenheit = true;
+			for(boolean byUnit: new boolean[] {false, true}) {
+				if(byUnit) {
+					analyzer.setFahrenheit(false);
+					analyzer.setUnit(TemperatureUnit.FAHRENHEIT);
+				}
+				else {
+					analyzer.setFahrenheit(true);
+				}
+				checkLookups(analyzer);
+				double[][] ranges = {{23, 54.5}, {77, 104}, {-148, 212},
+						{readings.get(0).getTemperature(true), readings.get(readings.size() / 2).getTemperature(true)},
+						{readings.get(readings.size() / 3).getTemperature(true), readings.get(readings.size() - 1).getTemperature(true)}};
+				for(double[] range: ranges) {
+					for(String rangeCountry: countries()) {
+						expect("A-3 " + rangeCountry + " " + range[0] + " to " + range[1], scanRange(rangeCountry, range[0], range[1]),
+								analyzer.getTempWithinRange(rangeCountry, range[0], range[1]));
+					}
+					expect("B-3 " + range[0] + " to " + range[1], scanAllRange(range[0], range[1]), analyzer.allCountriesGetAllDataWithinTempRange(range[0], range[1]));
+				}
+				expect("B-1 lowest", first(scanCountryExtremes(7, false), 10), analyzer.allCountriesGetTopKLowestTemp(7, 10));
+				expect("B-2 highest", last(scanCountryExtremes(0, true), 10), analyzer.allCountriesGetTopKHighestTemp(10));
+				for(int month = 1; month <= 12; month++) {
+					expect("C-1 deltas " + month, scanDeltas(month, years.get(0), years.get(years.size() - 1)),
+							analyzer.allCountriesTempDeltas(month, years.get(0), years.get(years.size() - 1)));
+				}
+			}
+
+			StreamingAnalyzer streaming = new StreamingAnalyzer();
+			streaming.setUnit(TemperatureUnit.FAHRENHEIT);
+			double low = readings.get(0).getTemperature(true);
+			double high = readings.get(readings.size() / 2).getTemperature(true);
+			StreamingQuery<ArrayList<ITemperature>> range = streaming.getTempWithinRange(country, low, high);
+			StreamingQuery<ArrayList<ITemperature>> allRange = streaming.allCountriesGetAllDataWithinTempRange(low, high);
+			streaming.run(dataFile);
+			expect("streaming A-3 " + low + " to " + high, scanRange(country, low, high), range.getResult());
+			expect("streaming B-3 " + low + " to " + high, scanAllRange(low, high), allRange.getResult());
+		});
+	}
+
+	/**
+	 * Runs every check on the data file
+	 */
+	public void runAll() {
+		System.out.println("Checking " + dataFile + " (" + data.size() + " readings)");
+		checkColumnarTable();
+		checkCompositeIndex();
+		checkCountryAggregation();
+		checkTopK();
+		checkTempDeltaJoin();
+		checkTiedTopDeltas();
+		checkSortedIndex();
+		checkMappedReader();
+		checkParallelReader();
+		checkSnapshot();
+		checkDictionaries();
+		checkSortKeys();
+		checkBatch();
+		checkResultSink();
+		checkScaledDataset();
+		checkGeneratedDataset();
+		checkMetrics();
+		checkResultCache();
+		checkMaterializedAggregates();
+		checkAppend();
+		checkTail();
+		checkStreaming();
+		checkBitmapSlice();
+		checkParallelScans();
+		checkKernels();
+		checkCentiDegrees();
+		checkFahrenheit();
+	}
+
+	/**
+	 * Writes a copy of the bundled data file that is hard on ties: every temperature is rounded to one decimal place,
+	 * every seventh reading is repeated, and the lines are shuffled with a fixed seed
+	 * @return the temporary file holding the copy, which is deleted when the JVM exits
+	 */
+	public static Path tiedDataset() throws IOException {
+		List<String> lines = Files.readAllLines(Paths.get(DATA_FILE));
+		ArrayList<String> readings = new ArrayList<>();
+		for(int i = 1; i < lines.size(); i++) {
+			String[] fields = lines.get(i).split(",", 2);
+			if(fields.length < 2) {
+				continue;
+			}
+			String line = Math.round(Double.parseDouble(fields[0].trim()) * 10) / 10.0 + "," + fields[1];
+			readings.add(line);
+			if(i % 7 == 0) {
+				readings.add(line);
+			}
+		}
+		Collections.shuffle(readings, new Random(2016));
+
+		Path file = Files.createTempFile("world_temp_tied", ".csv");
+		file.toFile().deleteOnExit();
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write(lines.get(0));
+			out.newLine();
+			for(String line: readings) {
+				out.write(line);
+				out.newLine();
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Runs every check on the bundled data file and on a tie-heavy shuffled copy of it, and exits with status 1 if any failed
+	 * Arguments: [--dataset file] to check another data file as well, i.e one written by DatasetGenerator
+	 * Run from the project folder with both src and bench on the classpath, i.e java -cp bin climatechange.EquivalenceCheck
+	 */
+	public static void main(String[] args) throws Exception {
+		ArrayList<String> dataFiles = new ArrayList<>();
+		dataFiles.add(DATA_FILE);
+		dataFiles.add(tiedDataset().toString());
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			if(args[i].equals("--dataset")) {
+				dataFiles.add(args[i + 1]);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}
+		}
+
+		int checks = 0;
+		int failures = 0;
+		for(String dataFile: dataFiles) {
+			EquivalenceCheck checker = new EquivalenceCheck(dataFile);
+			checker.runAll();
+			checks += checker.getChecks();
+			failures += checker.getFailures();
+		}
+		System.out.println(checks - failures + " of " + checks + " checks passed");
+		if(failures > 0) {
+			System.exit(1);
+		}
+	}
+}
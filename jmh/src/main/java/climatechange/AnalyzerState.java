@@ -0,0 +1,21 @@
+package climatechange;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * A ClimateAnalyzer loaded from the dataset of the trial, and the country the Task A lookups ask for
+ * The analyzer is loaded once per trial, so the Task A, B and C benchmarks only measure the queries
+ */
+@State(Scope.Benchmark)
+public class AnalyzerState {
+	public ClimateAnalyzer analyzer;
+	public String country;
+
+	/**
+	 * Loads the analyzer from the dataset, which JMH writes first since this setup depends on it
+	 */
+	@Setup(Level.Trial)
+	public void loadAnalyzer(DatasetState dataset) {
+		analyzer = new ClimateAnalyzer(dataset.dataFile);
+		country = analyzer.listOfAllCountries().get(0);
+	}
+}
@@ -0,0 +1,31 @@
+package climatechange;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+public class BenchmarkMain {
+
+	/**
+	 * Runs the JMH benchmarks with the usual JMH command line options, i.e a regular expression of the benchmarks to run,
+	 * -p scale=1,10 or -f 1, and adds the GC profiler (-prof gc), which reports the bytes allocated per operation and the
+	 * allocation rate, unless other profilers are given with -prof
+	 * Run from the project folder, since the benchmarks read the bundled data file from data/
+	 */
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions options = new CommandLineOptions(args);
+		if(options.shouldHelp()) {
+			options.showHelp();
+			return;
+		}
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if(options.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		Runner runner = new Runner(builder.build());
+		if(options.shouldList()) {
+			runner.list();
+			return;
+		}
+		runner.run();
+	}
+}
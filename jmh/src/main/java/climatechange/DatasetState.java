@@ -0,0 +1,43 @@
+package climatechange;
+import java.io.IOException;
+import java.nio.file.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The data file a benchmark reads, i.e the bundled data file or a copy of it scaled by ClimateBenchmark.scaledDataset
+ * The scale is a JMH parameter, so every benchmark runs on every scale given with -p scale=1,10,100,1000
+ * Scales of 100 and 1000 need a large heap (i.e -jvmArgsAppend -Xmx64g for 1000)
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+	@Param({"1", "10", "100"})
+	public int scale;
+
+	//the data file of the scale, and whether it is a temporary copy that is deleted after the trial
+	public String dataFile;
+	private Path scaledFile;
+
+	/**
+	 * Writes the scaled dataset once per trial, before any benchmark of the trial runs
+	 */
+	@Setup(Level.Trial)
+	public void writeDataset() throws IOException {
+		if(scale == 1) {
+			dataFile = ClimateBenchmark.DATA_FILE;
+		}
+		else {
+			scaledFile = ClimateBenchmark.scaledDataset(scale);
+			dataFile = scaledFile.toString();
+		}
+	}
+
+	/**
+	 * Deletes the scaled dataset after the trial
+	 */
+	@TearDown(Level.Trial)
+	public void deleteDataset() throws IOException {
+		if(scaledFile != null) {
+			Files.deleteIfExists(scaledFile);
+		}
+	}
+}
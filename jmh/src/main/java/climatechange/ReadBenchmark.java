@@ -0,0 +1,42 @@
+package climatechange;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reading the data file, into an ArrayList as the baseline did, into a TemperatureTable with the sequential and
+ * the parallel readers, and loading a ClimateAnalyzer, which reads the file in parallel and builds its indexes
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class ReadBenchmark {
+
+	@Benchmark
+	public ArrayList<ITemperature> readDataFromFile(DatasetState dataset) throws IOException {
+		return new WeatherIO().readDataFromFile(dataset.dataFile);
+	}
+
+	@Benchmark
+	public void readDataFromFileSink(DatasetState dataset, Blackhole blackhole) throws IOException {
+		TemperatureTable table = new TemperatureTable();
+		new WeatherIO().readDataFromFile(dataset.dataFile, table);
+		blackhole.consume(table);
+	}
+
+	@Benchmark
+	public void readDataFromFileParallel(DatasetState dataset, Blackhole blackhole) throws IOException {
+		TemperatureTable table = new TemperatureTable();
+		new WeatherIO().readDataFromFileParallel(dataset.dataFile, table);
+		blackhole.consume(table);
+	}
+
+	@Benchmark
+	public ClimateAnalyzer loadClimateAnalyzer(DatasetState dataset) {
+		return new ClimateAnalyzer(dataset.dataFile);
+	}
+}
@@ -0,0 +1,50 @@
+package climatechange;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the Task A lookups of one country on a loaded ClimateAnalyzer
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class TaskABenchmark {
+
+	@Benchmark
+	public ITemperature getLowestTempByMonth(AnalyzerState state) {
+		return state.analyzer.getLowestTempByMonth(state.country, 7);
+	}
+
+	@Benchmark
+	public ITemperature getHighestTempByMonth(AnalyzerState state) {
+		return state.analyzer.getHighestTempByMonth(state.country, 7);
+	}
+
+	@Benchmark
+	public ITemperature getLowestTempByYear(AnalyzerState state) {
+		return state.analyzer.getLowestTempByYear(state.country, 2010);
+	}
+
+	@Benchmark
+	public ITemperature getHighestTempByYear(AnalyzerState state) {
+		return state.analyzer.getHighestTempByYear(state.country, 2010);
+	}
+
+	@Benchmark
+	public TreeSet<ITemperature> getTempWithinRange(AnalyzerState state) {
+		return state.analyzer.getTempWithinRange(state.country, 0, 15);
+	}
+
+	@Benchmark
+	public ITemperature getLowestTempYearByCountry(AnalyzerState state) {
+		return state.analyzer.getLowestTempYearByCountry(state.country);
+	}
+
+	@Benchmark
+	public ITemperature getHighestTempYearByCountry(AnalyzerState state) {
+		return state.analyzer.getHighestTempYearByCountry(state.country);
+	}
+}
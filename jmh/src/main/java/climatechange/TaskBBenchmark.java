@@ -0,0 +1,60 @@
+package climatechange;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the Task B queries over every country on a loaded ClimateAnalyzer
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class TaskBBenchmark {
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTop10LowestTempByMonth(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTop10LowestTemp(7);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTop10HighestTempByMonth(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTop10HighestTemp(7);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTop10LowestTemp(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTop10LowestTemp();
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTop10HighestTemp(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTop10HighestTemp();
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTopKLowestTempByMonth(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTopKLowestTemp(7, 100);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTopKHighestTempByMonth(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTopKHighestTemp(7, 100);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTopKLowestTemp(100);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(AnalyzerState state) {
+		return state.analyzer.allCountriesGetTopKHighestTemp(100);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesGetAllDataWithinTempRange(AnalyzerState state) {
+		return state.analyzer.allCountriesGetAllDataWithinTempRange(10, 12);
+	}
+}
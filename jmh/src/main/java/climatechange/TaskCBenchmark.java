@@ -0,0 +1,35 @@
+package climatechange;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the Task C temperature delta queries between two years on a loaded ClimateAnalyzer
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class TaskCBenchmark {
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesTop10TempDelta(AnalyzerState state) {
+		return state.analyzer.allCountriesTop10TempDelta(1, 2000, 2016);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesTopKTempDelta(AnalyzerState state) {
+		return state.analyzer.allCountriesTopKTempDelta(1, 2000, 2016, 100);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesTempDeltas(AnalyzerState state) {
+		return state.analyzer.allCountriesTempDeltas(1, 2000, 2016);
+	}
+
+	@Benchmark
+	public ArrayList<ITemperature> allCountriesTempDeltasAllMonths(AnalyzerState state) {
+		return state.analyzer.allCountriesTempDeltasAllMonths(2000, 2016);
+	}
+}
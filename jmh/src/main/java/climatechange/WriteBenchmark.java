@@ -0,0 +1,41 @@
+package climatechange;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures writing the Task B-3 result, the largest result of any task, to a temporary file that is emptied before each call
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class WriteBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Output {
+		public ArrayList<ITemperature> rows;
+		public Path file;
+
+		@Setup(Level.Trial)
+		public void createFile(AnalyzerState state) throws IOException {
+			rows = state.analyzer.allCountriesGetAllDataWithinTempRange(10, 12);
+			file = Files.createTempFile("taskB3_benchmark", ".csv");
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteFile() throws IOException {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Benchmark
+	public long writeDataToFile(Output output) throws IOException {
+		Files.write(output.file, new byte[0]);
+		new WeatherIO().writeDataToFile(output.file.toString(), "Temperature, Year, Month_Avg, Country, Country_Code", output.rows);
+		return Files.size(output.file);
+	}
+}
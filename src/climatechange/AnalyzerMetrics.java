@@ -0,0 +1,190 @@
+package climatechange;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class AnalyzerMetrics {
+	//the timer returned while the metrics are disabled, which records nothing
+	private static final Timer DISABLED = new Timer(null, null, 0, 0);
+
+	//the statistics of every operation recorded so far, by name
+	private ConcurrentHashMap<String, OperationStats> operations;
+
+	private volatile boolean enabled;
+	private com.sun.management.ThreadMXBean threads;
+	private ScheduledExecutorService dumper;
+
+	/**
+	 * (Constructor)
+	 * Creates an enabled AnalyzerMetrics, which records the count, latency histogram, rows scanned, rows returned and
+	 * bytes allocated of each operation (i.e each Task A/B/C method, index build and WeatherIO read/write)
+	 * Every recorded call is also committed as an OperationEvent when Java Flight Recorder has it enabled
+	 * Allocation is measured with the per-thread allocation counter when the JVM supports it, and is 0 otherwise
+	 */
+	public AnalyzerMetrics() {
+		operations = new ConcurrentHashMap<>();
+		enabled = true;
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled()) {
+			threads = (com.sun.management.ThreadMXBean) bean;
+		}
+	}
+
+	// enable or disable recording, a disabled AnalyzerMetrics costs a single check per operation
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	// check whether operations are recorded
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts timing a call of the given operation
+	 * @param operation the name of the operation, i.e "A-1 getLowestTempByMonth"
+	 * @return a Timer whose stop method records the call
+	 */
+	public Timer start(String operation) {
+		if(!enabled) {
+			return DISABLED;
+		}
+		return new Timer(this, operation, System.nanoTime(), allocatedBytes());
+	}
+
+	/**
+	 * Records a call of the given operation
+	 * @param operation the name of the operation
+	 * @param nanos the latency of the call in nanoseconds
+	 * @param scanned the number of rows the call read
+	 * @param returned the number of rows the call returned or wrote
+	 * @param allocated the number of bytes the call allocated, or 0 if it was not measured
+	 */
+	public void record(String operation, long nanos, long scanned, long returned, long allocated) {
+		if(!enabled) {
+			return;
+		}
+		getOperation(operation).record(nanos, scanned, returned, allocated);
+
+		OperationEvent event = new OperationEvent();
+		if(event.isEnabled()) {
+			event.operation = operation;
+			event.latency = nanos;
+			event.rowsScanned = scanned;
+			event.rowsReturned = returned;
+			event.allocated = allocated;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Gets the statistics of the given operation, creating them if the operation has not been recorded yet
+	 * @param operation the name of the operation
+	 * @return the OperationStats of the operation
+	 */
+	public OperationStats getOperation(String operation) {
+		OperationStats stats = operations.get(operation);
+		if(stats == null) {
+			stats = operations.computeIfAbsent(operation, OperationStats::new);
+		}
+		return stats;
+	}
+
+	/**
+	 * Gets the statistics of every operation recorded so far, sorted by name
+	 * @return an ArrayList<OperationStats> with one entry per operation
+	 */
+	public ArrayList<OperationStats> getOperations() {
+		ArrayList<OperationStats> list = new ArrayList<>(operations.values());
+		list.sort(Comparator.comparing(OperationStats::getName));
+		return list;
+	}
+
+	/**
+	 * Forgets every call recorded so far
+	 */
+	public void reset() {
+		for(OperationStats stats: operations.values()) {
+			stats.reset();
+		}
+	}
+
+	/**
+	 * Gets a report with one line per operation, i.e its count, mean/p50/p99/max latency, rows and bytes per call
+	 * @return the report as a String
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		for(OperationStats stats: getOperations()) {
+			report.append(stats).append(System.lineSeparator());
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Prints the report to the given stream every periodMillis milliseconds, on a daemon thread, until stopPeriodicDump is called
+	 * Calling it again replaces the previous dump
+	 * @param periodMillis the time between two reports in milliseconds
+	 * @param out the stream the reports are printed to, i.e System.out
+	 */
+	public synchronized void startPeriodicDump(long periodMillis, PrintStream out) {
+		stopPeriodicDump();
+		dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "AnalyzerMetrics dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+		dumper.scheduleAtFixedRate(() -> out.print(report()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the reports started by startPeriodicDump, if any
+	 */
+	public synchronized void stopPeriodicDump() {
+		if(dumper != null) {
+			dumper.shutdownNow();
+			dumper = null;
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the number of bytes allocated so far by the current thread, or 0 if it cannot be measured
+	 */
+	private long allocatedBytes() {
+		return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * The timing of one call of an operation, returned by AnalyzerMetrics.start
+	 */
+	public static class Timer {
+		private AnalyzerMetrics metrics;
+		private String operation;
+		private long startNanos;
+		private long startAllocated;
+
+		private Timer(AnalyzerMetrics metrics, String operation, long startNanos, long startAllocated) {
+			this.metrics = metrics;
+			this.operation = operation;
+			this.startNanos = startNanos;
+			this.startAllocated = startAllocated;
+		}
+
+		/**
+		 * Records the call with the time and bytes allocated since it was started
+		 * @param scanned the number of rows the call read
+		 * @param returned the number of rows the call returned or wrote
+		 */
+		public void stop(long scanned, long returned) {
+			if(metrics == null) {
+				return;
+			}
+			long nanos = System.nanoTime() - startNanos;
+			long allocated = metrics.allocatedBytes() - startAllocated;
+			metrics.record(operation, nanos, scanned, returned, allocated);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package climatechange;
+import java.util.*;
+
+public class BitmapIndex {
+	private TemperatureTable table;
+
+	//the rows of every country by id, of every year and of every month from January to December
+	private ArrayList<RowBitmap> countries;
+	private HashMap<Integer, RowBitmap> years;
+	private RowBitmap[] months;
+
+	/**
+	 * (Constructor)
+	 * Builds a RowBitmap of the rows of every country, every year and every month of the given table in a single scan,
+	 * so that a filter on any combination of them is answered by ANDing and ORing bitmaps, and only the matching rows
+	 * are then read, instead of testing every row of the table against every filter
+	 * @param table the TemperatureTable to index
+	 */
+	public BitmapIndex(TemperatureTable table) {
+		this.table = table;
+		countries = new ArrayList<>();
+		years = new HashMap<>();
+		months = new RowBitmap[12];
+		for(int month = 0; month < 12; month++) {
+			months[month] = new RowBitmap();
+		}
+		int size = table.size();
+		for(int row = 0; row < size; row++) {
+			add(row);
+		}
+	}
+
+	/**
+	 * Adds a row of the table to the bitmaps of its country, year and month, i.e once it is appended
+	 * @param row the row in the TemperatureTable
+	 */
+	public void add(int row) {
+		int countryId = table.getCountryId(row);
+		while(countries.size() <= countryId) {
+			countries.add(new RowBitmap());
+		}
+		countries.get(countryId).add(row);
+		years.computeIfAbsent(table.getYear(row), year -> new RowBitmap()).add(row);
+		months[table.getMonth(row) - 1].add(row);
+	}
+
+	// get the rows of the country with the given id, which are empty if there is no such country
+	public RowBitmap getCountry(int countryId) {
+		if(countryId < 0 || countryId >= countries.size()) {
+			return new RowBitmap();
+		}
+		return countries.get(countryId);
+	}
+
+	// get the rows of the given year, which are empty if there is no reading of that year
+	public RowBitmap getYear(int year) {
+		RowBitmap rows = years.get(year);
+		return rows != null ? rows : new RowBitmap();
+	}
+
+	// get the rows of the given month between 1 and 12, which are empty for any other month
+	public RowBitmap getMonth(int month) {
+		if(month < 1 || month > 12) {
+			return new RowBitmap();
+		}
+		return months[month - 1];
+	}
+
+	/**
+	 * Gets the rows that match a country and, if not 0, a month and a year, by ANDing their bitmaps
+	 * The returned RowBitmap may be one of the bitmaps of the index, so it must not be changed
+	 * @param countryId the id of the country
+	 * @param month the month to match between 1 and 12, or 0 to match every month
+	 * @param year the year to match, or 0 to match every year
+	 * @return a RowBitmap of the matching rows
+	 */
+	public RowBitmap select(int countryId, int month, int year) {
+		RowBitmap rows = getCountry(countryId);
+		if(month != 0) {
+			rows = rows.and(getMonth(month));
+		}
+		if(year != 0) {
+			rows = rows.and(getYear(year));
+		}
+		return rows;
+	}
+
+	/**
+	 * Gets the rows that match any of the given countries, any of the given years and any of the given months,
+	 * by ORing the bitmaps of each filter and ANDing the filters together
+	 * A filter that is null or empty matches every row, and if every filter is, every row of the table is returned
+	 * The returned RowBitmap may be one of the bitmaps of the index, so it must not be changed
+	 * @param countryIds the ids of the countries to match
+	 * @param years the years to match
+	 * @param months the months to match between 1 and 12
+	 * @return a RowBitmap of the matching rows
+	 */
+	public RowBitmap select(int[] countryIds, int[] years, int[] months) {
+		RowBitmap rows = null;
+		if(countryIds != null && countryIds.length > 0) {
+			RowBitmap matching = new RowBitmap();
+			for(int countryId: countryIds) {
+				matching = matching.or(getCountry(countryId));
+			}
+			rows = matching;
+		}
+		if(years != null && years.length > 0) {
+			RowBitmap matching = new RowBitmap();
+			for(int year: years) {
+				matching = matching.or(getYear(year));
+			}
+			rows = rows == null ? matching : rows.and(matching);
+		}
+		if(months != null && months.length > 0) {
+			RowBitmap matching = new RowBitmap();
+			for(int month: months) {
+				matching = matching.or(getMonth(month));
+			}
+			rows = rows == null ? matching : rows.and(matching);
+		}
+		if(rows == null) {
+			//no filter, so every row of every month
+			rows = new RowBitmap();
+			for(RowBitmap month: this.months) {
+				rows = rows.or(month);
+			}
+		}
+		return rows;
+	}
+
+	// get the number of bitmaps in the index
+	public int size() {
+		return countries.size() + years.size() + months.length;
+	}
+
+	// get the memory taken by the bitmaps, in bytes
+	public long getMemoryBytes() {
+		long bytes = 0;
+		for(RowBitmap rows: countries) {
+			bytes += rows.getMemoryBytes();
+		}
+		for(RowBitmap rows: years.values()) {
+			bytes += rows.getMemoryBytes();
+		}
+		for(RowBitmap rows: months) {
+			bytes += rows.getMemoryBytes();
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,349 @@
+package climatechange;
+import java.util.*;
+
+public class CachingClimateAnalyzer implements IClimateAnalyzer {
+
+	private IClimateAnalyzer analyzer;
+	private ResultCache cache;
+
+	/**
+	 * (Constructor)
+	 * Creates a CachingClimateAnalyzer that answers the Task A/B/C methods of the given analyzer through a ResultCache,
+	 * so that a query asked again with the same parameters and unit is not computed again while the data is unchanged
+	 * Results are keyed by the method, its parameters and the TemperatureUnit of the analyzer, and when readings are
+	 * appended to the analyzer only the results of the countries, months and years of those readings are dropped
+	 * @param analyzer the IClimateAnalyzer that computes the results, i.e a ClimateAnalyzer
+	 * @param maxEntries the largest number of cached results
+	 * @param maxBytes the largest estimated size of every cached result together, in bytes
+	 */
+	public CachingClimateAnalyzer(IClimateAnalyzer analyzer, int maxEntries, long maxBytes) {
+		this.analyzer = analyzer;
+		cache = new ResultCache(maxEntries, maxBytes);
+	}
+
+	// get the cache with its hit/miss, eviction and invalidation counts
+	public ResultCache getCache() {
+		return cache;
+	}
+
+	// get the analyzer whose results are cached
+	public IClimateAnalyzer getAnalyzer() {
+		return analyzer;
+	}
+
+	/**
+	 * (TASK A-1)
+	 * Gets the lowest temperature of the given country and month, from the cache when it was asked before
+	 */
+	public ITemperature getLowestTempByMonth(String country, int month) {
+		List<Object> key = key("A-1 getLowestTempByMonth", country, month);
+		long version = refresh();
+		ITemperature result = (ITemperature) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getLowestTempByMonth(country, month);
+			cache.put(key, version, result, 1);
+		}
+		return result;
+	}
+
+	/**
+	 * (TASK A-1)
+	 * Gets the highest temperature of the given country and month, from the cache when it was asked before
+	 */
+	public ITemperature getHighestTempByMonth(String country, int month) {
+		List<Object> key = key("A-1 getHighestTempByMonth", country, month);
+		long version = refresh();
+		ITemperature result = (ITemperature) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getHighestTempByMonth(country, month);
+			cache.put(key, version, result, 1);
+		}
+		return result;
+	}
+
+	/**
+	 * (TASK A-2)
+	 * Gets the lowest temperature of the given country and year, from the cache when it was asked before
+	 */
+	public ITemperature getLowestTempByYear(String country, int year) {
+		List<Object> key = key("A-2 getLowestTempByYear", country, year);
+		long version = refresh();
+		ITemperature result = (ITemperature) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getLowestTempByYear(country, year);
+			cache.put(key, version, result, 1);
+		}
+		return result;
+	}
+
+	/**
+	 * (TASK A-2)
+	 * Gets the highest temperature of the given country and year, from the cache when it was asked before
+	 */
+	public ITemperature getHighestTempByYear(String country, int year) {
+		List<Object> key = key("A-2 getHighestTempByYear", country, year);
+		long version = refresh();
+		ITemperature result = (ITemperature) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getHighestTempByYear(country, year);
+			cache.put(key, version, result, 1);
+		}
+		return result;
+	}
+
+	/**
+	 * (TASK A-3)
+	 * Gets the temperatures of the given country within the given range, from the cache when it was asked before
+	 * The returned TreeSet is a copy, so changing it does not change the cached result
+	 */
+	@SuppressWarnings("unchecked")
+	public TreeSet<ITemperature> getTempWithinRange(String country, double rangeLowTemp, double rangeHighTemp) {
+		List<Object> key = key("A-3 getTempWithinRange", country, rangeLowTemp, rangeHighTemp);
+		long version = refresh();
+		TreeSet<ITemperature> result = (TreeSet<ITemperature>) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getTempWithinRange(country, rangeLowTemp, rangeHighTemp);
+			cache.put(key, version, new TreeSet<>(result), result.size());
+			return result;
+		}
+		return new TreeSet<>(result);
+	}
+
+	/**
+	 * (TASK A-4)
+	 * Gets the lowest temperature of the given country, from the cache when it was asked before
+	 */
+	public ITemperature getLowestTempYearByCountry(String country) {
+		List<Object> key = key("A-4 getLowestTempYearByCountry", country);
+		long version = refresh();
+		ITemperature result = (ITemperature) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getLowestTempYearByCountry(country);
+			cache.put(key, version, result, 1);
+		}
+		return result;
+	}
+
+	/**
+	 * (TASK A-4)
+	 * Gets the highest temperature of the given country, from the cache when it was asked before
+	 */
+	public ITemperature getHighestTempYearByCountry(String country) {
+		List<Object> key = key("A-4 getHighestTempYearByCountry", country);
+		long version = refresh();
+		ITemperature result = (ITemperature) cache.get(key, version);
+		if(result == null) {
+			result = analyzer.getHighestTempYearByCountry(country);
+			cache.put(key, version, result, 1);
+		}
+		return result;
+	}
+
+	// TASK B-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTop10LowestTemp(int month) {
+		return cachedList(key("B-1 allCountriesGetTop10LowestTemp", month), () -> analyzer.allCountriesGetTop10LowestTemp(month));
+	}
+
+	// TASK B-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTop10HighestTemp(int month) {
+		return cachedList(key("B-1 allCountriesGetTop10HighestTemp", month), () -> analyzer.allCountriesGetTop10HighestTemp(month));
+	}
+
+	// TASK B-2, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTop10LowestTemp() {
+		return cachedList(key("B-2 allCountriesGetTop10LowestTemp"), () -> analyzer.allCountriesGetTop10LowestTemp());
+	}
+
+	// TASK B-2, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTop10HighestTemp() {
+		return cachedList(key("B-2 allCountriesGetTop10HighestTemp"), () -> analyzer.allCountriesGetTop10HighestTemp());
+	}
+
+	// TASK B-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(int month, int k) {
+		return cachedList(key("B-1 allCountriesGetTopKLowestTemp", month, k), () -> analyzer.allCountriesGetTopKLowestTemp(month, k));
+	}
+
+	// TASK B-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(int month, int k) {
+		return cachedList(key("B-1 allCountriesGetTopKHighestTemp", month, k), () -> analyzer.allCountriesGetTopKHighestTemp(month, k));
+	}
+
+	// TASK B-2, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(int k) {
+		return cachedList(key("B-2 allCountriesGetTopKLowestTemp", k), () -> analyzer.allCountriesGetTopKLowestTemp(k));
+	}
+
+	// TASK B-2, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(int k) {
+		return cachedList(key("B-2 allCountriesGetTopKHighestTemp", k), () -> analyzer.allCountriesGetTopKHighestTemp(k));
+	}
+
+	// TASK B-3, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesGetAllDataWithinTempRange(double lowRangeTemp, double highRangeTemp) {
+		return cachedList(key("B-3 allCountriesGetAllDataWithinTempRange", lowRangeTemp, highRangeTemp),
+				() -> analyzer.allCountriesGetAllDataWithinTempRange(lowRangeTemp, highRangeTemp));
+	}
+
+	// TASK C-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesTop10TempDelta(int month, int year1, int year2) {
+		return cachedList(key("C-1 allCountriesTop10TempDelta", month, year1, year2), () -> analyzer.allCountriesTop10TempDelta(month, year1, year2));
+	}
+
+	// TASK C-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesTopKTempDelta(int month, int year1, int year2, int k) {
+		return cachedList(key("C-1 allCountriesTopKTempDelta", month, year1, year2, k), () -> analyzer.allCountriesTopKTempDelta(month, year1, year2, k));
+	}
+
+	// TASK C-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesTempDeltas(int month, int year1, int year2) {
+		return cachedList(key("C-1 allCountriesTempDeltas", month, year1, year2), () -> analyzer.allCountriesTempDeltas(month, year1, year2));
+	}
+
+	// TASK C-1, from the cache when it was asked before
+	public ArrayList<ITemperature> allCountriesTempDeltasAllMonths(int year1, int year2) {
+		return cachedList(key("C-1 allCountriesTempDeltasAllMonths", year1, year2), () -> analyzer.allCountriesTempDeltasAllMonths(year1, year2));
+	}
+
+	// runs the interactive tasks of the analyzer, whose results are written to the task files rather than cached
+	public void runClimateAnalyzer() {
+		analyzer.runClimateAnalyzer();
+	}
+
+	// set the unit of the analyzer, results of every unit stay cached under their own keys
+	public void setUnit(TemperatureUnit unit) {
+		analyzer.setUnit(unit);
+	}
+	
+	// get the unit of the analyzer
+	public TemperatureUnit getUnit() {
+		return analyzer.getUnit();
+	}
+	
+	// set whether the analyzer works in Fahrenheit, results of either unit stay cached under their own keys
+	public void setFahrenheit(boolean getFahrenheit) {
+		analyzer.setFahrenheit(getFahrenheit);
+	}
+
+	// check whether the analyzer works in Fahrenheit
+	public boolean isFahrenheit() {
+		return analyzer.isFahrenheit();
+	}
+
+	// get the data version of the analyzer
+	public long getDataVersion() {
+		return analyzer.getDataVersion();
+	}
+
+	// get the readings added to the analyzer since the given data version
+	public ArrayList<ITemperature> getReadingsAddedSince(long dataVersion) {
+		return analyzer.getReadingsAddedSince(dataVersion);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the cache key of a query, i.e its method, its parameters and the current unit of the analyzer
+	 * Countries are matched ignoring case, so a country is keyed by its lower case name and "india" hits the entry of "India"
+	 */
+	private List<Object> key(String method, Object... parameters) {
+		List<Object> key = new ArrayList<>(parameters.length + 2);
+		key.add(method);
+		for(Object parameter: parameters) {
+			key.add(parameter instanceof String ? ((String) parameter).toLowerCase() : parameter); //the only String parameter is a country
+		}
+		key.add(analyzer.getUnit());
+		return key;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the data version of the analyzer, after dropping the cached results that the readings added since they were
+	 * computed can change. If the analyzer cannot tell which readings were added, the next lookup drops every result.
+	 * @return the current data version
+	 */
+	private long refresh() {
+		long version = analyzer.getDataVersion();
+		long cachedVersion = cache.getVersion();
+		if(version > cachedVersion && cache.size() > 0) {
+			ArrayList<ITemperature> added = analyzer.getReadingsAddedSince(cachedVersion);
+			if(added != null) {
+				AddedReadings changes = new AddedReadings(added);
+				cache.invalidate(version, changes::touches);
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * The countries, months and years of the readings added to the analyzer, used to tell which cached results they change
+	 * Countries are in lower case, as in the cache keys
+	 */
+	private static class AddedReadings {
+		private HashSet<String> countries = new HashSet<>();
+		private HashSet<List<Object>> countryMonths = new HashSet<>();
+		private HashSet<List<Object>> countryYears = new HashSet<>();
+		private HashSet<Integer> months = new HashSet<>();
+		private HashSet<List<Object>> monthYears = new HashSet<>();
+		private HashSet<Integer> years = new HashSet<>();
+
+		AddedReadings(ArrayList<ITemperature> readings) {
+			for(ITemperature t: readings) {
+				String country = t.getCountry().toLowerCase();
+				int month = TemperatureTable.getMonthAsInt(t.getMonth());
+				countries.add(country);
+				countryMonths.add(Arrays.asList(country, month));
+				countryYears.add(Arrays.asList(country, t.getYear()));
+				months.add(month);
+				monthYears.add(Arrays.asList(month, t.getYear()));
+				years.add(t.getYear());
+			}
+		}
+
+		/**
+		 * Checks whether the added readings can change the cached result of the given key, i.e whether one of them is of
+		 * the country, month or year of a Task A or C query, or of the month of a Task B-1 query
+		 * The results of Task B-2 and B-3 are of every reading, so any added reading can change them
+		 * @param key a key made by CachingClimateAnalyzer.key, i.e the method, its parameters and the unit
+		 * @return true if the cached result must be dropped
+		 */
+		boolean touches(List<Object> key) {
+			String method = (String) key.get(0);
+			if(method.startsWith("A-1")) {
+				return countryMonths.contains(Arrays.asList(key.get(1), key.get(2)));
+			}
+			if(method.startsWith("A-2")) {
+				return countryYears.contains(Arrays.asList(key.get(1), key.get(2)));
+			}
+			if(method.startsWith("A-3") || method.startsWith("A-4")) {
+				return countries.contains(key.get(1));
+			}
+			if(method.startsWith("B-1")) {
+				return months.contains(key.get(1));
+			}
+			if(method.equals("C-1 allCountriesTempDeltasAllMonths")) {
+				return years.contains(key.get(1)) || years.contains(key.get(2));
+			}
+			if(method.startsWith("C-1")) {
+				return monthYears.contains(Arrays.asList(key.get(1), key.get(2))) || monthYears.contains(Arrays.asList(key.get(1), key.get(3)));
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets a cached list result, or computes and caches it on a miss
+	 * The returned ArrayList is a copy, so changing it does not change the cached result
+	 */
+	@SuppressWarnings("unchecked")
+	private ArrayList<ITemperature> cachedList(List<Object> key, java.util.function.Supplier<ArrayList<ITemperature>> query) {
+		long version = refresh();
+		ArrayList<ITemperature> result = (ArrayList<ITemperature>) cache.get(key, version);
+		if(result == null) {
+			result = query.get();
+			cache.put(key, version, new ArrayList<>(result), result.size());
+			return result;
+		}
+		return new ArrayList<>(result);
+	}
+}
@@ -0,0 +1,44 @@
+package climatechange;
+
+public class CentiDegrees {
+	//the offset of the Fahrenheit scale, in hundredths of a degree
+	private static final int FAHRENHEIT_OFFSET = 3200;
+
+	/**
+	 * (Constructor)
+	 * CentiDegrees only holds the conversions of the fixed-point temperature encoding, and is never created
+	 */
+	private CentiDegrees() {
+	}
+
+	/**
+	 * Encodes a temperature as a whole number of hundredths of a degree, rounded half up as Math.round does,
+	 * so that -20.382 is stored as -2038 and 21.125 as 2113
+	 * @param celsius the temperature in Celsius
+	 * @return the temperature in hundredths of a degree Celsius
+	 * @throws IllegalArgumentException if the temperature does not fit in a short, i.e is not between -327.68 and 327.67
+	 */
+	public static short encode(double celsius) {
+		long hundredths = Math.round(celsius * 100.0);
+		if(hundredths < Short.MIN_VALUE || hundredths > Short.MAX_VALUE || Double.isNaN(celsius)) {
+			throw new IllegalArgumentException("Temperature " + celsius + " cannot be stored in hundredths of a degree");
+		}
+		return (short) hundredths;
+	}
+
+	// get the temperature in Celsius of the given hundredths of a degree Celsius
+	public static double toCelsius(int centiCelsius) {
+		return centiCelsius / 100.0;
+	}
+
+	/**
+	 * Converts hundredths of a degree Celsius to hundredths of a degree Fahrenheit in integer arithmetic,
+	 * rounded half up, i.e the exact value of Math.round(fahrenheit * 100.0) without its floating-point error
+	 * @param centiCelsius the temperature in hundredths of a degree Celsius
+	 * @return the temperature in hundredths of a degree Fahrenheit
+	 */
+	public static int toCentiFahrenheit(int centiCelsius) {
+		//F * 100 = C * 100 * 9/5 + 3200, so F * 100 rounded half up is floor((2 * (9 * C * 100 + 16000) + 5) / 10)
+		return Math.floorDiv(2 * (9 * centiCelsius + 5 * FAHRENHEIT_OFFSET) + 5, 10);
+	}
+}
@@ -4,30 +4,170 @@ import java.io.*;
 
 public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAnalyzer{
 	
-	private ArrayList<ITemperature> data;
+	private TemperatureTable table;
+	private CompositeIndex index;
+	private SortedTemperatureIndex sortedIndex;
 	private String inputFileName;
 	private WeatherIO weather;
-	private boolean getFahrenheit;
+	private TemperatureUnit unit;
+	private AnalyzerMetrics metrics;
+	private MaterializedAggregates aggregates;
+	private BitmapIndex bitmaps;
+	private ParallelScan scan;
+	private ITemperatureKernels kernels;
+	private volatile long dataVersion;
+	
+	//the number of rows at each data version, from version 0 (the loaded data), once readings have been appended
+	private int[] versionRows;
+	
+	//the number of rows read by the last Task A-1, A-2 or A-4 lookup, for the metrics
+	private long rowsScanned;
+	
+	//the data file followed by tailDataFile, and the position after its last line that was read
+	private String tailFileName;
+	private long tailPosition;
 	
 	/**
 	 * (Constructor)
 	 * Creates a ClimateAnalyzer that implements the methods from IClimateAnalyzer, when given an input file with data
-	 * Initializes private instance variables inputFileName with the given data file, data with ArrayList<ITemperature> of Temperature objects
-	 * from the input file and getFahrenheit to a default of false
+	 * Initializes private instance variables inputFileName with the given data file, table with a TemperatureTable holding
+	 * all the readings from the input file column by column, index and sortedIndex with
+	 * the indexes of the table, unit to a default of Celsius, and metrics with the AnalyzerMetrics
+	 * that records the file load, the index builds and every query
 	 * @param inputFilename the filename of the input file with all the data, i.e world_temp_2000-2016.csv
 	 */
 	public ClimateAnalyzer(String inputFileName) {
+		this(inputFileName, false);
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates a ClimateAnalyzer like ClimateAnalyzer(inputFileName), optionally with the temperatures stored as whole
+	 * hundredths of a degree (see CentiDegrees), which takes a quarter of the memory of the temperature column.
+	 * The temperatures are then rounded to the 2 decimal places of the output files when they are loaded, so readings
+	 * that only differ after the second decimal tie, and are compared and written from integers.
+	 * @param inputFilename the filename of the input file with all the data, i.e world_temp_2000-2016.csv
+	 * @param centiDegrees true to store the temperatures in hundredths of a degree, false to store them as doubles
+	 */
+	public ClimateAnalyzer(String inputFileName, boolean centiDegrees) {
 		this.inputFileName = inputFileName;	
-		getFahrenheit = false; //initialized to false, as temperature is compared in Celsius by default
+		unit = TemperatureUnit.CELSIUS; //initialized to Celsius, the unit the readings are stored and compared in
+		scan = new ParallelScan(1); //scans run sequentially until setParallelism is called
+		kernels = ScalarKernels.select(); //the Vector API kernels when they can run, the scalar ones otherwise
+		table = new TemperatureTable(centiDegrees);
+		metrics = new AnalyzerMetrics();
 		
 		try {
 			 weather = new WeatherIO();
-			 data = weather.readDataFromFile(inputFileName); 	//reads data from given input file and stores it as Temperature objects
-			 													//in ArrayList<ITemperature> data
+			 weather.setMetrics(metrics); //the reads and writes of weather are recorded with the queries
+			 //reads data from given input file through memory-mapped chunks parsed in parallel, straight into TemperatureTable table
+			 weather.readDataFromFileParallel(inputFileName, table);
 		}
 		catch(IOException e) {
 			System.out.println(e.getMessage());
 		}
+		buildIndexes();
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates a ClimateAnalyzer like ClimateAnalyzer(inputFileName), but loads the data from a binary snapshot when the
+	 * snapshot is up to date with the input file. Otherwise, or if the snapshot is truncated or corrupt, the input file is
+	 * parsed and a new snapshot is written with the sorted temperature index, so that the next ClimateAnalyzer starts from it.
+	 * A snapshot is only written from a table parsed in full from the input file.
+	 * Loading a snapshot copies its columns into arrays and rebuilds the hash and bitmap indexes, so it is still linear
+	 * in the number of rows, but it skips parsing the input file and sorting the rows by temperature.
+	 * @param inputFileName the filename of the input file with all the data, i.e world_temp_2000-2016.csv
+	 * @param snapshotFileName the filename of the snapshot of the input file, i.e world_temp_2000-2016.snapshot
+	 */
+	public ClimateAnalyzer(String inputFileName, String snapshotFileName) {
+		this.inputFileName = inputFileName;
+		unit = TemperatureUnit.CELSIUS; //initialized to Celsius, the unit the readings are stored and compared in
+		scan = new ParallelScan(1); //scans run sequentially until setParallelism is called
+		kernels = ScalarKernels.select(); //the Vector API kernels when they can run, the scalar ones otherwise
+		weather = new WeatherIO();
+		table = new TemperatureTable();
+		metrics = new AnalyzerMetrics();
+		weather.setMetrics(metrics); //the reads and writes of weather are recorded with the queries
+		
+		TemperatureSnapshot snapshot = null;
+		try {
+			snapshot = weather.readSnapshot(snapshotFileName, inputFileName, false);
+			if(snapshot != null) {
+				table = snapshot.getTable();
+				sortedIndex = snapshot.getSortedIndex();
+			}
+		}
+		catch(IOException | RuntimeException e) {
+			//a snapshot that cannot be read is ignored, and replaced below by a snapshot of the parsed input file
+			System.out.println(e.getMessage());
+			snapshot = null;
+			table = new TemperatureTable();
+			sortedIndex = null;
+		}
+		
+		boolean parsed = false;
+		if(snapshot == null) {
+			try {
+				weather.readDataFromFileParallel(inputFileName, table);
+				parsed = true;
+			}
+			catch(IOException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+		if(sortedIndex == null) {
+			buildIndexes();
+		}
+		else {
+			AnalyzerMetrics.Timer timer = metrics.start("index CompositeIndex");
+			index = new CompositeIndex(table); //maps every (country, year, month) to its row for getTemp and lookup
+			timer.stop(table.size(), index.size());
+			buildBitmapIndex();
+		}
+		if(parsed) {
+			try {
+				weather.writeSnapshot(snapshotFileName, inputFileName, table, sortedIndex);
+			}
+			catch(IOException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * (Helper Method for the constructors)
+	 * Builds index, sortedIndex and bitmaps from the loaded table, recording the time each of them takes
+	 */
+	private void buildIndexes() {
+		AnalyzerMetrics.Timer timer = metrics.start("index CompositeIndex");
+		index = new CompositeIndex(table); //maps every (country, year, month) to its row for getTemp and lookup
+		timer.stop(table.size(), index.size());
+		
+		timer = metrics.start("index SortedTemperatureIndex");
+		sortedIndex = new SortedTemperatureIndex(table); //keeps the rows sorted by temperature for range queries
+		timer.stop(table.size(), table.size());
+		
+		buildBitmapIndex();
+	}
+	
+	/**
+	 * (Helper Method for the constructors)
+	 * Builds bitmaps, the BitmapIndex of the rows of every country, year and month, which is not kept in the snapshot
+	 */
+	private void buildBitmapIndex() {
+		AnalyzerMetrics.Timer timer = metrics.start("index BitmapIndex");
+		bitmaps = new BitmapIndex(table); //the rows of every country, year and month, for the filters of the queries
+		timer.stop(table.size(), bitmaps.size());
+	}
+
+	/**
+	 * Gets the AnalyzerMetrics that records the latency, rows scanned and allocation of the file load,
+	 * the index builds, every query and every write of this ClimateAnalyzer
+	 * @return the AnalyzerMetrics of this ClimateAnalyzer
+	 */
+	public AnalyzerMetrics getMetrics() {
+		return metrics;
 	}
 
 	/**
@@ -38,34 +178,16 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	 * @return the corresponding string name of the given integer month 
 	 */
 	public String getMonthAsString(int month) {
-		//Employs a HashMap to associate month names with their corresponding integer values
-		HashMap<Integer, String> months = new HashMap<>();
-		
-		//a String array of the first 3-letters of each month, capitalized according to the manner viewed in the input data file
-		String[] listOfMonths = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
-		
-		//A for loop that iterates through the String array, associates integer values with their corresponding string month name
-		int number = 1;
-		for(String value: listOfMonths) {
-			months.put(number, value); //adds them to the HashMap months
-			number++;
-		}
-		return months.get(month); //gets the corresponding String name for the given integer value of the month
+		return TemperatureTable.getMonthAsString(month);
 	}
 
 	/**
 	 * (Helper Method)
-	 *  Compiles a list of the all the countries within the ArrayList<ITemperature> data
-	 * @return an ArrayList<String> with the names of all the countries within ArrayList<ITemperature> data
+	 *  Compiles a list of the all the countries within the TemperatureTable table
+	 * @return an ArrayList<String> with the names of all the countries within TemperatureTable table
 	 */
 	public ArrayList<String> listOfAllCountries(){
-		ArrayList<String> countries = new ArrayList<>();
-		for(ITemperature t: data) {
-			if(!countries.contains(t.getCountry())){
-				countries.add(t.getCountry());
-			}
-		}
-		return countries;
+		return table.getCountryNames();
 	}
 	
 	/**
@@ -76,8 +198,7 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	 * @return true, if user input is valid. Otherwise, returns false
 	 */
 	public Boolean validCountry(String input) {
-		ArrayList<String> countries = listOfAllCountries();
-		if(countries.contains(input)) {
+		if(table.getCountryIdExact(input) >= 0) {
 			return true;
 		}
 		return false;
@@ -154,6 +275,362 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	    }
 	}
 	
+	/**
+	 * Builds or drops the MaterializedAggregates of the loaded data, i.e the lowest and highest reading, count and sum
+	 * of every country, (country, month) and (country, year)
+	 * While they are built, the Task A-1, A-2 and A-4 methods read a single group instead of scanning every row,
+	 * at the memory cost reported by getMaterializedAggregates().getMemoryBytes()
+	 * @param enabled true to build the aggregates, false to drop them and scan the table again
+	 */
+	public void setMaterializedAggregates(boolean enabled) {
+		if(!enabled) {
+			aggregates = null;
+		}
+		else if(aggregates == null) {
+			AnalyzerMetrics.Timer timer = metrics.start("index MaterializedAggregates");
+			aggregates = new MaterializedAggregates(table);
+			timer.stop(table.size(), aggregates.size());
+		}
+	}
+	
+	// get the MaterializedAggregates of the loaded data, or null if they are not built
+	public MaterializedAggregates getMaterializedAggregates() {
+		return aggregates;
+	}
+	
+	/**
+	 * Sets the number of threads the scans of this ClimateAnalyzer are split across, i.e the Task A lookups over a
+	 * country's rows, the country aggregations of Task B-1 and B-2 and the joins of Task C-1
+	 * Every scan is split into ranges of rows whose partial results are merged in row order, so the results, and the
+	 * reading kept when several share the lowest or highest temperature, are the same as with a single thread
+	 * Scans that read too few rows to be worth splitting, i.e the rows of a single country, still run on the calling thread
+	 * @param parallelism the number of threads, or 1 to scan on the calling thread only
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism != scan.getParallelism()) {
+			ParallelScan old = scan;
+			scan = new ParallelScan(parallelism);
+			old.shutdown();
+		}
+	}
+	
+	// get the number of threads the scans are split across
+	public int getParallelism() {
+		return scan.getParallelism();
+	}
+	
+	// set the kernels that find the lowest and highest temperature of a range of rows, i.e new ScalarKernels() to compare them
+	public void setKernels(ITemperatureKernels kernels) {
+		this.kernels = kernels;
+	}
+	
+	// get the kernels that find the lowest and highest temperature of a range of rows
+	public ITemperatureKernels getKernels() {
+		return kernels;
+	}
+	
+	// get the BitmapIndex of the rows of every country, year and month of the loaded data
+	public BitmapIndex getBitmapIndex() {
+		return bitmaps;
+	}
+	
+	/**
+	 * (Helper Method)
+	 * Gets the number of rows the last Task A-1, A-2 or A-4 lookup read, for the metrics
+	 */
+	private long rowsScannedPerLookup() {
+		return rowsScanned;
+	}
+	
+	/**
+	 * Sets the unit temperature ranges are given in, and temperature deltas are calculated in
+	 * Readings are still stored and compared in Celsius: the thresholds of a range query are converted to Celsius once
+	 * per query, and only the readings a query returns are converted, so no scan pays for the conversion
+	 * @param unit the TemperatureUnit of the queries
+	 */
+	public void setUnit(TemperatureUnit unit) {
+		this.unit = unit;
+	}
+	
+	// get the unit temperature ranges are given in, and temperature deltas are calculated in
+	public TemperatureUnit getUnit() {
+		return unit;
+	}
+	
+	// set whether temperature ranges are given, and temperature deltas are calculated, in Fahrenheit instead of Celsius
+	public void setFahrenheit(boolean getFahrenheit) {
+		setUnit(TemperatureUnit.of(getFahrenheit));
+	}
+	
+	// check whether temperature ranges and deltas are in Fahrenheit
+	public boolean isFahrenheit() {
+		return unit == TemperatureUnit.FAHRENHEIT;
+	}
+	
+	/**
+	 * Gets the version of the loaded data, which changes every time readings are added to this ClimateAnalyzer
+	 * Results computed at one version may be reused (i.e by CachingClimateAnalyzer) until the version changes
+	 * @return the version of the data
+	 */
+	public long getDataVersion() {
+		return dataVersion;
+	}
+	
+	/**
+	 * Gets the readings added since the data was at the given version, in the order they were added, so that a result
+	 * computed at that version can be kept (i.e by CachingClimateAnalyzer) when none of them can change it
+	 * @param dataVersion a version returned by getDataVersion
+	 * @return an ArrayList<ITemperature> of the added readings, or null if dataVersion is not a version of this data
+	 */
+	public ArrayList<ITemperature> getReadingsAddedSince(long dataVersion) {
+		long current = this.dataVersion;
+		int[] rows = versionRows; //read after the version, so that it holds the rows of every version up to current
+		if(dataVersion < 0 || dataVersion > current) {
+			return null;
+		}
+		ArrayList<ITemperature> readings = new ArrayList<>();
+		if(dataVersion < current) {
+			for(int row = rows[(int) dataVersion]; row < rows[(int) current]; row++) {
+				readings.add(table.getRow(row));
+			}
+		}
+		return readings;
+	}
+	
+	/**
+	 * Appends a single reading to the loaded data, i.e a new monthly reading, and updates the indexes with it
+	 * @param temperature the temperature in Celsius
+	 * @param year the year of the reading
+	 * @param month the month of the reading as an integer between 1 and 12
+	 * @param country the name of the country
+	 * @param countryCode the 3-letter code of the country
+	 */
+	public void appendReading(double temperature, int year, int month, String country, String countryCode) {
+		AnalyzerMetrics.Timer timer = metrics.start("append readings");
+		int fromRow = table.size();
+		table.add(temperature, year, month, country, countryCode);
+		indexAppendedRows(fromRow);
+		timer.stop(1, 1);
+	}
+	
+	/**
+	 * Appends every reading of the given table to the loaded data, in the same order, and updates the indexes with them
+	 * @param readings the TemperatureTable with the new readings
+	 * @return the number of readings appended
+	 */
+	public int appendReadings(TemperatureTable readings) {
+		if(readings.size() == 0) {
+			return 0;
+		}
+		AnalyzerMetrics.Timer timer = metrics.start("append readings");
+		int fromRow = table.size();
+		table.addAll(readings);
+		indexAppendedRows(fromRow);
+		timer.stop(readings.size(), readings.size());
+		return readings.size();
+	}
+	
+	/**
+	 * Appends every reading of the given data file to the loaded data, without reading the data that is already loaded again
+	 * @param fileName a data file with the new readings, in the same format as the input file
+	 * @return the number of readings appended
+	 */
+	public int appendDataFromFile(String fileName) throws IOException {
+		TemperatureTable readings = new TemperatureTable();
+		weather.readDataFromFile(fileName, readings);
+		return appendReadings(readings);
+	}
+	
+	/**
+	 * Follows the given data file, so that the lines another program appends to it are added to the loaded data by pollTail
+	 * @param fileName the data file to follow, i.e the input file
+	 * @param fromStart true to add every line of the file on the first pollTail, false to only add lines appended from now on
+	 */
+	public void tailDataFile(String fileName, boolean fromStart) {
+		tailFileName = fileName;
+		tailPosition = fromStart ? 0 : new File(fileName).length();
+	}
+	
+	/**
+	 * Appends the lines added to the followed data file since the last call, if tailDataFile was called
+	 * A last line that is still being written is left for the next call
+	 * If the file was truncated or replaced, the file is no longer followed, since its lines may already be loaded,
+	 * and an IOException is thrown; load the file again with a new ClimateAnalyzer to pick up its new contents
+	 * @return the number of readings appended
+	 */
+	public int pollTail() throws IOException {
+		if(tailFileName == null) {
+			return 0;
+		}
+		TemperatureTable readings = new TemperatureTable();
+		try {
+			tailPosition = weather.readDataFromFileTail(tailFileName, tailPosition, readings);
+		}
+		catch(IOException e) {
+			if(new File(tailFileName).length() < tailPosition) {
+				tailFileName = null; //stops following the truncated or replaced file, so that no reading is appended twice
+			}
+			throw e;
+		}
+		return appendReadings(readings);
+	}
+	
+	/**
+	 * (Helper Method)
+	 * Updates index, sortedIndex, bitmaps and, if built, aggregates with the rows appended to table from the given row on,
+	 * and changes the data version so that the cached results the new rows can change are dropped
+	 * @param fromRow the first appended row
+	 */
+	private void indexAppendedRows(int fromRow) {
+		for(int row = fromRow; row < table.size(); row++) {
+			index.add(row);
+			bitmaps.add(row);
+			if(aggregates != null) {
+				aggregates.add(row);
+			}
+		}
+		sortedIndex.addRows(fromRow);
+		
+		int version = (int) dataVersion + 1;
+		if(versionRows == null) {
+			versionRows = new int[16];
+			versionRows[0] = fromRow;
+		}
+		else if(version == versionRows.length) {
+			versionRows = Arrays.copyOf(versionRows, version * 2);
+		}
+		versionRows[version] = table.size();
+		dataVersion = version; //published last, so that getReadingsAddedSince finds the rows of the new version
+	}
+	
+	/**
+	 * (Helper Method)
+	 * Gets the temperature of the given row in the unit of the queries
+	 * @param row the row of the reading in TemperatureTable table
+	 * @return the temperature in the TemperatureUnit unit
+	 */
+	private double temperatureOf(int row) {
+		return unit.fromCelsius(table.getTemperature(row));
+	}
+
+	/**
+	 * (Helper Method)
+	 * Converts the lower threshold of a range query, given in the unit of the queries, to Celsius, the unit of
+	 * TemperatureTable table, once before the query runs
+	 * @param value the temperature in the TemperatureUnit unit
+	 * @return the lowest temperature in Celsius that is within the threshold
+	 */
+	private double lowToCelsius(double value) {
+		return unit.lowToCelsius(value);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Converts the upper threshold of a range query, given in the unit of the queries, to Celsius once before the query runs
+	 * @param value the temperature in the TemperatureUnit unit
+	 * @return the highest temperature in Celsius that is within the threshold
+	 */
+	private double highToCelsius(double value) {
+		return unit.highToCelsius(value);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the row with the lowest temperature among all the rows that match the given country and, if not 0, month and year
+	 * Since Fahrenheit is a linear function of Celsius, the Celsius column is compared regardless of unit
+	 * If several rows share the lowest temperature, the last one is returned
+	 * @param countryId the id of the country, or -1 for a country that is not in the table, which matches no row
+	 * @param month the month to match between 1 and 12, or 0 to match every month
+	 * @param year the year to match, or 0 to match every year
+	 * @return the row of the lowest temperature, or 0 if no row matches
+	 */
+	private int lowestRow(int countryId, int month, int year) {
+		if(aggregates != null && (month == 0 || year == 0)) {
+			int row = aggregates.lowestRow(countryId, month, year); //a single group lookup instead of a scan
+			rowsScanned = 1;
+			return row < 0 ? 0 : row;
+		}
+		//the temperatures are compared as doubles, or as whole hundredths of a degree if the table stores them so
+		double[] temperatures = table.temperatureColumn();
+		short[] centiDegrees = table.centiColumn();
+		//only the rows of the country, month and year are read, in increasing order, found by ANDing their bitmaps
+		RowBitmap rows = bitmaps.select(countryId, month, year);
+		rowsScanned = rows.getCardinality();
+
+		int lowest = scan.run(table.size(), rows.getCardinality(), new ParallelScan.Scan<Integer>() {
+			public Integer scan(int fromRow, int toRow) {
+				double minValue = Double.MAX_VALUE;
+				int lowest = -1;
+				//each run of consecutive rows is handed to the kernels at once, i.e every row of a country in a grouped file
+				int start = rows.next(fromRow);
+				while(start >= 0 && start < toRow) {
+					int end = Math.min(rows.runEnd(start), toRow);
+					int row = centiDegrees != null ? kernels.lowestIndex(centiDegrees, start, end) : kernels.lowestIndex(temperatures, start, end);
+					if(row >= 0 && table.getTemperature(row) <= minValue) {
+						minValue = table.getTemperature(row);
+						lowest = row;
+					}
+					start = rows.next(end);
+				}
+				return lowest;
+			}
+
+			public Integer merge(Integer left, Integer right) {
+				//the right range holds the later rows, so it wins a tie
+				return right >= 0 && (left < 0 || table.getTemperature(right) <= table.getTemperature(left)) ? right : left;
+			}
+		});
+		return lowest < 0 ? 0 : lowest;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the row with the highest temperature among all the rows that match the given country and, if not 0, month and year
+	 * Since Fahrenheit is a linear function of Celsius, the Celsius column is compared regardless of unit
+	 * If several rows share the highest temperature, the last one is returned
+	 * @param countryId the id of the country, or -1 for a country that is not in the table, which matches no row
+	 * @param month the month to match between 1 and 12, or 0 to match every month
+	 * @param year the year to match, or 0 to match every year
+	 * @return the row of the highest temperature, or 0 if no row matches
+	 */
+	private int highestRow(int countryId, int month, int year) {
+		if(aggregates != null && (month == 0 || year == 0)) {
+			int row = aggregates.highestRow(countryId, month, year); //a single group lookup instead of a scan
+			rowsScanned = 1;
+			return row < 0 ? 0 : row;
+		}
+		//the temperatures are compared as doubles, or as whole hundredths of a degree if the table stores them so
+		double[] temperatures = table.temperatureColumn();
+		short[] centiDegrees = table.centiColumn();
+		//only the rows of the country, month and year are read, in increasing order, found by ANDing their bitmaps
+		RowBitmap rows = bitmaps.select(countryId, month, year);
+		rowsScanned = rows.getCardinality();
+
+		int highest = scan.run(table.size(), rows.getCardinality(), new ParallelScan.Scan<Integer>() {
+			public Integer scan(int fromRow, int toRow) {
+				double maxValue = Double.NEGATIVE_INFINITY;
+				int highest = -1;
+				//each run of consecutive rows is handed to the kernels at once, i.e every row of a country in a grouped file
+				int start = rows.next(fromRow);
+				while(start >= 0 && start < toRow) {
+					int end = Math.min(rows.runEnd(start), toRow);
+					int row = centiDegrees != null ? kernels.highestIndex(centiDegrees, start, end) : kernels.highestIndex(temperatures, start, end);
+					if(row >= 0 && table.getTemperature(row) >= maxValue) {
+						maxValue = table.getTemperature(row);
+						highest = row;
+					}
+					start = rows.next(end);
+				}
+				return highest;
+			}
+
+			public Integer merge(Integer left, Integer right) {
+				//the right range holds the later rows, so it wins a tie
+				return right >= 0 && (left < 0 || table.getTemperature(right) >= table.getTemperature(left)) ? right : left;
+			}
+		});
+		return highest < 0 ? 0 : highest;
+	}
 
 	/**
 	 * (TASK A-1)
@@ -163,22 +640,10 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	 * @return an ITemperature object that is the lowest temperature reading in accordance with the given parameters
 	 */
 	public ITemperature getLowestTempByMonth(String country, int month) {
-		double minValue = Double.MAX_VALUE;
-		ITemperature lowest = data.get(0);
-		
-		//enhanced for loop that iterates through all the data in ArrayList<ITemperature> data and 
-		//checks whether the given values for country and month are matched
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) { 
-				if(t.getMonth().equals(getMonthAsString(month))) { 
-					if(t.getTemperature(getFahrenheit) <= minValue) { //among all data that matches given values, 
-						minValue = t.getTemperature(getFahrenheit);   //iterates to find lowest temperature
-						lowest = t;
-					}
-				}
-			}
-		}
-		return lowest; //returns the ITemperature object of the lowest temperature
+		AnalyzerMetrics.Timer timer = metrics.start("A-1 getLowestTempByMonth");
+		ITemperature result = table.getRow(lowestRow(table.findCountry(country), month, 0));
+		timer.stop(rowsScannedPerLookup(), 1);
+		return result;
 	}
 	
 	/**
@@ -189,22 +654,10 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	 * @return an ITemperature object that is the highest temperature reading in accordance with the given parameters
 	 */
 	 public ITemperature getHighestTempByMonth(String country, int month) {
-		double maxValue = Double.MIN_VALUE;
-		ITemperature highest = data.get(0);
-		
-		//enhanced for loop that iterates through all the data in ArrayList<ITemperature> data and 
-		//checks whether the given values for country and month are matched
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) {
-				if(t.getMonth().equals(getMonthAsString(month))) {
-					if(t.getTemperature(getFahrenheit) >= maxValue) { //among all data that matches given values, 
-						maxValue = t.getTemperature(getFahrenheit);		 //iterates to find highest temperature
-						highest = t;
-					}
-				}
-			}
-		}
-		return highest;  //returns the ITemperature object of the highest temperature
+		AnalyzerMetrics.Timer timer = metrics.start("A-1 getHighestTempByMonth");
+		ITemperature result = table.getRow(highestRow(table.findCountry(country), month, 0));
+		timer.stop(rowsScannedPerLookup(), 1);
+		return result;
 	 }
 	
 	
@@ -216,22 +669,10 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  * @return an ITemperature object that is the lowest temperature reading in accordance with the given parameters
 	  */
 	  public ITemperature getLowestTempByYear(String country, int year) {
-		double minValue = Double.MAX_VALUE;
-		Temperature lowest = (Temperature)data.get(0);
-		
-		//enhanced for loop that iterates through all the data in ArrayList<ITemperature> data and 
-		//checks whether the given values for country and year are matched
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) {
-				if(t.getYear() == year) {
-					if(t.getTemperature(getFahrenheit) <= minValue) { //among all data that matches given values, 
-						minValue = t.getTemperature(getFahrenheit);		//iterates to find lowest temperature
-						lowest = (Temperature) t;
-					}
-				}
-			}
-		}
-		return lowest; //returns the ITemperature object of the lowest temperature
+		AnalyzerMetrics.Timer timer = metrics.start("A-2 getLowestTempByYear");
+		ITemperature result = table.getRow(lowestRow(table.findCountry(country), 0, year));
+		timer.stop(rowsScannedPerLookup(), 1);
+		return result;
 	  }
 	 
 	  /**
@@ -242,51 +683,28 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	   * @return an ITemperature object that is the highest temperature reading in accordance with the given parameters
 	   */
 	 public ITemperature getHighestTempByYear(String country, int year) {
-		double maxValue = Double.MIN_VALUE;
-		Temperature highest = (Temperature)data.get(0);
-		
-		//enhanced for loop that iterates through all the data in ArrayList<ITemperature> data and 
-		//checks whether the given values for country and year are matched
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) {
-				if(t.getYear() == year) {
-					if(t.getTemperature(getFahrenheit) >= maxValue) { //among all data that matches given values, 
-						maxValue = t.getTemperature(getFahrenheit);		//iterates to find highest temperature
-						highest = (Temperature) t;
-					}
-					
-				}
-			}
-		}
-		return highest; //returns the ITemperature object of the highest temperature
+		AnalyzerMetrics.Timer timer = metrics.start("A-2 getHighestTempByYear");
+		ITemperature result = table.getRow(highestRow(table.findCountry(country), 0, year));
+		timer.stop(rowsScannedPerLookup(), 1);
+		return result;
 	 }
 	 
 	 /**
 	  * (TASK A-3)
 	  * Gets all the temperature data that falls within the given temperature range and matches the given country
-	  * Arranges the data from lowest to highest temperature using a TreeSet<ITemperature>
+	  * The data is found with two binary searches in the country's rows of the SortedTemperatureIndex sortedIndex,
+	  * which are already arranged from lowest to highest temperature
 	  * @param country the name of the given country
 	  * @param rangeLowTemp, the lower-end of the range of temperatures in Celsius
 	  * @param rangeHighTemp, the higher-end of the range of temperatures in Celsius
 	  * @return TreeSet<ITemperature> containing the all the gathered temperature data, arranged from low to high
 	  */
 	 public TreeSet<ITemperature> getTempWithinRange(String country, double rangeLowTemp, double rangeHighTemp){
-		ArrayList<ITemperature> range = new ArrayList<>();
-		ITemperature inRange = data.get(0);
-		
-		//iterates through all the data, and checks whether the given values for country and the temperature is between the given range
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) {
-				if(t.getTemperature(getFahrenheit) >= rangeLowTemp && t.getTemperature(getFahrenheit) <= rangeHighTemp) {
-					inRange = t;		//if the temperature is within the given range,
-					range.add(inRange); //that ITemperature object is added to the ArrayList<ITemperature> range 
-				}
-			}
-		}
-		
-		//ArrayList<ITemperature> range is put into a TreeSet<ITemperature> sortedRange to sort it from low to high, and then returned
-		TreeSet<ITemperature> sortedRange = new TreeSet<>(range);
-		return sortedRange;
+		AnalyzerMetrics.Timer timer = metrics.start("A-3 getTempWithinRange");
+		ArrayList<ITemperature> range = sortedIndex.getWithinRange(table.findCountry(country), lowToCelsius(rangeLowTemp), highToCelsius(rangeHighTemp));
+		TreeSet<ITemperature> result = new TreeSet<>(range);
+		timer.stop(range.size(), result.size());
+		return result;
 	 }
 	 
 	 /**
@@ -296,19 +714,10 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  * @return the ITemperature object of the lowest temperature of the given country
 	  */
 	 public ITemperature getLowestTempYearByCountry(String country) {
-		double minValue = Double.MAX_VALUE;
-		ITemperature lowest = data.get(0);
-		
-		//iterates through all the data, and checks if the given country is matched
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) {
-				if(t.getTemperature(getFahrenheit) <= minValue) { //if the given country is matched, 
-					minValue = t.getTemperature(getFahrenheit);		//finds the lowest temperature in Celsius
-					lowest = t;
-				}
-			}
-		}
-		return lowest; //returns the ITemperature object of the lowest temperature in Celsius
+		AnalyzerMetrics.Timer timer = metrics.start("A-4 getLowestTempYearByCountry");
+		ITemperature result = table.getRow(lowestRow(table.findCountry(country), 0, 0));
+		timer.stop(rowsScannedPerLookup(), 1);
+		return result;
 	 }
 	 
 	 /**
@@ -318,198 +727,155 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  * @return the ITemperature object of the highest temperature of the given country
 	  */
 	 public ITemperature getHighestTempYearByCountry(String country) {
-		double maxValue = Double.MIN_VALUE;
-		Temperature highest = (Temperature)data.get(0);
-		
-		//iterates through all the data, and checks if the given country is matched
-		for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country)) {
-				if(t.getTemperature(getFahrenheit) >= maxValue) { //if the given country is matched, 
-					maxValue = t.getTemperature(getFahrenheit);		//finds the highest temperature in Celsius
-					highest = (Temperature) t;
-				}
-			}
-		}
-		return highest; //returns the ITemperature object of the highest temperature in Celsius
+		AnalyzerMetrics.Timer timer = metrics.start("A-4 getHighestTempYearByCountry");
+		ITemperature result = table.getRow(highestRow(table.findCountry(country), 0, 0));
+		timer.stop(rowsScannedPerLookup(), 1);
+		return result;
 	 }
 	 
 	 /**
 	  * (TASK B-1)
 	  * Gets an ArrayList of the Top 10 Lowest Temperature by a given month
-	  * Arranges the ArrayList from low to high, using Collections.sort()
+	  * Arranges the ArrayList from low to high
 	  * @param the given month
 	  * @return an ArrayList<ITemperature> arranged from lowest to highest
 	  */
 	 public ArrayList<ITemperature> allCountriesGetTop10LowestTemp(int month){
-		//this ArrayList is used to store the lowest temperatures of each country in that given month
-		 ArrayList<ITemperature> narrowedList = new ArrayList<>(); 
-		 
-		//this ArrayList is used in the for loop to make sure that the lowest temperature of each country
-		//is calculated and added to narrowedList only once, allowing the end result to be filled with only unique countries
-		 ArrayList<String> existingCountries = new ArrayList<>();
-
-		 //iterates through all the data, and
-		 //checks if a country's lowest temperature has been already calculated using existingCountries
-		 for(ITemperature t: data) {
-			 if(!existingCountries.contains(t.getCountry())) {
-				 
-				 //uses method from TASK A-1 to find the lowest Temperature of a given month in a given country
-				 ITemperature lowest = getLowestTempByMonth(t.getCountry(), month);
-				 
-				 narrowedList.add(lowest); //adds calculated lowest Temperature to narrowedList
-				 existingCountries.add(t.getCountry()); //adds a country to existingCountries once its data has been added to narrowedList
-			}
-		 }
-		 
-		 //sorts narrowedList from lowest to highest
-		 Collections.sort(narrowedList);
-
-		 //adds the first 10 lowest temperatures to solution and returns solution
-		 ArrayList<ITemperature> solution = new ArrayList<>();
-		 for(int i = 0; i < 10; i++) {
-			 solution.add(narrowedList.get(i));
-		 }
-		 return solution;
+		 return topKByMonth("B-1 allCountriesGetTop10LowestTemp", month, 10, false);
 	 }
 	 
 	 /**
 	  * (TASK B-1)
 	  * Gets an ArrayList of the Top 10 Highest Temperature by a given month
-	  * Arranges the ArrayList from low to high, using Collections.sort()
+	  * Arranges the ArrayList from low to high
 	  * @param the given month
 	  * @return an ArrayList<ITemperature> arranged from lowest to highest
 	  */
 	 public ArrayList<ITemperature> allCountriesGetTop10HighestTemp(int month){
-		//this ArrayList is used in the for loop to store the highest temperatures of each country in that given month
-		 ArrayList<ITemperature> narrowedList = new ArrayList<>();
-		 
-		//this ArrayList is used in the for loop to make sure that the highest temperature of each country
-		//is calculated and added to narrowedList only once, allowing the end result to be filled with only unique countries
-		 ArrayList<String> existingCountries = new ArrayList<>();
-		 
-		 //iterates through all the data, and
-		 //checks if a country's highest temperature has been already calculated using existingCountries		 
-		 for(ITemperature t: data) {
-			 if(!existingCountries.contains(t.getCountry())) {
-				//uses method from TASK A-1 to find the highest Temperature of a given month in a given country
-				 ITemperature highest = getHighestTempByMonth(t.getCountry(), month);
-				
-				 narrowedList.add(highest);  //adds calculated highest Temperature to narrowedList
-				 existingCountries.add(t.getCountry()); //adds a country to existingCountries once its data has been added to narrowedList
-			}
-		 }
-		 
-		//sorts narrowedList from lowest to highest
-		 Collections.sort(narrowedList);
-		 
-		 //adds the first 10 highest temperatures (or last 10 lowest since sorted from low to high) to solution and returns solution
-		 ArrayList<ITemperature> solution = new ArrayList<>();
-		 for(int i = 10; i >= 1; i--) {
-			 solution.add(narrowedList.get(narrowedList.size()-i));
-		 }
-		 return solution;
+		 return topKByMonth("B-1 allCountriesGetTop10HighestTemp", month, 10, true);
 	 }
 	 
 	 /**
 	  * (TASK B-2)
 	  *  Gets an ArrayList of the countries with the Top 10 Lowest Temperatures
-	  *  Arranges the ArrayList from lowest to highest, using Collections.sort
+	  *  Arranges the ArrayList from lowest to highest
 	  *  @return ArrayList<ITemperature>, arranged from low to high
 	  */
 	 public ArrayList<ITemperature> allCountriesGetTop10LowestTemp(){
-		 //this ArrayList is used in the for loop to store the lowest temperatures of each country
-		 ArrayList<ITemperature> narrowedList = new ArrayList<>();
-		
-		//this ArrayList is used in the for loop to make sure that the lowest temperature of each country
-		//is calculated and added to narrowedList only once, allowing the end result to be filled with only unique countries		 
-		 ArrayList<String> existingCountries = new ArrayList<>();
-		 
-		 //iterates through all the data, and calculates the lowest temperature for each unique country
-		 for(ITemperature t: data) {
-			 if(!existingCountries.contains(t.getCountry())) {
-				 //uses method from TASK A-4 to find the lowest Temperature of a given country
-				 ITemperature lowest = getLowestTempYearByCountry(t.getCountry());
-				 narrowedList.add(lowest);
-				 existingCountries.add(t.getCountry());
-			}
-		 }
-		 
-		//sorts narrowedList from lowest to highest
-		 Collections.sort(narrowedList);
-		 
-		//adds the first 10 lowest temperatures to solution and returns solution
-		 ArrayList<ITemperature> solution = new ArrayList<>();
-		 for(int i = 0; i < 10; i++) {
-			 solution.add(narrowedList.get(i));
-		 }
-		 return solution;
+		 return topK("B-2 allCountriesGetTop10LowestTemp", 10, false);
 	 }
 	 
 	 
 	 /**
 	  * (TASK B-2)
 	  *  Gets an ArrayList of the countries with the Top 10 Highest Temperatures
-	  *  Arranges the ArrayList from lowest to highest, using Collections.sort
+	  *  Arranges the ArrayList from lowest to highest
 	  *  @return ArrayList<ITemperature>, arranged from low to high
 	  */
 	 public ArrayList<ITemperature> allCountriesGetTop10HighestTemp(){
-		//this ArrayList is used in the for loop to store the highest temperatures of each country
-		 ArrayList<ITemperature> narrowedList = new ArrayList<>();
-		 
-		//this ArrayList is used in the for loop to make sure that the highest temperature of each country
-		//is calculated and added to narrowedList only once, allowing the end result to be filled with only unique countries			 
-		 ArrayList<String> existingCountries = new ArrayList<>();
-		 
-		//iterates through all the data, and calculates the highest temperature for each unique country
-		 for(ITemperature t: data) {
-			 if(!existingCountries.contains(t.getCountry())) {
-				 //uses method from TASK A-4 to find the highest Temperature of a given country
-				 Temperature highest = (Temperature) getHighestTempYearByCountry(t.getCountry());
-				 narrowedList.add(highest);
-				 existingCountries.add(t.getCountry());
-			}
-		 }
-		//sorts narrowedList from lowest to highest
-		 Collections.sort(narrowedList);
-		 
-		 //adds the first 10 highest temperatures (or last 10 lowest since sorted from low to high) to solution and returns solution
-		 ArrayList<ITemperature> solution = new ArrayList<>();
-		 for(int i = 10; i >= 1; i--) {
-			 solution.add(narrowedList.get(narrowedList.size()-i));
-		 }
-		 return solution;
+		 return topK("B-2 allCountriesGetTop10HighestTemp", 10, true);
+	 }
+	 
+	 /**
+	  * (TASK B-1)
+	  * Gets an ArrayList of the Top K Lowest Temperature by a given month
+	  * Selects the K lowest with a bounded heap (TopK) and arranges the ArrayList from low to high
+	  * @param month the given month
+	  * @param k the number of countries to return
+	  * @return an ArrayList<ITemperature> of at most k readings, arranged from lowest to highest
+	  */
+	 public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(int month, int k){
+		 return topKByMonth("B-1 allCountriesGetTopKLowestTemp", month, k, false);
+	 }
+	 
+	 /**
+	  * (TASK B-1)
+	  * Gets an ArrayList of the Top K Highest Temperature by a given month
+	  * Selects the K highest with a bounded heap (TopK) and arranges the ArrayList from low to high
+	  * @param month the given month
+	  * @param k the number of countries to return
+	  * @return an ArrayList<ITemperature> of at most k readings, arranged from lowest to highest
+	  */
+	 public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(int month, int k){
+		 return topKByMonth("B-1 allCountriesGetTopKHighestTemp", month, k, true);
+	 }
+
+	 /**
+	  * (Helper Method for TASK B-1)
+	  * Gets the K lowest or highest of the lowest or highest readings of each country in the given month,
+	  * recorded in the metrics under the name of the public method that asked for it
+	  * @param operation the name the query is recorded under
+	  * @param month the given month
+	  * @param k the number of countries to return
+	  * @param highest true for the highest readings, false for the lowest
+	  * @return an ArrayList<ITemperature> of at most k readings, arranged from lowest to highest
+	  */
+	 private ArrayList<ITemperature> topKByMonth(String operation, int month, int k, boolean highest) {
+		 AnalyzerMetrics.Timer timer = metrics.start(operation);
+		//the lowest or highest temperature of each country in that given month,
+		//computed for every country from the rows of the month only, found with the BitmapIndex bitmaps
+		 RowBitmap rows = bitmaps.getMonth(month);
+		 CountryAggregation aggregation = CountryAggregation.aggregate(table, rows, scan);
+		 ArrayList<ITemperature> result = highest ? TopK.highest(aggregation.getHighestReadings(), k) : TopK.lowest(aggregation.getLowestReadings(), k);
+		 timer.stop(rows.getCardinality(), result.size());
+		 return result;
+	 }
+	 
+	 /**
+	  * (TASK B-2)
+	  *  Gets an ArrayList of the countries with the Top K Lowest Temperatures
+	  *  Selects the K lowest with a bounded heap (TopK) and arranges the ArrayList from low to high
+	  *  @param k the number of countries to return
+	  *  @return ArrayList<ITemperature> of at most k readings, arranged from low to high
+	  */
+	 public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(int k){
+		 return topK("B-2 allCountriesGetTopKLowestTemp", k, false);
+	 }
+	 
+	 /**
+	  * (TASK B-2)
+	  *  Gets an ArrayList of the countries with the Top K Highest Temperatures
+	  *  Selects the K highest with a bounded heap (TopK) and arranges the ArrayList from low to high
+	  *  @param k the number of countries to return
+	  *  @return ArrayList<ITemperature> of at most k readings, arranged from low to high
+	  */
+	 public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(int k){
+		 return topK("B-2 allCountriesGetTopKHighestTemp", k, true);
+	 }
+
+	 /**
+	  * (Helper Method for TASK B-2)
+	  * Gets the K lowest or highest of the lowest or highest readings of each country,
+	  * recorded in the metrics under the name of the public method that asked for it
+	  * @param operation the name the query is recorded under
+	  * @param k the number of countries to return
+	  * @param highest true for the highest readings, false for the lowest
+	  * @return ArrayList<ITemperature> of at most k readings, arranged from low to high
+	  */
+	 private ArrayList<ITemperature> topK(String operation, int k, boolean highest) {
+		 AnalyzerMetrics.Timer timer = metrics.start(operation);
+		 //the lowest or highest temperature of each country, computed for every country in a single scan of the table
+		 CountryAggregation aggregation = CountryAggregation.aggregate(table, 0, 0, scan);
+		 ArrayList<ITemperature> result = highest ? TopK.highest(aggregation.getHighestReadings(), k) : TopK.lowest(aggregation.getLowestReadings(), k);
+		 timer.stop(table.size(), result.size());
+		 return result;
 	 }
 	
 	 /**
 	  * (TASK B-3)
 	  * Gets all the temperature data that falls within the given temperature range
-	  * Arranges the data from lowest to highest temperature using Collections.sort()
+	  * The data is found with two binary searches in the SortedTemperatureIndex sortedIndex, and is already arranged
+	  * from lowest to highest temperature, so no sorting is needed
+	  * As in Task A-3, readings that compare equal (i.e a reading repeated in the data file) are only returned once
 	  * @param lowRangeTemp, the lower-end of the range of temperatures in Celsius
 	  * @param highRangeTemp, the higher-end of the range of temperatures in Celsius
 	  * @return ArrayList<ITemperature> containing the all the gathered temperature data, arranged from low to high
 	  */
 	 public ArrayList<ITemperature> allCountriesGetAllDataWithinTempRange(double lowRangeTemp, double highRangeTemp){
-		//this ArrayList is used in the for loop to store all the temperatures within the range of each country
-		 ArrayList<ITemperature> narrowedList = new ArrayList<>();
-		 
-		//this ArrayList is used in the for loop to make sure that all the temperatures within the range of each country
-		//is calculated and added to narrowedList only once, allowing the end result to be filled with only unique countries		 
-		 ArrayList<String> existingCountries = new ArrayList<>();
-		 for(ITemperature t: data) {
-			 if(!existingCountries.contains(t.getCountry())) {
-				 
-				 //uses method from TASK A-3 to find the all the temperatures within the range of a given country
-				 TreeSet<ITemperature> list = getTempWithinRange(t.getCountry(), lowRangeTemp, highRangeTemp);
-				 //adds all the ITemperature objects for each country from list to the narrowedList
-				 for(ITemperature e: list) {
-					 narrowedList.add(e);
-				 }
-				 existingCountries.add(t.getCountry());
-			}
-		 }
-		//sorts narrowedList from lowest to highest, and returns it
-		 Collections.sort(narrowedList);
-		 return narrowedList;
+		 AnalyzerMetrics.Timer timer = metrics.start("B-3 allCountriesGetAllDataWithinTempRange");
+		 ArrayList<ITemperature> result = sortedIndex.getWithinRange(lowToCelsius(lowRangeTemp), highToCelsius(highRangeTemp));
+		 timer.stop(result.size(), result.size());
+		 return result;
 	 }
 	
 	 /**
@@ -521,13 +887,39 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  * @return ITemperature object that matches the given parameters
 	  */
 	 public ITemperature getTemp(String country, int month, int year){
-		 ITemperature temp = data.get(0);
-		 for(ITemperature t: data) {
-			if(t.getCountry().equalsIgnoreCase(country) && t.getMonth().equals(getMonthAsString(month)) && t.getYear() == year) {
-				temp = t;
-			}
-		}
-	 	return temp;
+		 AnalyzerMetrics.Timer timer = metrics.start("C-1 getTemp");
+		 ITemperature result = table.getRow(findRow(table.findCountry(country), month, year));
+		 timer.stop(1, 1);
+		 return result;
+	 }
+
+	 /**
+	  * (Helper Method for TASK C-1)
+	  * Gets the row that matches the given country id, month, and year, using the CompositeIndex index
+	  * @return the last row that matches the given parameters, or 0 if no row matches
+	  */
+	 private int findRow(int countryId, int month, int year) {
+		 int row = index.get(countryId, year, month);
+		 return row < 0 ? 0 : row;
+	 }
+
+	 /**
+	  * Looks up the temperature reading of the given country, year and month in O(1) time
+	  * @param country the name of the country, ignoring case
+	  * @param year the year of the reading
+	  * @param month the month of the reading as an integer between 1 and 12
+	  * @return the ITemperature object of the reading, or null if there is no such reading
+	  */
+	 public ITemperature lookup(String country, int year, int month) {
+		 AnalyzerMetrics.Timer timer = metrics.start("lookup");
+		 int row = index.get(table.findCountry(country), year, month);
+		 if(row < 0) {
+			 timer.stop(0, 0);
+			 return null;
+		 }
+		 ITemperature result = table.getRow(row);
+		 timer.stop(1, 1);
+		 return result;
 	 }
 	 
 	 /**
@@ -541,25 +933,26 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  */
 	 public ITemperature getLargestTempDeltaByCountry(ArrayList<String> countries, int month, int year1, int year2) {
 		 double maxDifference = Double.MIN_VALUE;
-		 ITemperature tempDelta = data.get(0);
+		 ITemperature tempDelta = table.getRow(0);
 		 double difference = 0.0;
 		 
 		 //iterates through the given ArrayList of countries and calculates the country with the largest temperature difference
 		 for(String country: countries) {
+			int countryId = table.findCountry(country);
 			 
-			//for each country, gets the temperature for that specific month and year, using above helper method
-			ITemperature allTempByYear2 = getTemp(country, month, year2);
-			ITemperature allTempByYear1 = getTemp(country, month, year1); 
+			//for each country, gets the row for that specific month and year, using above helper method
+			int rowByYear2 = findRow(countryId, month, year2);
+			int rowByYear1 = findRow(countryId, month, year1);
 			
 			//calculates the difference of temperature between the two years
-			difference = Math.abs(allTempByYear1.getTemperature(getFahrenheit)-allTempByYear2.getTemperature(getFahrenheit));
+			difference = Math.abs(temperatureOf(rowByYear1) - temperatureOf(rowByYear2));
 			
 			//Stores it if it's greater than the past differences
 			if(difference > maxDifference) {
 				maxDifference = difference;
 				
 				//creates a new Temperature object in order to store the maxDifference, and stores the new Temperature object in tempDelta
-				tempDelta = new Temperature(maxDifference, year2 - year1, getMonthAsString(month), country, allTempByYear1.getCountry3LetterCode());
+				tempDelta = new Temperature(maxDifference, year2 - year1, getMonthAsString(month), country, table.getCountryCode(table.getCountryId(rowByYear1)));
 			}
 		}
 		return tempDelta;
@@ -574,35 +967,160 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  * @return ArrayList<ITemperature> the top 10 countries with the largest temperature delta, arranged low to high
 	  */
 	 public ArrayList<ITemperature> allCountriesTop10TempDelta(int month, int year1, int year2){
-		//An arrayList initialized to all the countries in ArrayList<ITemperature> data
-		ArrayList<String> existingCountries = listOfAllCountries();
+		return topKTempDelta("C-1 allCountriesTop10TempDelta", month, year1, year2, 10);
+	}
 		
-		//this ArrayList is used in the for loop to make sure that the ITemperature objects with the largest temperature differences
-		//is calculated and added to narrowedList only once, allowing the end result to be filled with only unique countries
-		ArrayList<ITemperature> narrowedList = new ArrayList<>();
+	 /**
+	  * (TASK C-1)
+	  * Gets the Top K Countries with the largest temperature differences(absolute value) for a given month, between two given years
+	  * and arranges it from lowest to highest temperature delta
+	  * @param month the given month
+	  * @param year1 one of the two different years for which the difference is calculated
+	  * @param year2 other one of the two different years for which the difference is calculated
+	  * Of equal deltas, the country that comes first in the data file is kept, and a delta of 0 is never selected,
+	  * as by the repeated getLargestTempDeltaByCountry selection (see TopK.largestDeltas)
+	  * Countries without a reading for the month in either year are left out, so fewer than k countries may be returned
+	  * @param k the number of countries to return
+	  * @return ArrayList<ITemperature> of at most k countries with the largest temperature delta, arranged low to high
+	  */
+	 public ArrayList<ITemperature> allCountriesTopKTempDelta(int month, int year1, int year2, int k){
+		return topKTempDelta("C-1 allCountriesTopKTempDelta", month, year1, year2, k);
+	 }
+
+	 /**
+	  * (Helper Method for TASK C-1)
+	  * Gets the Top K Countries with the largest temperature differences as allCountriesTopKTempDelta describes,
+	  * recorded in the metrics under the name of the public method that asked for it, with the rows of the month
+	  * in either year as the rows scanned, since the join reads no other row
+	  * @param operation the name the query is recorded under
+	  * @return ArrayList<ITemperature> of at most k countries with the largest temperature delta, arranged low to high
+	  */
+	 private ArrayList<ITemperature> topKTempDelta(String operation, int month, int year1, int year2, int k) {
+		AnalyzerMetrics.Timer timer = metrics.start(operation);
+		ArrayList<ITemperature> deltas = new ArrayList<>();
+		RowBitmap rows = yearPairRows(year1, year2).and(bitmaps.getMonth(month));
+		addTempDeltas(deltas, TempDeltaJoin.join(table, rows, year1, year2, scan), month); //in country id order, i.e file order
+		ArrayList<ITemperature> result = TopK.largestDeltas(deltas, k);
+		timer.stop(rows.getCardinality(), result.size());
+		return result;
+	 }
 		
-		//Loops 10 times to find the top 10 countries with largest temperature differences
-		for(int count = 1; count <= 10; count++) {
-			
-			//gets the ITemperature object of the country with the largest Temperature Difference among the countries in existing countries
-			ITemperature tempDelta = getLargestTempDeltaByCountry(existingCountries, month, year1, year2);
+	 /**
+	  * (TASK C-1)
+	  * Gets the temperature difference(absolute value) of every country for a given month, between two given years
+	  * The readings of both years are joined on country with TempDeltaJoin, reading only the rows of the month in either year
+	  * Countries without a reading for the month in either year are left out
+	  * @param month the given month
+	  * @param year1 one of the two different years for which the difference is calculated
+	  * @param year2 other one of the two different years for which the difference is calculated
+	  * @return ArrayList<ITemperature> with one temperature delta per country, arranged low to high
+	  */
+	 public ArrayList<ITemperature> allCountriesTempDeltas(int month, int year1, int year2){
+		AnalyzerMetrics.Timer timer = metrics.start("C-1 allCountriesTempDeltas");
+		ArrayList<ITemperature> deltas = new ArrayList<>();
+		RowBitmap rows = yearPairRows(year1, year2);
+		if(month != 0) {
+			rows = rows.and(bitmaps.getMonth(month));
+		}
+		addTempDeltas(deltas, TempDeltaJoin.join(table, rows, year1, year2, scan), month);
+		RowSorter.sort(deltas);
+		timer.stop(rows.getCardinality(), deltas.size());
+		return deltas;
+	 }
 			
-			//adds the ITemperature object to narrowedList
-			narrowedList.add(tempDelta);
+	 /**
+	  * (TASK C-1)
+	  * Gets the temperature difference(absolute value) of every country for every month, between two given years
+	  * The readings of both years are joined on country and month with TempDeltaJoin, reading only the rows of either year
+	  * @param year1 one of the two different years for which the difference is calculated
+	  * @param year2 other one of the two different years for which the difference is calculated
+	  * @return ArrayList<ITemperature> with one temperature delta per country and month, arranged low to high
+	  */
+	 public ArrayList<ITemperature> allCountriesTempDeltasAllMonths(int year1, int year2){
+		AnalyzerMetrics.Timer timer = metrics.start("C-1 allCountriesTempDeltasAllMonths");
+		ArrayList<ITemperature> deltas = new ArrayList<>();
+		RowBitmap rows = yearPairRows(year1, year2);
+		TempDeltaJoin join = TempDeltaJoin.join(table, rows, year1, year2, scan);
+		for(int month = 1; month <= 12; month++) {
+			addTempDeltas(deltas, join, month);
+		}
+		RowSorter.sort(deltas);
+		timer.stop(rows.getCardinality(), deltas.size());
+		return deltas;
+	 }
 			
-			//removes the country with the current largest temperature delta from the arrayList, 
-			//to find the country with the next largest temperature delta
-			existingCountries.remove(tempDelta.getCountry());
+	 /**
+	  * (Helper Method for TASK C-1)
+	  * Gets the rows of either of the two years, by ORing their bitmaps
+	  */
+	 private RowBitmap yearPairRows(int year1, int year2) {
+		return bitmaps.getYear(year1).or(bitmaps.getYear(year2));
+	 }
+	 
+	 /**
+	  * Gets every reading that matches any of the given countries, any of the given years and any of the given months,
+	  * for ad-hoc slices of the data that no Task method answers (i.e three countries over a decade of winters)
+	  * The filters are evaluated by ORing and ANDing the bitmaps of the BitmapIndex bitmaps, so only the matching rows are read
+	  * A filter that is null or empty matches every reading
+	  * @param countries the names of the countries to match, a name that matches no country matches no reading
+	  * @param years the years to match
+	  * @param months the months to match between 1 and 12
+	  * @return ArrayList<ITemperature> with the matching readings, in the order of the data file
+	  */
+	 public ArrayList<ITemperature> getSlice(Collection<String> countries, Collection<Integer> years, Collection<Integer> months) {
+		AnalyzerMetrics.Timer timer = metrics.start("getSlice");
+		int[] countryIds = null;
+		if(countries != null && !countries.isEmpty()) {
+			countryIds = new int[countries.size()];
+			int i = 0;
+			for(String country: countries) {
+				countryIds[i++] = table.findCountry(country);
+			}
 		}
-		
-		//Since ITemperature objects are added to narrowedList from high to low,
-		//ITemperature objects are added to solution in a reversed(low to high) order and returned
-		ArrayList<ITemperature> solution = new ArrayList<>();
-		for(int i = 1; i <= 10; i++) {
-			 solution.add(narrowedList.get(narrowedList.size()-i));
+		RowBitmap rows = bitmaps.select(countryIds, toArray(years), toArray(months));
+		ArrayList<ITemperature> result = new ArrayList<>(rows.getCardinality());
+		for(int row = rows.next(0); row >= 0; row = rows.next(row + 1)) {
+			result.add(table.getRow(row));
 		}
-		return solution;
-	}
+		timer.stop(result.size(), result.size());
+		return result;
+	 }
+	 
+	 /**
+	  * (Helper Method for getSlice)
+	  * Gets the values of a filter as an int[], or null if there are none
+	  */
+	 private static int[] toArray(Collection<Integer> values) {
+		if(values == null || values.isEmpty()) {
+			return null;
+		}
+		int[] array = new int[values.size()];
+		int i = 0;
+		for(int value: values) {
+			array[i++] = value;
+		}
+		return array;
+	 }
+	 
+	 /**
+	  * (Helper Method for TASK C-1)
+	  * Adds a Temperature object holding the temperature delta of every country with readings for the given month in both joined years
+	  * The temperature of each added object is the delta, and its year is the difference between the two years
+	  * @param deltas the ArrayList<ITemperature> the deltas are added to
+	  * @param join the TempDeltaJoin of the two years
+	  * @param month the given month
+	  */
+	 private void addTempDeltas(ArrayList<ITemperature> deltas, TempDeltaJoin join, int month) {
+		if(month < 1 || month > 12) {
+			return; //no reading has such a month
+		}
+		for(int countryId = 0; countryId < table.getCountryCount(); countryId++) {
+			if(join.hasBoth(countryId, month)) {
+				double difference = Math.abs(temperatureOf(join.getYear1Row(countryId, month)) - temperatureOf(join.getYear2Row(countryId, month)));
+				deltas.add(new Temperature(difference, join.getYear2() - join.getYear1(), getMonthAsString(month), table.getCountryName(countryId), table.getCountryCode(countryId)));
+			}
+		}
+	 }
 	
 	 /**
 	  * This method starts the climate-change task activities
@@ -612,7 +1130,8 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 	  * The returned data results from ClimateAnalyzer methods are written to a data file.
 	  */
 	 public void runClimateAnalyzer() {
-		 try {
+		 //every task file is written through one ResultSink, which keeps the files open until all tasks are completed
+		 try(ResultSink results = weather.openResultSink()) {
 			 //creates a scanner
 			 Scanner scan = new Scanner(System.in);
 			 
@@ -692,13 +1211,13 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 						 A1HighTemp.add(highestMonth);
 						 
 						 subject = "Task A1: lowest temperature for " + country + " in " + getMonthAsString(month);
-						 weather.writeSubjectHeaderInFile(fileName, subject);
-						 weather.writeDataToFile(fileName, topic, A1LowTemp);
+						 results.writeSubjectHeaderInFile(fileName, subject);
+						 results.writeDataToFile(fileName, topic, A1LowTemp);
 						 
 						 
 						 subject = "Task A1: highest temperature for " + country + " in " + getMonthAsString(month);
-						 weather.writeSubjectHeaderInFile(fileName, subject);
-						 weather.writeDataToFile(fileName, topic, A1HighTemp);
+						 results.writeSubjectHeaderInFile(fileName, subject);
+						 results.writeDataToFile(fileName, topic, A1HighTemp);
 					 } 
 				}
 				 
@@ -744,13 +1263,13 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 					 A2High.add(highestYear);
 					 
 					 subject = "Task A2: lowest temperature for " + country + " in " + year;
-					 weather.writeSubjectHeaderInFile(fileName, subject);
-					 weather.writeDataToFile(fileName, topic, A2Low);
+					 results.writeSubjectHeaderInFile(fileName, subject);
+					 results.writeDataToFile(fileName, topic, A2Low);
 					 
 					 
 					 subject = "Task A2: highest temperature for " + country + " in " + year;
-					 weather.writeSubjectHeaderInFile(fileName, subject);
-					 weather.writeDataToFile(fileName, topic, A2High);
+					 results.writeSubjectHeaderInFile(fileName, subject);
+					 results.writeDataToFile(fileName, topic, A2High);
 				 } 
 				 
 			} while(!isValid);
@@ -801,8 +1320,8 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 					 }
 					 else {
 						 subject = "Task A3: Temperatures within the specific range of " + Math.round(lowTemp * 100.0)/100.0 + "(C)-" + Math.round(highTemp * 100.0)/100.0 + "(C) for " + country;
-						 weather.writeSubjectHeaderInFile(fileName, subject);
-						 weather.writeDataToFile(fileName, topic, A3);
+						 results.writeSubjectHeaderInFile(fileName, subject);
+						 results.writeDataToFile(fileName, topic, A3);
 					 }
 					 
 				 }
@@ -823,15 +1342,15 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 			 A4Low.add(lowest);
 			 
 			 subject = "Task A4: The year with the lowest temperature for " + country;
-			 weather.writeSubjectHeaderInFile(fileName, subject);
-			 weather.writeDataToFile(fileName, topic, A4Low);
+			 results.writeSubjectHeaderInFile(fileName, subject);
+			 results.writeDataToFile(fileName, topic, A4Low);
 			 
 			 Temperature highest = (Temperature)getHighestTempYearByCountry(country);
 			 A4High.add(highest);
 			 
 			 subject = "Task A4: The year with the highest temperature for " + country;
-			 weather.writeSubjectHeaderInFile(fileName, subject);
-			 weather.writeDataToFile(fileName, topic, A4High);
+			 results.writeSubjectHeaderInFile(fileName, subject);
+			 results.writeDataToFile(fileName, topic, A4High);
 			 
 			 
 			 //********** TASK-B ***********
@@ -869,14 +1388,14 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 					 B1Low = allCountriesGetTop10LowestTemp(monthB);
 					 
 					 subject = "Task B1: Top 10 countries with the lowest temperature reading for " + getMonthAsString(monthB) +" between 2000 and 2016";
-					 weather.writeSubjectHeaderInFile(fileName, subject);
-					 weather.writeDataToFile(fileName, topic, B1Low);
+					 results.writeSubjectHeaderInFile(fileName, subject);
+					 results.writeDataToFile(fileName, topic, B1Low);
 					 
 					 B1High = allCountriesGetTop10HighestTemp(monthB);
 					 
 					 subject = "Task B1: Top 10 countries with the highest temperature reading for " + getMonthAsString(monthB) +" between 2000 and 2016";
-					 weather.writeSubjectHeaderInFile(fileName, subject);
-					 weather.writeDataToFile(fileName, topic, B1High);
+					 results.writeSubjectHeaderInFile(fileName, subject);
+					 results.writeDataToFile(fileName, topic, B1High);
 				 } 
 				 
 			} while(!isValid);
@@ -892,14 +1411,14 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 			 B2Low = allCountriesGetTop10LowestTemp();
 			 
 			 subject = "Task B2: Top 10 countries with the lowest temperature from 2000 and 2016";
-			 weather.writeSubjectHeaderInFile(fileName, subject);
-			 weather.writeDataToFile(fileName, topic, B2Low);
+			 results.writeSubjectHeaderInFile(fileName, subject);
+			 results.writeDataToFile(fileName, topic, B2Low);
 			 
 			 B2High = allCountriesGetTop10HighestTemp();
 			 
 			 subject = "Task B2: Top 10 countries with the highest temperature reading from 2000 and 2016";
-			 weather.writeSubjectHeaderInFile(fileName, subject);
-			 weather.writeDataToFile(fileName, topic, B2High);
+			 results.writeSubjectHeaderInFile(fileName, subject);
+			 results.writeDataToFile(fileName, topic, B2High);
 			 
 			 System.out.println("so far so good");
 			 
@@ -945,8 +1464,8 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 					 }
 					 else {
 						 subject = "Task B3: List all of the countries that fall within a specific temperature range of " + + Math.round(lowTempB * 100.0)/100.0 + "(C)-" + Math.round(highTempB * 100.0)/100.0 + "(C)";
-						 weather.writeSubjectHeaderInFile(fileName, subject);
-						 weather.writeDataToFile(fileName, topic, B3);
+						 results.writeSubjectHeaderInFile(fileName, subject);
+						 results.writeDataToFile(fileName, topic, B3);
 					 }
 				 } 
 			} while(!isValid);
@@ -1003,8 +1522,8 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 						 C1 = allCountriesTop10TempDelta(monthC, year1, year2);
 						 
 						 subject = "Task C1: List of the top 10 countries with the largest change in temperature in " + getMonthAsString(monthC) + " between " + year1 + " and " + year2;
-						 weather.writeSubjectHeaderInFile(fileName, subject);
-						 weather.writeDataToFile(fileName, topic, C1);
+						 results.writeSubjectHeaderInFile(fileName, subject);
+						 results.writeDataToFile(fileName, topic, C1);
 					 }
 				 }
 				 
@@ -1019,8 +1538,256 @@ public class ClimateAnalyzer extends TreeSet<ITemperature> implements IClimateAn
 		 
 	 }
 	 
+	 /**
+	  * Runs every query of the given query file against the loaded data, without asking the user for any input
+	  * Each line of the query file holds one task and its parameters, separated by commas:
+	  * A1, country, month | A2, country, year | A3, country, lowTemp, highTemp | A4, country
+	  * B1, month | B2 | B3, lowTemp, highTemp | C1, month, year1, year2
+	  * Blank lines and lines starting with # are skipped. The parameters are checked with the same validCountry, validMonth,
+	  * validYear and validTempRange helpers as runClimateAnalyzer, and the results are written to the same task files.
+	  * An invalid query is reported with its line number and the rest of the file still runs.
+	  * @param queryFileName the directory/name of the query file
+	  * @return the number of queries that ran successfully
+	  */
+	 public int runBatch(String queryFileName) throws IOException {
+		 int completed = 0;
+		 int lineNumber = 0;
+		 try(BufferedReader reader = new BufferedReader(new FileReader(queryFileName));
+				 ResultSink results = weather.openResultSink()) {
+			 String line;
+			 while((line = reader.readLine()) != null) {
+				 lineNumber++;
+				 line = line.trim();
+				 if(line.isEmpty() || line.startsWith("#")) {
+					 continue;
+				 }
+				 
+				 //splits the query into its task and parameters
+				 String[] fields = line.split(",");
+				 for(int i = 0; i < fields.length; i++) {
+					 fields[i] = fields[i].trim();
+				 }
+				 
+				 try {
+					 pollTail(); //any readings appended to a followed data file are added before the query runs
+				 }
+				 catch(IOException e) {
+					 System.out.println(e.getMessage());
+				 }
+				 String errorMessage = runQuery(fields, results);
+				 if(errorMessage != null) {
+					 System.out.println("Skipping query on line " + lineNumber + " (" + line + "): " + errorMessage);
+				 }
+				 else {
+					 completed++;
+				 }
+			 }
+		 }
+		 return completed;
+	 }
+	 
+	 /**
+	  * (Helper Method-runBatch())
+	  * Validates the parameters of a single query, runs it and writes its results to the file of its task
+	  * @param fields the task of the query followed by its parameters
+	  * @param results the ResultSink the results are written to
+	  * @return null if the query ran, otherwise a message describing why it is invalid
+	  */
+	 private String runQuery(String[] fields, ResultSink results) throws IOException {
+		 String task = fields[0].toUpperCase();
+		 String topic = "Temperature, Year, Month_Avg, Country, Country_Code";
+		 
+		 switch(task) {
+		 case "A1": {
+			 if(fields.length != 3) {
+				 return "A1 expects a country and a month";
+			 }
+			 if(!validCountry(fields[1])) {
+				 return "invalid country " + fields[1];
+			 }
+			 if(!validMonth(fields[2])) {
+				 return "invalid month " + fields[2];
+			 }
+			 String country = fields[1];
+			 int month = Integer.parseInt(fields[2]);
+			 String fileName = "data/taskA1_climate_info.csv";
+			 writeResult(results, fileName, "Task A1: lowest temperature for " + country + " in " + getMonthAsString(month), topic, getLowestTempByMonth(country, month));
+			 writeResult(results, fileName, "Task A1: highest temperature for " + country + " in " + getMonthAsString(month), topic, getHighestTempByMonth(country, month));
+			 return null;
+		 }
+		 case "A2": {
+			 if(fields.length != 3) {
+				 return "A2 expects a country and a year";
+			 }
+			 if(!validCountry(fields[1])) {
+				 return "invalid country " + fields[1];
+			 }
+			 if(!validYear(fields[2])) {
+				 return "invalid year " + fields[2];
+			 }
+			 String country = fields[1];
+			 int year = Integer.parseInt(fields[2]);
+			 String fileName = "data/taskA2_climate_info.csv";
+			 writeResult(results, fileName, "Task A2: lowest temperature for " + country + " in " + year, topic, getLowestTempByYear(country, year));
+			 writeResult(results, fileName, "Task A2: highest temperature for " + country + " in " + year, topic, getHighestTempByYear(country, year));
+			 return null;
+		 }
+		 case "A3": {
+			 if(fields.length != 4) {
+				 return "A3 expects a country, a lower and a higher temperature";
+			 }
+			 if(!validCountry(fields[1])) {
+				 return "invalid country " + fields[1];
+			 }
+			 if(!validTempRange(fields[2], fields[3])) {
+				 return "invalid temperature range " + fields[2] + " to " + fields[3];
+			 }
+			 String country = fields[1];
+			 double lowTemp = Double.parseDouble(fields[2]);
+			 double highTemp = Double.parseDouble(fields[3]);
+			 ArrayList<ITemperature> A3 = new ArrayList<>(getTempWithinRange(country, lowTemp, highTemp));
+			 if(A3.size() == 0) {
+				 return "there are no temperatures within the specific range of " + Math.round(lowTemp * 100.0)/100.0 + "(C)-" + Math.round(highTemp * 100.0)/100.0 + "(C) for " + country;
+			 }
+			 String subject = "Task A3: Temperatures within the specific range of " + Math.round(lowTemp * 100.0)/100.0 + "(C)-" + Math.round(highTemp * 100.0)/100.0 + "(C) for " + country;
+			 results.writeSubjectHeaderInFile("data/taskA3_climate_info.csv", subject);
+			 results.writeDataToFile("data/taskA3_climate_info.csv", topic, A3);
+			 return null;
+		 }
+		 case "A4": {
+			 if(fields.length != 2) {
+				 return "A4 expects a country";
+			 }
+			 if(!validCountry(fields[1])) {
+				 return "invalid country " + fields[1];
+			 }
+			 String country = fields[1];
+			 String fileName = "data/taskA4_climate_info.csv";
+			 writeResult(results, fileName, "Task A4: The year with the lowest temperature for " + country, topic, getLowestTempYearByCountry(country));
+			 writeResult(results, fileName, "Task A4: The year with the highest temperature for " + country, topic, getHighestTempYearByCountry(country));
+			 return null;
+		 }
+		 case "B1": {
+			 if(fields.length != 2) {
+				 return "B1 expects a month";
+			 }
+			 if(!validMonth(fields[1])) {
+				 return "invalid month " + fields[1];
+			 }
+			 int month = Integer.parseInt(fields[1]);
+			 String fileName = "data/taskB1_climate_info.csv";
+			 results.writeSubjectHeaderInFile(fileName, "Task B1: Top 10 countries with the lowest temperature reading for " + getMonthAsString(month) +" between 2000 and 2016");
+			 results.writeDataToFile(fileName, topic, allCountriesGetTop10LowestTemp(month));
+			 results.writeSubjectHeaderInFile(fileName, "Task B1: Top 10 countries with the highest temperature reading for " + getMonthAsString(month) +" between 2000 and 2016");
+			 results.writeDataToFile(fileName, topic, allCountriesGetTop10HighestTemp(month));
+			 return null;
+		 }
+		 case "B2": {
+			 if(fields.length != 1) {
+				 return "B2 expects no parameters";
+			 }
+			 String fileName = "data/taskB2_climate_info.csv";
+			 results.writeSubjectHeaderInFile(fileName, "Task B2: Top 10 countries with the lowest temperature from 2000 and 2016");
+			 results.writeDataToFile(fileName, topic, allCountriesGetTop10LowestTemp());
+			 results.writeSubjectHeaderInFile(fileName, "Task B2: Top 10 countries with the highest temperature reading from 2000 and 2016");
+			 results.writeDataToFile(fileName, topic, allCountriesGetTop10HighestTemp());
+			 return null;
+		 }
+		 case "B3": {
+			 if(fields.length != 3) {
+				 return "B3 expects a lower and a higher temperature";
+			 }
+			 if(!validTempRange(fields[1], fields[2])) {
+				 return "invalid temperature range " + fields[1] + " to " + fields[2];
+			 }
+			 double lowTemp = Double.parseDouble(fields[1]);
+			 double highTemp = Double.parseDouble(fields[2]);
+			 ArrayList<ITemperature> B3 = allCountriesGetAllDataWithinTempRange(lowTemp, highTemp);
+			 if(B3.size() == 0) {
+				 return "there are no temperatures within the specific range of " + Math.round(lowTemp * 100.0)/100.0 + "(C)-" + Math.round(highTemp * 100.0)/100.0 + "(C)";
+			 }
+			 String subject = "Task B3: List all of the countries that fall within a specific temperature range of " + Math.round(lowTemp * 100.0)/100.0 + "(C)-" + Math.round(highTemp * 100.0)/100.0 + "(C)";
+			 results.writeSubjectHeaderInFile("data/taskB3_climate_info.csv", subject);
+			 results.writeDataToFile("data/taskB3_climate_info.csv", topic, B3);
+			 return null;
+		 }
+		 case "C1": {
+			 if(fields.length != 4) {
+				 return "C1 expects a month and two years";
+			 }
+			 if(!validMonth(fields[1])) {
+				 return "invalid month " + fields[1];
+			 }
+			 if(!validYear(fields[2]) || !validYear(fields[3])) {
+				 return "invalid years " + fields[2] + " and " + fields[3];
+			 }
+			 int month = Integer.parseInt(fields[1]);
+			 int year1 = Integer.parseInt(fields[2]);
+			 int year2 = Integer.parseInt(fields[3]);
+			 String subject = "Task C1: List of the top 10 countries with the largest change in temperature in " + getMonthAsString(month) + " between " + year1 + " and " + year2;
+			 results.writeSubjectHeaderInFile("data/taskC1_climate_info.csv", subject);
+			 results.writeDataToFile("data/taskC1_climate_info.csv", "Temperature Delta, Year Delta, Month_Avg, Country, Country_Code", allCountriesTop10TempDelta(month, year1, year2));
+			 return null;
+		 }
+		 default:
+			 return "unknown task " + fields[0];
+		 }
+	 }
+	 
+	 /**
+	  * (Helper Method-runBatch())
+	  * Writes the subject and a single reading to the given task file
+	  */
+	 private void writeResult(ResultSink results, String fileName, String subject, String topic, ITemperature result) throws IOException {
+		 ArrayList<ITemperature> list = new ArrayList<>();
+		 list.add(result);
+		 results.writeSubjectHeaderInFile(fileName, subject);
+		 results.writeDataToFile(fileName, topic, list);
+	 }
+	 
+	 /**
+	  * Starts the ClimateAnalyzer with the data in data/world_temp_2000-2016.csv
+	  * With no arguments, the tasks are run interactively through runClimateAnalyzer.
+	  * With the arguments --batch queryFile [dataFile], every query of queryFile is run through runBatch instead,
+	  * and the metrics of every operation are printed at the end.
+	  * With -Dclimatechange.metrics.period=milliseconds, the metrics are also printed periodically while the tasks run.
+	  * With -Dclimatechange.aggregates=true, the MaterializedAggregates are built at load time for the Task A lookups.
+	  * With -Dclimatechange.tail=true, the lines appended to the data file while a batch runs are added before each query.
+	  * With -Dclimatechange.parallelism=threads, the scans of the queries are split across that many threads.
+	  * With -Dclimatechange.centidegrees=true, the temperatures are stored in hundredths of a degree.
+	  */
 	 public static void main(String[] args) {
-		 ClimateAnalyzer tester = new ClimateAnalyzer("data/world_temp_2000-2016.csv");
+		 long metricsPeriod = Long.getLong("climatechange.metrics.period", 0);
+		 boolean buildAggregates = Boolean.getBoolean("climatechange.aggregates");
+		 int parallelism = Integer.getInteger("climatechange.parallelism", 1);
+		 boolean centiDegrees = Boolean.getBoolean("climatechange.centidegrees");
+		 if(args.length >= 2 && args[0].equals("--batch")) {
+			 String dataFileName = args.length >= 3 ? args[2] : "data/world_temp_2000-2016.csv";
+			 ClimateAnalyzer batch = new ClimateAnalyzer(dataFileName, centiDegrees);
+			 batch.setMaterializedAggregates(buildAggregates);
+			 batch.setParallelism(parallelism);
+			 if(Boolean.getBoolean("climatechange.tail")) {
+				 batch.tailDataFile(dataFileName, false);
+			 }
+			 if(metricsPeriod > 0) {
+				 batch.getMetrics().startPeriodicDump(metricsPeriod, System.out);
+			 }
+			 try {
+				 int completed = batch.runBatch(args[1]);
+				 System.out.println("Batch completed: " + completed + " queries ran successfully");
+				 System.out.print(batch.getMetrics().report());
+			 }
+			 catch(IOException e) {
+				 System.out.println(e.getMessage());
+			 }
+			 return;
+		 }
+		 ClimateAnalyzer tester = new ClimateAnalyzer("data/world_temp_2000-2016.csv", centiDegrees);
+		 tester.setMaterializedAggregates(buildAggregates);
+		 tester.setParallelism(parallelism);
+		 if(metricsPeriod > 0) {
+			 tester.getMetrics().startPeriodicDump(metricsPeriod, System.out);
+		 }
 		 tester.runClimateAnalyzer();
  
 	 }
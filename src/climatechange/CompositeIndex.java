@@ -0,0 +1,127 @@
+package climatechange;
+import java.util.*;
+
+public class CompositeIndex {
+	private static final int EMPTY = -1;
+
+	//open addressing hash table: keys[i] is a packed (country id, year, month) key and rows[i] is its row, or EMPTY
+	private long[] keys;
+	private int[] rows;
+	private int count;
+	private TemperatureTable table;
+
+	/**
+	 * (Constructor)
+	 * Creates a CompositeIndex that maps every (country, year, month) in the given table to its row
+	 * If several rows share the same country, year and month, the last one is kept
+	 * @param table the TemperatureTable to index
+	 */
+	public CompositeIndex(TemperatureTable table) {
+		this.table = table;
+		int capacity = 16;
+		while(capacity < table.size() * 2) {
+			capacity *= 2;
+		}
+		keys = new long[capacity];
+		rows = new int[capacity];
+		Arrays.fill(rows, EMPTY);
+		count = 0;
+
+		for(int row = 0; row < table.size(); row++) {
+			add(row);
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Packs a country id, year and month into a single key
+	 */
+	private static long key(int countryId, int year, int month) {
+		return ((long) countryId << 32) | ((year & 0xFFFFL) << 8) | (month & 0xFF);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Spreads the bits of a key so that consecutive months and years do not cluster in the table
+	 */
+	private static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+
+	/**
+	 * Adds the given row of the table to the index, replacing any earlier row with the same country, year and month
+	 * @param row the row to add
+	 */
+	public void add(int row) {
+		if((count + 1) * 2 > keys.length) {
+			resize();
+		}
+		put(key(table.getCountryId(row), table.getYear(row), table.getMonth(row)), row);
+	}
+
+	/**
+	 * (Helper Method for add)
+	 * Stores the row for the given key, using linear probing
+	 */
+	private void put(long key, int row) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while(rows[slot] != EMPTY) {
+			if(keys[slot] == key) {
+				rows[slot] = row;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		rows[slot] = row;
+		count++;
+	}
+
+	/**
+	 * (Helper Method for add)
+	 * Doubles the capacity of the hash table and re-inserts every entry
+	 */
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldRows = rows;
+		keys = new long[oldKeys.length * 2];
+		rows = new int[oldRows.length * 2];
+		Arrays.fill(rows, EMPTY);
+		count = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldRows[i] != EMPTY) {
+				put(oldKeys[i], oldRows[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the row of the reading with the given country id, year and month
+	 * @param countryId the id of the country in the indexed table
+	 * @param year the year of the reading
+	 * @param month the month of the reading as an integer between 1 and 12
+	 * @return the row of the reading, or -1 if there is no such reading
+	 */
+	public int get(int countryId, int year, int month) {
+		if(countryId < 0) {
+			return EMPTY;
+		}
+		long key = key(countryId, year, month);
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while(rows[slot] != EMPTY) {
+			if(keys[slot] == key) {
+				return rows[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return EMPTY;
+	}
+
+	// get the number of distinct (country, year, month) keys in the index
+	public int size() {
+		return count;
+	}
+}
@@ -0,0 +1,241 @@
+package climatechange;
+import java.util.*;
+
+public class CountryAggregation {
+	private TemperatureTable table;
+
+	//one entry per country id: the rows of the lowest and highest readings, the number of readings and their sum
+	private int[] minRows;
+	private int[] maxRows;
+	private double[] minValues;
+	private double[] maxValues;
+	private int[] counts;
+	private double[] sums;
+
+	/**
+	 * (Constructor)
+	 * Groups the rows of the given table by country and computes the lowest reading, highest reading, count and sum
+	 * of every country in a single scan of the table
+	 * If several rows of a country share the lowest or highest temperature, the last one is kept
+	 * @param table the TemperatureTable to aggregate
+	 * @param month the month to match between 1 and 12, or 0 to match every month
+	 * @param year the year to match, or 0 to match every year
+	 */
+	public CountryAggregation(TemperatureTable table, int month, int year) {
+		this(table);
+		addRows(month, year, 0, table.size());
+	}
+
+	/**
+	 * (Constructor)
+	 * Groups only the given rows of the table by country, i.e the rows of a month found with a BitmapIndex,
+	 * so that the rows that do not match are never read
+	 * The rows are visited in increasing order, so ties are broken as by a scan of the table
+	 * @param table the TemperatureTable to aggregate
+	 * @param rows the rows to aggregate
+	 */
+	public CountryAggregation(TemperatureTable table, RowBitmap rows) {
+		this(table);
+		addRows(rows, 0, table.size());
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates an empty group for every country of the given table, i.e a partial aggregation of a ParallelScan
+	 */
+	private CountryAggregation(TemperatureTable table) {
+		this.table = table;
+		startGroups();
+	}
+
+	/**
+	 * Groups the rows of the given table by country as the constructor does, but with the table split into ranges of rows
+	 * aggregated by the threads of the given ParallelScan
+	 * The partial aggregations are merged in row order, so the lowest and highest readings are the same rows as
+	 * a sequential scan finds; the sums are added up range by range, so they may differ from it in the last digits
+	 * @param table the TemperatureTable to aggregate
+	 * @param month the month to match between 1 and 12, or 0 to match every month
+	 * @param year the year to match, or 0 to match every year
+	 * @param scan the ParallelScan that runs the ranges
+	 * @return the CountryAggregation of every matching row
+	 */
+	public static CountryAggregation aggregate(TemperatureTable table, int month, int year, ParallelScan scan) {
+		return scan.run(table.size(), new ParallelScan.Scan<CountryAggregation>() {
+			public CountryAggregation scan(int fromRow, int toRow) {
+				CountryAggregation part = new CountryAggregation(table);
+				part.addRows(month, year, fromRow, toRow);
+				return part;
+			}
+
+			public CountryAggregation merge(CountryAggregation left, CountryAggregation right) {
+				return left.merge(right);
+			}
+		});
+	}
+
+	/**
+	 * Groups only the given rows of the table by country as the constructor does, but with the table split into ranges
+	 * of rows aggregated by the threads of the given ParallelScan
+	 * @param table the TemperatureTable to aggregate
+	 * @param rows the rows to aggregate
+	 * @param scan the ParallelScan that runs the ranges
+	 * @return the CountryAggregation of the given rows
+	 */
+	public static CountryAggregation aggregate(TemperatureTable table, RowBitmap rows, ParallelScan scan) {
+		return scan.run(table.size(), rows.getCardinality(), new ParallelScan.Scan<CountryAggregation>() {
+			public CountryAggregation scan(int fromRow, int toRow) {
+				CountryAggregation part = new CountryAggregation(table);
+				part.addRows(rows, fromRow, toRow);
+				return part;
+			}
+
+			public CountryAggregation merge(CountryAggregation left, CountryAggregation right) {
+				return left.merge(right);
+			}
+		});
+	}
+
+	/**
+	 * (Helper Method)
+	 * Adds the rows from one row (inclusive) to another (exclusive) that match the month and year
+	 */
+	private void addRows(int month, int year, int fromRow, int toRow) {
+		short[] years = table.yearColumn();
+		byte[] months = table.monthColumn();
+
+		for(int row = fromRow; row < toRow; row++) {
+			if((month == 0 || months[row] == month) && (year == 0 || years[row] == year)) {
+				addRow(row);
+			}
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Adds the given rows from one row (inclusive) to another (exclusive)
+	 */
+	private void addRows(RowBitmap rows, int fromRow, int toRow) {
+		for(int row = rows.next(fromRow); row >= 0 && row < toRow; row = rows.next(row + 1)) {
+			addRow(row);
+		}
+	}
+
+	/**
+	 * (Helper Method for aggregate)
+	 * Merges the groups of an aggregation of later rows into this one, so that a tie goes to the later row
+	 * @return this CountryAggregation
+	 */
+	private CountryAggregation merge(CountryAggregation right) {
+		for(int countryId = 0; countryId < counts.length; countryId++) {
+			if(right.counts[countryId] == 0) {
+				continue;
+			}
+			if(right.minValues[countryId] <= minValues[countryId]) {
+				minValues[countryId] = right.minValues[countryId];
+				minRows[countryId] = right.minRows[countryId];
+			}
+			if(right.maxValues[countryId] >= maxValues[countryId]) {
+				maxValues[countryId] = right.maxValues[countryId];
+				maxRows[countryId] = right.maxRows[countryId];
+			}
+			counts[countryId] += right.counts[countryId];
+			sums[countryId] += right.sums[countryId];
+		}
+		return this;
+	}
+
+	/**
+	 * (Helper Method for the constructor)
+	 * Creates an empty group for every country of the table
+	 */
+	private void startGroups() {
+		int countryCount = table.getCountryCount();
+		minRows = new int[countryCount];
+		maxRows = new int[countryCount];
+		minValues = new double[countryCount];
+		maxValues = new double[countryCount];
+		counts = new int[countryCount];
+		sums = new double[countryCount];
+		Arrays.fill(minRows, -1);
+		Arrays.fill(maxRows, -1);
+		Arrays.fill(minValues, Double.POSITIVE_INFINITY);
+		Arrays.fill(maxValues, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * (Helper Method for addRows)
+	 * Adds a matching row to the group of its country
+	 */
+	private void addRow(int row) {
+		int countryId = table.countryColumn()[row];
+		double temperature = table.getTemperature(row);
+		if(temperature <= minValues[countryId]) {
+			minValues[countryId] = temperature;
+			minRows[countryId] = row;
+		}
+		if(temperature >= maxValues[countryId]) {
+			maxValues[countryId] = temperature;
+			maxRows[countryId] = row;
+		}
+		counts[countryId]++;
+		sums[countryId] += temperature;
+	}
+
+	// get the number of countries in the aggregated table
+	public int getCountryCount() {
+		return counts.length;
+	}
+
+	// get the row of the lowest reading of the given country, or -1 if the country has no matching reading
+	public int getMinRow(int countryId) {
+		return minRows[countryId];
+	}
+
+	// get the row of the highest reading of the given country, or -1 if the country has no matching reading
+	public int getMaxRow(int countryId) {
+		return maxRows[countryId];
+	}
+
+	// get the number of matching readings of the given country
+	public int getCount(int countryId) {
+		return counts[countryId];
+	}
+
+	// get the sum of the matching temperatures of the given country in Celsius
+	public double getSum(int countryId) {
+		return sums[countryId];
+	}
+
+	// get the average of the matching temperatures of the given country in Celsius, or NaN if there are none
+	public double getAverage(int countryId) {
+		return counts[countryId] == 0 ? Double.NaN : sums[countryId] / counts[countryId];
+	}
+
+	/**
+	 * Gets the lowest reading of every country that has at least one matching reading
+	 * @return an ArrayList<ITemperature> with one reading per country, in country id order
+	 */
+	public ArrayList<ITemperature> getLowestReadings() {
+		ArrayList<ITemperature> readings = new ArrayList<>();
+		for(int countryId = 0; countryId < minRows.length; countryId++) {
+			if(minRows[countryId] >= 0) {
+				readings.add(table.getRow(minRows[countryId]));
+			}
+		}
+		return readings;
+	}
+
+	/**
+	 * Gets the highest reading of every country that has at least one matching reading
+	 * @return an ArrayList<ITemperature> with one reading per country, in country id order
+	 */
+	public ArrayList<ITemperature> getHighestReadings() {
+		ArrayList<ITemperature> readings = new ArrayList<>();
+		for(int countryId = 0; countryId < maxRows.length; countryId++) {
+			if(maxRows[countryId] >= 0) {
+				readings.add(table.getRow(maxRows[countryId]));
+			}
+		}
+		return readings;
+	}
+}
@@ -0,0 +1,109 @@
+package climatechange;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Dictionary {
+	//values[id] is the String of each id; ids and idsIgnoreCase map each String (or its lower case form) back to its id
+	private volatile String[] values;
+	private volatile int size;
+	private ConcurrentHashMap<String, Integer> ids;
+	private ConcurrentHashMap<String, Integer> idsIgnoreCase;
+
+	/**
+	 * (Constructor)
+	 * Creates a Dictionary that interns Strings to small integer ids, numbered from 0 in the order they are first added
+	 * Lookups may run on any thread, and intern may be called from several threads at the same time
+	 * @param initialValues the values given the first ids, in order
+	 */
+	public Dictionary(String... initialValues) {
+		values = new String[Math.max(16, initialValues.length)];
+		size = 0;
+		ids = new ConcurrentHashMap<>();
+		idsIgnoreCase = new ConcurrentHashMap<>();
+		for(String value: initialValues) {
+			intern(value);
+		}
+	}
+
+	/**
+	 * Gets the id of the given value, adding it to the dictionary if it has not been seen before
+	 * @param value the String to intern
+	 * @return the id of the value
+	 */
+	public int intern(String value) {
+		Integer id = ids.get(value);
+		if(id != null) {
+			return id;
+		}
+		synchronized(this) {
+			id = ids.get(value);
+			if(id == null) {
+				id = size;
+				String[] current = values;
+				if(id == current.length) {
+					current = Arrays.copyOf(current, current.length * 2);
+				}
+				current[id] = value;
+				values = current;
+				idsIgnoreCase.putIfAbsent(value.toLowerCase(), id);
+				size = id + 1;
+				ids.put(value, id); //published last, so a thread that finds the id can also read its value
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * Gets the id of the value that is exactly the given String
+	 * @param value the String to look up
+	 * @return the id of the value, or -1 if it is not in the dictionary
+	 */
+	public int getId(String value) {
+		if(value == null) {
+			return -1;
+		}
+		Integer id = ids.get(value);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Gets the id of the value that matches the given String, ignoring case
+	 * If several values only differ in case, the one added first is matched
+	 * @param value the String to look up
+	 * @return the id of the value, or -1 if it is not in the dictionary
+	 */
+	public int findIgnoreCase(String value) {
+		if(value == null) {
+			return -1;
+		}
+		Integer id = idsIgnoreCase.get(value.toLowerCase());
+		return id == null ? -1 : id;
+	}
+
+	// get the String with the given id
+	public String get(int id) {
+		if(id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("Id " + id + " is out of bounds for a dictionary of size " + size);
+		}
+		return values[id];
+	}
+
+	// get the number of values in the dictionary
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets an ArrayList of every value in the dictionary, in id order
+	 * @return an ArrayList<String> of the values
+	 */
+	public ArrayList<String> values() {
+		int count = size;
+		String[] current = values;
+		ArrayList<String> list = new ArrayList<>(count);
+		for(int id = 0; id < count; id++) {
+			list.add(current[id]);
+		}
+		return list;
+	}
+}
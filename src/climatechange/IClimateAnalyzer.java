@@ -38,6 +38,22 @@ public interface IClimateAnalyzer {
 	 public ArrayList<ITemperature> allCountriesGetTop10HighestTemp();
 	 // TASK B-2
 	 // 1. the return list is sorted from lowest to highest temperature
+	 public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(int month, int k);
+	 // TASK B-1
+	 // 1. same as allCountriesGetTop10LowestTemp(month), for the top k countries instead of 10
+	 // 2. the return list is sorted from lowest to highest temperature
+	 public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(int month, int k);
+	 // TASK B-1
+	 // 1. same as allCountriesGetTop10HighestTemp(month), for the top k countries instead of 10
+	 // 2. the return list is sorted from lowest to highest temperature
+	 public ArrayList<ITemperature> allCountriesGetTopKLowestTemp(int k);
+	 // TASK B-2
+	 // 1. same as allCountriesGetTop10LowestTemp(), for the top k countries instead of 10
+	 // 2. the return list is sorted from lowest to highest temperature
+	 public ArrayList<ITemperature> allCountriesGetTopKHighestTemp(int k);
+	 // TASK B-2
+	 // 1. same as allCountriesGetTop10HighestTemp(), for the top k countries instead of 10
+	 // 2. the return list is sorted from lowest to highest temperature
 	 public ArrayList<ITemperature> allCountriesGetAllDataWithinTempRange(double lowRangeTemp, double highRangeTemp
 	 );
 	 // TASK B-3
@@ -46,6 +62,18 @@ public interface IClimateAnalyzer {
 	 // TASK C-1
 	 // 1. the countries with the largest temperature differences (absolute value)
 	 // 2. the return list is sorted from lowest to highest temperature delta
+	 public ArrayList<ITemperature> allCountriesTopKTempDelta(int month, int year1, int year2, int k);
+	 // TASK C-1
+	 // 1. same as allCountriesTop10TempDelta, for the top k countries instead of 10
+	 // 2. the return list is sorted from lowest to highest temperature delta
+	 public ArrayList<ITemperature> allCountriesTempDeltas(int month, int year1, int year2);
+	 // TASK C-1
+	 // 1. the temperature differences (absolute value) of every country in the given month
+	 // 2. the return list is sorted from lowest to highest temperature delta
+	 public ArrayList<ITemperature> allCountriesTempDeltasAllMonths(int year1, int year2);
+	 // TASK C-1
+	 // 1. the temperature differences (absolute value) of every country in every month
+	 // 2. the return list is sorted from lowest to highest temperature delta
 	 public void runClimateAnalyzer();
 	 // 1. This method starts the climate-change task activities
 	 // 2. The ClimateChange methods must be called in the order as listed in the [description section], (first with the Task A
@@ -53,4 +81,19 @@ public interface IClimateAnalyzer {
 	 // 3. For each of the ClimateChange methods that require input parameters, this method must ask the user to
 	 // enter the required information for each of the tasks.
 	 // 4. Each ClimateAnalyzer method returns data, so the data results must be written to data file
+	 public void setUnit(TemperatureUnit unit);
+	 // 1. the unit to give temperature ranges, and calculate temperature deltas, in
+	 // 2. readings are still compared in Celsius, the thresholds of a query are converted once before it runs
+	 public TemperatureUnit getUnit();
+	 // 1. the unit temperature ranges and deltas are in
+	 public void setFahrenheit(boolean getFahrenheit);
+	 // 1. true to give temperature ranges, and calculate temperature deltas, in Fahrenheit instead of Celsius
+	 public boolean isFahrenheit();
+	 // 1. whether temperature ranges and deltas are in Fahrenheit
+	 public long getDataVersion();
+	 // 1. the version of the loaded data, which changes every time readings are added
+	 // 2. results computed at one version may be reused until the version changes
+	 public ArrayList<ITemperature> getReadingsAddedSince(long dataVersion);
+	 // 1. the readings added since the data was at the given version, in the order they were added
+	 // 2. null if dataVersion is not a version of the data, then no result computed at that version can be reused
 }
@@ -0,0 +1,20 @@
+package climatechange;
+
+public interface ITemperatureKernels {
+	public int lowestIndex(double[] values, int fromIndex, int toIndex);
+	 // find the lowest value from fromIndex (inclusive) to toIndex (exclusive), as the scans of ClimateAnalyzer do
+	 // 1. returns the last index of the lowest value if several share it
+	 // 2. values above Double.MAX_VALUE and NaN are never the lowest, returns -1 if every value is one of them
+	 public int highestIndex(double[] values, int fromIndex, int toIndex);
+	 // find the highest value from fromIndex (inclusive) to toIndex (exclusive), as the scans of ClimateAnalyzer do
+	 // 1. returns the last index of the highest value if several share it
+	 // 2. NaN is never the highest, returns -1 if every value is NaN
+	 public int lowestIndex(short[] values, int fromIndex, int toIndex);
+	 // find the lowest value of a column in hundredths of a degree (see CentiDegrees), compared as integers
+	 // 1. returns the last index of the lowest value if several share it, or -1 if the range is empty
+	 public int highestIndex(short[] values, int fromIndex, int toIndex);
+	 // find the highest value of a column in hundredths of a degree (see CentiDegrees), compared as integers
+	 // 1. returns the last index of the highest value if several share it, or -1 if the range is empty
+	 public String getName();
+	 // get the name of the kernels, i.e scalar or vector with the number of lanes
+}
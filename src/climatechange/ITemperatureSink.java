@@ -0,0 +1,9 @@
+package climatechange;
+
+public interface ITemperatureSink {
+	public void add(double temperature, int year, int month, String country, String countryCode);
+	 // receives one temperature reading, in the order the readings appear in the data file
+	 // 1. temperature is in Celsius
+	 // 2. month is an integer between 1 and 12
+	 // 3. readers pass the same String instances for repeated country names and codes
+}
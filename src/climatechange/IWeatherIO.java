@@ -7,6 +7,29 @@ import java.util.*;
 public interface IWeatherIO {
 	public ArrayList<ITemperature> readDataFromFile(String fileName) throws FileNotFoundException;
 	 // read all data from the weather data file
+	 public ArrayList<ITemperature> readDataFromFileMapped(String fileName) throws IOException;
+	 // read all data from the weather data file through a memory-mapped buffer, without creating a String per field
+	 // 1. returns the same readings as readDataFromFile
+	 public void readDataFromFile(String fileName, ITemperatureSink sink) throws IOException;
+	 // read all data from the weather data file through a memory-mapped buffer, without creating a String per field
+	 // 1. each reading is passed to the sink in file order instead of being stored as an ITemperature object
+	 public void readDataFromFileParallel(String fileName, ITemperatureSink sink) throws IOException;
+	 // read all data from the weather data file by parsing line-aligned chunks of it on several threads at the same time
+	 // 1. each reading is passed to the sink in file order, as in readDataFromFile(fileName, sink)
+	 public long readDataFromFileTail(String fileName, long position, ITemperatureSink sink) throws IOException;
+	 // read the lines added to the end of the weather data file since the given position, i.e to follow a file that new readings are appended to
+	 // 1. each reading is passed to the sink in file order, as in readDataFromFile(fileName, sink)
+	 // 2. returns the position to pass to the next call, an incomplete last line is left for the next call
+	 // 3. throws an IOException if the file is shorter than the position, i.e it was truncated or replaced
+	 public void writeSnapshot(String snapshotFile, String sourceFile, TemperatureTable table) throws IOException;
+	 // write a binary snapshot of the parsed data
+	 // 1. the size, last-modified time and checksum of the source file are stored to detect stale snapshots
+	 public TemperatureSnapshot readSnapshot(String snapshotFile, String sourceFile, boolean verifyChecksum) throws IOException;
+	 // load a binary snapshot through a memory-mapped buffer
+	 // 1. returns null if the snapshot is missing, or stale for the given source file
+	 public void readSnapshot(String snapshotFile, ITemperatureSink sink) throws IOException;
+	 // pass every reading of a binary snapshot to the sink in row order, without loading its columns into memory
+	 // 1. the snapshot is not checked against its source file
 	 public void writeSubjectHeaderInFile(String filename, String subject);
 	 // 1. write the subject header before dumping data returned from each ClimateAnalyzer method
 	 // 2. a subject header is to be written for each ClimateAnalyzer method call
@@ -18,4 +41,7 @@ public interface IWeatherIO {
 	 // 3. temperature value should be formatted to use a maximum of 2 decimal places
 	 // 4. temperature field should also show the Fahrenheit value (using decimal rules above)
 	 // a) the temperature field should look like i.e. 21.34(C) 70.42(F)
+	 public ResultSink openResultSink();
+	 // 1. open a sink that writes the same output as writeSubjectHeaderInFile and writeDataToFile
+	 // 2. each file is kept open and buffered until the sink is closed
 }
@@ -0,0 +1,117 @@
+package climatechange;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+	//values below this are counted exactly, larger values share buckets with 64 buckets per power of 2 (under 1.6% error)
+	private static final int EXACT_BUCKETS = 128;
+	private static final int BUCKETS_PER_POWER = 64;
+
+	//enough buckets for every non-negative long value
+	private static final int BUCKET_COUNT = EXACT_BUCKETS + (63 - 6) * BUCKETS_PER_POWER;
+
+	private AtomicLongArray counts;
+
+	/**
+	 * (Constructor)
+	 * Creates an empty LatencyHistogram, which counts values (i.e latencies in nanoseconds) in log-linear buckets
+	 * like an HdrHistogram with 2 significant digits, so that percentiles can be read back with a fixed relative error
+	 * Values can be recorded from several threads at the same time
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKET_COUNT);
+	}
+
+	/**
+	 * Counts a value, negative values are counted as 0
+	 * @param value the value to count
+	 */
+	public void record(long value) {
+		counts.incrementAndGet(bucketOf(Math.max(value, 0)));
+	}
+
+	// get the number of values counted
+	public long getCount() {
+		long count = 0;
+		for(int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			count += counts.get(bucket);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the value at the given percentile, i.e getPercentile(99) for the p99 latency
+	 * The result is the highest value that shares a bucket with the value at the percentile, so it is never lower than it
+	 * @param percentile the percentile between 0 and 100
+	 * @return the value at the percentile, or 0 if no value was counted
+	 */
+	public long getPercentile(double percentile) {
+		long[] snapshot = new long[BUCKET_COUNT];
+		long count = 0;
+		for(int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			snapshot[bucket] = counts.get(bucket);
+			count += snapshot[bucket];
+		}
+		if(count == 0) {
+			return 0;
+		}
+
+		//the rank of the value at the percentile, between 1 and count
+		long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100.0 * count));
+		long seen = 0;
+		for(int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			seen += snapshot[bucket];
+			if(seen >= rank) {
+				return highestValueOf(bucket);
+			}
+		}
+		return highestValueOf(BUCKET_COUNT - 1);
+	}
+
+	// get the highest value counted, within the error of its bucket
+	public long getMax() {
+		for(int bucket = BUCKET_COUNT - 1; bucket >= 0; bucket--) {
+			if(counts.get(bucket) > 0) {
+				return highestValueOf(bucket);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Forgets every value counted so far
+	 */
+	public void reset() {
+		for(int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			counts.set(bucket, 0);
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the bucket of a non-negative value
+	 * Values from 128 up are split by the position of their highest bit, and then by the 6 bits below it
+	 */
+	static int bucketOf(long value) {
+		if(value < EXACT_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+		return EXACT_BUCKETS + (shift - 1) * BUCKETS_PER_POWER + (int) ((value >>> shift) - BUCKETS_PER_POWER);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the highest value that falls into the given bucket
+	 */
+	static long highestValueOf(int bucket) {
+		if(bucket < EXACT_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - EXACT_BUCKETS) / BUCKETS_PER_POWER + 1;
+		long subBucket = (bucket - EXACT_BUCKETS) % BUCKETS_PER_POWER + BUCKETS_PER_POWER;
+		if(shift == 57 && subBucket == 2 * BUCKETS_PER_POWER - 1) {
+			return Long.MAX_VALUE;
+		}
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,403 @@
+package climatechange;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+public class MappedCsvReader {
+	//the largest region of the file that is mapped at once (a MappedByteBuffer is indexed by int)
+	private static final long MAX_WINDOW = Integer.MAX_VALUE - 8;
+
+	//exact powers of ten, used to turn the digits of a temperature into a double with a single division
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	private ByteStringCache countries;
+	private ByteStringCache countryCodes;
+
+	//the buffer being parsed, and the field boundaries of the current line
+	private MappedByteBuffer buffer;
+	private int[] fieldStarts;
+	private int[] fieldEnds;
+
+	/**
+	 * (Constructor)
+	 * Creates a MappedCsvReader, which parses the weather data file straight from a memory-mapped buffer without creating
+	 * a String per field. Each distinct country name and code is turned into a String only once per reader.
+	 */
+	public MappedCsvReader() {
+		countries = new ByteStringCache();
+		countryCodes = new ByteStringCache();
+		fieldStarts = new int[5];
+		fieldEnds = new int[5];
+	}
+
+	/**
+	 * Reads every line of the given weather data file except the topic line, and passes each reading to the sink
+	 * @param fileName the directory/name of the file from which the data is read
+	 * @param sink the ITemperatureSink that receives the readings, in file order
+	 */
+	public void read(String fileName, ITemperatureSink sink) throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long start = dataStart(channel);
+			read(channel, start, channel.size(), sink);
+		}
+		catch(NoSuchFileException e) {
+			throw new FileNotFoundException(fileName + " (No such file or directory)");
+		}
+	}
+
+	/**
+	 * Gets the position of the first byte after the topic line (the first line) of the file
+	 * @param channel the open weather data file
+	 * @return the position of the first data line, or the size of the file if it has a single line
+	 */
+	public static long dataStart(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long position = 0;
+		while(position < size) {
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW, size - position));
+			for(int i = 0; i < window.limit(); i++) {
+				if(window.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += window.limit();
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the position after the last line break between the given positions of the file, so that a line that is still
+	 * being written to the end of the file is not parsed yet
+	 * @param channel the open weather data file
+	 * @param from the position to search from
+	 * @param to the position to search back from, i.e the size of the file
+	 * @return the position after the last line break, or from if there is no line break between the positions
+	 */
+	public static long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+		long end = to;
+		while(end > from) {
+			long start = Math.max(from, end - window.capacity());
+			window.clear().limit((int) (end - start));
+			//a single read may return fewer bytes than asked for, so reads until the window is full or the file ends
+			while(window.hasRemaining()) {
+				if(channel.read(window, start + window.position()) < 0) {
+					break;
+				}
+			}
+			for(int i = window.position() - 1; i >= 0; i--) {
+				if(window.get(i) == '\n') {
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return from;
+	}
+
+	/**
+	 * Parses every line between the given positions of the file and passes each reading to the sink
+	 * Lines are mapped in windows of at most 2GB, each of them ending at a line break
+	 * @param channel the open weather data file
+	 * @param start the position of the first byte of the first line to parse
+	 * @param end the position after the last byte to parse
+	 * @param sink the ITemperatureSink that receives the readings, in file order
+	 */
+	public void read(FileChannel channel, long start, long end, ITemperatureSink sink) throws IOException {
+		long position = start;
+		while(position < end) {
+			long length = Math.min(MAX_WINDOW, end - position);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			int limit = (int) length;
+
+			//unless this window reaches the end, it is cut back to its last line break so that no line is split
+			if(position + length < end) {
+				while(limit > 0 && buffer.get(limit - 1) != '\n') {
+					limit--;
+				}
+				if(limit == 0) {
+					throw new IOException("Line starting at byte " + position + " is longer than " + MAX_WINDOW + " bytes");
+				}
+			}
+			parseLines(limit, sink);
+			position += limit;
+		}
+		buffer = null;
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Parses every line of the current buffer up to the given limit
+	 */
+	private void parseLines(int limit, ITemperatureSink sink) {
+		int lineStart = 0;
+		while(lineStart < limit) {
+			int lineEnd = lineStart;
+			while(lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			parseLine(lineStart, lineEnd, sink);
+			lineStart = lineEnd + 1;
+		}
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Parses the line between the given positions of the current buffer, i.e "1.62425, 2000, Jan, Afghanistan, AFG"
+	 * Blank lines are skipped
+	 */
+	private void parseLine(int from, int to, ITemperatureSink sink) {
+		if(to > from && buffer.get(to - 1) == '\r') {
+			to--;
+		}
+		if(isBlank(from, to)) {
+			return;
+		}
+
+		//finds the boundaries of the five comma delimited fields, without surrounding spaces
+		int field = 0;
+		int fieldStart = from;
+		for(int i = from; i <= to && field < 5; i++) {
+			if(i == to || buffer.get(i) == ',') {
+				fieldStarts[field] = fieldStart;
+				fieldEnds[field] = i;
+				trim(field);
+				field++;
+				fieldStart = i + 1;
+			}
+		}
+		if(field < 5) {
+			throw new IllegalArgumentException("Expected 5 fields in line: " + text(from, to));
+		}
+
+		double temperature = parseDouble(fieldStarts[0], fieldEnds[0]);
+		int year = parseInt(fieldStarts[1], fieldEnds[1]);
+		int month = parseMonth(fieldStarts[2], fieldEnds[2]);
+		String country = countries.get(buffer, fieldStarts[3], fieldEnds[3]);
+		String countryCode = countryCodes.get(buffer, fieldStarts[4], fieldEnds[4]);
+		sink.add(temperature, year, month, country, countryCode);
+	}
+
+	/**
+	 * (Helper Method for parseLine)
+	 * Moves the boundaries of the given field inwards past any spaces or tabs
+	 */
+	private void trim(int field) {
+		while(fieldStarts[field] < fieldEnds[field] && isSpace(buffer.get(fieldStarts[field]))) {
+			fieldStarts[field]++;
+		}
+		while(fieldEnds[field] > fieldStarts[field] && isSpace(buffer.get(fieldEnds[field] - 1))) {
+			fieldEnds[field]--;
+		}
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	private boolean isBlank(int from, int to) {
+		for(int i = from; i < to; i++) {
+			if(!isSpace(buffer.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * (Helper Method for parseLine)
+	 * Parses a decimal number such as -12.345 from the bytes between the given positions
+	 * The digits are accumulated into a long and divided once by an exact power of ten. Both are exact doubles, so the
+	 * division gives the same result as Double.parseDouble. Numbers with an exponent or more than 15 significant digits
+	 * are handed to Double.parseDouble instead.
+	 */
+	private double parseDouble(int from, int to) {
+		int i = from;
+		boolean negative = false;
+		if(i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean seenDigit = false;
+		boolean seenPoint = false;
+		for(; i < to; i++) {
+			byte b = buffer.get(i);
+			if(b >= '0' && b <= '9') {
+				if(digits == 15) {
+					return Double.parseDouble(text(from, to));
+				}
+				seenDigit = true;
+				mantissa = mantissa * 10 + (b - '0');
+				if(mantissa != 0) {
+					digits++;
+				}
+				if(seenPoint) {
+					fractionDigits++;
+				}
+			}
+			else if(b == '.' && !seenPoint) {
+				seenPoint = true;
+			}
+			else {
+				return Double.parseDouble(text(from, to)); //exponents, NaN, Infinity or malformed numbers
+			}
+		}
+		if(!seenDigit || fractionDigits >= POWERS_OF_TEN.length) {
+			return Double.parseDouble(text(from, to));
+		}
+		double value = mantissa / POWERS_OF_TEN[fractionDigits];
+		return negative ? -value : value;
+	}
+
+	/**
+	 * (Helper Method for parseLine)
+	 * Parses a whole number such as 2000 from the bytes between the given positions
+	 */
+	private int parseInt(int from, int to) {
+		int i = from;
+		boolean negative = false;
+		if(i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+		if(i == to || to - i > 9) {
+			return Integer.parseInt(text(from, to));
+		}
+		int value = 0;
+		for(; i < to; i++) {
+			byte b = buffer.get(i);
+			if(b < '0' || b > '9') {
+				return Integer.parseInt(text(from, to));
+			}
+			value = value * 10 + (b - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * (Helper Method for parseLine)
+	 * Parses the first 3 letters of a month, such as Jan, from the bytes between the given positions
+	 * @return the month as an integer between 1 and 12
+	 */
+	private int parseMonth(int from, int to) {
+		if(to - from == 3) {
+			int packed = (buffer.get(from) << 16) | (buffer.get(from + 1) << 8) | buffer.get(from + 2);
+			switch(packed) {
+				case ('J' << 16) | ('a' << 8) | 'n': return 1;
+				case ('F' << 16) | ('e' << 8) | 'b': return 2;
+				case ('M' << 16) | ('a' << 8) | 'r': return 3;
+				case ('A' << 16) | ('p' << 8) | 'r': return 4;
+				case ('M' << 16) | ('a' << 8) | 'y': return 5;
+				case ('J' << 16) | ('u' << 8) | 'n': return 6;
+				case ('J' << 16) | ('u' << 8) | 'l': return 7;
+				case ('A' << 16) | ('u' << 8) | 'g': return 8;
+				case ('S' << 16) | ('e' << 8) | 'p': return 9;
+				case ('O' << 16) | ('c' << 8) | 't': return 10;
+				case ('N' << 16) | ('o' << 8) | 'v': return 11;
+				case ('D' << 16) | ('e' << 8) | 'c': return 12;
+				default: break;
+			}
+		}
+		throw new IllegalArgumentException("Unrecognized month: " + text(from, to));
+	}
+
+	/**
+	 * (Helper Method)
+	 * Decodes the bytes between the given positions as a String, used only for error messages and fallbacks
+	 */
+	private String text(int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for(int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Turns byte ranges into Strings, creating each distinct String only once
+	 * The last String returned is checked first, since the readings of a country are usually next to each other in the file
+	 */
+	private static class ByteStringCache {
+		private byte[][] keys = new byte[256][];
+		private String[] values = new String[256];
+		private int count = 0;
+		private byte[] lastKey = null;
+		private String lastValue = null;
+
+		String get(MappedByteBuffer buffer, int from, int to) {
+			if(lastKey != null && matches(lastKey, buffer, from, to)) {
+				return lastValue;
+			}
+			int hash = 1;
+			for(int i = from; i < to; i++) {
+				hash = 31 * hash + buffer.get(i);
+			}
+			int mask = keys.length - 1;
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while(keys[slot] != null) {
+				if(matches(keys[slot], buffer, from, to)) {
+					lastKey = keys[slot];
+					lastValue = values[slot];
+					return lastValue;
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			byte[] key = new byte[to - from];
+			for(int i = 0; i < key.length; i++) {
+				key[i] = buffer.get(from + i);
+			}
+			String value = new String(key, StandardCharsets.UTF_8);
+			keys[slot] = key;
+			values[slot] = value;
+			count++;
+			if(count * 2 > keys.length) {
+				resize();
+			}
+			lastKey = key;
+			lastValue = value;
+			return value;
+		}
+
+		private static boolean matches(byte[] key, MappedByteBuffer buffer, int from, int to) {
+			if(key.length != to - from) {
+				return false;
+			}
+			for(int i = 0; i < key.length; i++) {
+				if(key[i] != buffer.get(from + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void resize() {
+			byte[][] oldKeys = keys;
+			String[] oldValues = values;
+			keys = new byte[oldKeys.length * 2][];
+			values = new String[oldValues.length * 2];
+			int mask = keys.length - 1;
+			for(int i = 0; i < oldKeys.length; i++) {
+				if(oldKeys[i] != null) {
+					int hash = 1;
+					for(byte b: oldKeys[i]) {
+						hash = 31 * hash + b;
+					}
+					int slot = (hash ^ (hash >>> 16)) & mask;
+					while(keys[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+	}
+}
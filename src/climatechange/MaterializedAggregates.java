@@ -0,0 +1,316 @@
+package climatechange;
+import java.util.*;
+
+public class MaterializedAggregates {
+	private static final int MONTHS = 12;
+
+	private TemperatureTable table;
+
+	//the number of countries covered by the groups
+	private int countryCount;
+
+	//the first year and the number of years covered by the (country, year) groups, which may include years without readings
+	private int firstYear;
+	private int yearCount;
+
+	//one group per country, per (country, month) and per (country, year)
+	private Groups byCountry;
+	private Groups byMonth;
+	private Groups byYear;
+
+	/**
+	 * The aggregates of every group of one kind, stored column by column like TemperatureTable
+	 */
+	private static class Groups {
+		//the rows of the lowest and highest reading of each group, or -1 if the group is empty
+		int[] lowestRows;
+		int[] highestRows;
+		double[] lowest;
+		double[] highest;
+		int[] counts;
+		double[] sums;
+
+		Groups(int size) {
+			lowestRows = new int[size];
+			highestRows = new int[size];
+			lowest = new double[size];
+			highest = new double[size];
+			counts = new int[size];
+			sums = new double[size];
+			clear(0, size);
+		}
+
+		/**
+		 * Makes room for at least the given number of groups, doubling the arrays so that growing one group at a time
+		 * stays linear, and leaves the new groups empty
+		 */
+		void grow(int size) {
+			int length = counts.length;
+			if(size <= length) {
+				return;
+			}
+			int newLength = Math.max(size, 2 * length);
+			lowestRows = Arrays.copyOf(lowestRows, newLength);
+			highestRows = Arrays.copyOf(highestRows, newLength);
+			lowest = Arrays.copyOf(lowest, newLength);
+			highest = Arrays.copyOf(highest, newLength);
+			counts = Arrays.copyOf(counts, newLength);
+			sums = Arrays.copyOf(sums, newLength);
+			clear(length, newLength);
+		}
+
+		/**
+		 * Copies count groups of the given Groups, starting at fromGroup, into these groups starting at toGroup
+		 */
+		void copy(Groups from, int fromGroup, int toGroup, int count) {
+			System.arraycopy(from.lowestRows, fromGroup, lowestRows, toGroup, count);
+			System.arraycopy(from.highestRows, fromGroup, highestRows, toGroup, count);
+			System.arraycopy(from.lowest, fromGroup, lowest, toGroup, count);
+			System.arraycopy(from.highest, fromGroup, highest, toGroup, count);
+			System.arraycopy(from.counts, fromGroup, counts, toGroup, count);
+			System.arraycopy(from.sums, fromGroup, sums, toGroup, count);
+		}
+
+		// empty the groups from fromGroup (inclusive) to toGroup (exclusive), which are then counted as 0 readings
+		private void clear(int fromGroup, int toGroup) {
+			Arrays.fill(lowestRows, fromGroup, toGroup, -1);
+			Arrays.fill(highestRows, fromGroup, toGroup, -1);
+			Arrays.fill(lowest, fromGroup, toGroup, Double.MAX_VALUE);
+			Arrays.fill(highest, fromGroup, toGroup, Double.NEGATIVE_INFINITY);
+		}
+
+		/**
+		 * Adds a reading to the given group
+		 * Like the scans of ClimateAnalyzer, a later row with the same lowest or highest temperature replaces the earlier one
+		 */
+		void add(int group, int row, double temperature) {
+			if(temperature <= lowest[group]) {
+				lowest[group] = temperature;
+				lowestRows[group] = row;
+			}
+			if(temperature >= highest[group]) {
+				highest[group] = temperature;
+				highestRows[group] = row;
+			}
+			counts[group]++;
+			sums[group] += temperature;
+		}
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates the MaterializedAggregates of the given table, i.e the lowest and highest reading, the number of readings and
+	 * the sum of their temperatures for every country, every (country, month) and every (country, year)
+	 * Once built, the Task A-1, A-2 and A-4 lookups read a single group instead of scanning the table
+	 * The groups are kept in dense arrays, so they cost getMemoryBytes() bytes, about 36 bytes per group
+	 * @param table the TemperatureTable to aggregate
+	 */
+	public MaterializedAggregates(TemperatureTable table) {
+		this.table = table;
+		build();
+	}
+
+	/**
+	 * (Helper Method for the constructor)
+	 * Sizes the groups for the countries and years currently in the table, and adds every row of the table to them
+	 */
+	private void build() {
+		short[] years = table.yearColumn();
+		int size = table.size();
+		int minYear = 0;
+		int maxYear = -1;
+		if(size > 0) {
+			minYear = Integer.MAX_VALUE;
+			maxYear = Integer.MIN_VALUE;
+			for(int row = 0; row < size; row++) {
+				minYear = Math.min(minYear, years[row]);
+				maxYear = Math.max(maxYear, years[row]);
+			}
+		}
+		firstYear = minYear;
+		yearCount = maxYear - minYear + 1;
+
+		countryCount = table.getCountryCount();
+		byCountry = new Groups(countryCount);
+		byMonth = new Groups(countryCount * MONTHS);
+		byYear = new Groups(countryCount * yearCount);
+		for(int row = 0; row < size; row++) {
+			addToGroups(row);
+		}
+	}
+
+	/**
+	 * Adds the given row of the table to the aggregates, i.e after it was appended to the table
+	 * If the row has a country or year the groups do not cover yet, the groups grow to cover it, keeping every group
+	 * they already hold, so each row is only ever added once
+	 * @param row the row to add
+	 */
+	public void add(int row) {
+		if(table.getCountryId(row) >= countryCount) {
+			addCountries(table.getCountryCount());
+		}
+		int year = table.getYear(row);
+		if(year < firstYear || year >= firstYear + yearCount) {
+			addYears(year);
+		}
+		addToGroups(row);
+	}
+
+	/**
+	 * (Helper Method for add)
+	 * Adds empty groups for the countries of the table that are not covered yet
+	 * Country ids are numbered in order, so the groups of a new country go after those of every other country
+	 * @param countries the number of countries to cover
+	 */
+	private void addCountries(int countries) {
+		byCountry.grow(countries);
+		byMonth.grow(countries * MONTHS);
+		byYear.grow(countries * yearCount);
+		countryCount = countries;
+	}
+
+	/**
+	 * (Helper Method for add)
+	 * Widens the years covered by the (country, year) groups to include the given year, moving the groups of every country
+	 * The range at least doubles, so that appending readings year after year only moves the groups a few times
+	 * @param year the year to cover
+	 */
+	private void addYears(int year) {
+		int newFirstYear;
+		int newYearCount;
+		if(yearCount == 0) {
+			newFirstYear = year;
+			newYearCount = 1;
+		}
+		else if(year < firstYear) {
+			newFirstYear = Math.min(year, firstYear - yearCount);
+			newYearCount = firstYear + yearCount - newFirstYear;
+		}
+		else {
+			newFirstYear = firstYear;
+			newYearCount = Math.max(year - firstYear + 1, 2 * yearCount);
+		}
+
+		Groups newByYear = new Groups(countryCount * newYearCount);
+		for(int countryId = 0; countryId < countryCount && yearCount > 0; countryId++) {
+			newByYear.copy(byYear, countryId * yearCount, countryId * newYearCount + firstYear - newFirstYear, yearCount);
+		}
+		byYear = newByYear;
+		firstYear = newFirstYear;
+		yearCount = newYearCount;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Adds the given row to its country, (country, month) and (country, year) groups
+	 */
+	private void addToGroups(int row) {
+		int countryId = table.getCountryId(row);
+		double temperature = table.getTemperature(row);
+		byCountry.add(countryId, row, temperature);
+		byMonth.add(countryId * MONTHS + table.getMonth(row) - 1, row, temperature);
+		byYear.add(countryId * yearCount + table.getYear(row) - firstYear, row, temperature);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the groups of the given kind: by country if month and year are both 0, by (country, month) if year is 0
+	 * and by (country, year) if month is 0
+	 */
+	private Groups groupsOf(int month, int year) {
+		if(month != 0 && year != 0) {
+			throw new IllegalArgumentException("Only one of month and year can be given, but got month " + month + " and year " + year);
+		}
+		return month != 0 ? byMonth : year != 0 ? byYear : byCountry;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the index of the group of the given country and, if not 0, month or year, or -1 if no group covers them
+	 */
+	private int groupOf(int countryId, int month, int year) {
+		if(countryId < 0 || countryId >= countryCount) {
+			return -1;
+		}
+		if(month != 0) {
+			return month >= 1 && month <= MONTHS ? countryId * MONTHS + month - 1 : -1;
+		}
+		if(year != 0) {
+			return year >= firstYear && year < firstYear + yearCount ? countryId * yearCount + year - firstYear : -1;
+		}
+		return countryId;
+	}
+
+	/**
+	 * Gets the row with the lowest temperature of the given country and, if not 0, month or year
+	 * If several rows share the lowest temperature, the last one is returned
+	 * @param countryId the id of the country in the table
+	 * @param month the month between 1 and 12, or 0 for every month
+	 * @param year the year, or 0 for every year (at most one of month and year can be given)
+	 * @return the row of the lowest temperature, or -1 if there is no such reading
+	 */
+	public int lowestRow(int countryId, int month, int year) {
+		Groups groups = groupsOf(month, year);
+		int group = groupOf(countryId, month, year);
+		return group < 0 ? -1 : groups.lowestRows[group];
+	}
+
+	/**
+	 * Gets the row with the highest temperature of the given country and, if not 0, month or year
+	 * If several rows share the highest temperature, the last one is returned
+	 * @param countryId the id of the country in the table
+	 * @param month the month between 1 and 12, or 0 for every month
+	 * @param year the year, or 0 for every year (at most one of month and year can be given)
+	 * @return the row of the highest temperature, or -1 if there is no such reading
+	 */
+	public int highestRow(int countryId, int month, int year) {
+		Groups groups = groupsOf(month, year);
+		int group = groupOf(countryId, month, year);
+		return group < 0 ? -1 : groups.highestRows[group];
+	}
+
+	/**
+	 * Gets the number of readings of the given country and, if not 0, month or year
+	 * @param countryId the id of the country in the table
+	 * @param month the month between 1 and 12, or 0 for every month
+	 * @param year the year, or 0 for every year (at most one of month and year can be given)
+	 * @return the number of readings
+	 */
+	public int getCount(int countryId, int month, int year) {
+		Groups groups = groupsOf(month, year);
+		int group = groupOf(countryId, month, year);
+		return group < 0 ? 0 : groups.counts[group];
+	}
+
+	/**
+	 * Gets the sum of the temperatures in Celsius of the given country and, if not 0, month or year
+	 * @param countryId the id of the country in the table
+	 * @param month the month between 1 and 12, or 0 for every month
+	 * @param year the year, or 0 for every year (at most one of month and year can be given)
+	 * @return the sum of the temperatures
+	 */
+	public double getSum(int countryId, int month, int year) {
+		Groups groups = groupsOf(month, year);
+		int group = groupOf(countryId, month, year);
+		return group < 0 ? 0 : groups.sums[group];
+	}
+
+	/**
+	 * Gets the average temperature in Celsius of the given country and, if not 0, month or year
+	 * @return the average temperature, or NaN if there is no such reading
+	 */
+	public double getMean(int countryId, int month, int year) {
+		int count = getCount(countryId, month, year);
+		return count == 0 ? Double.NaN : getSum(countryId, month, year) / count;
+	}
+
+	// get the number of groups of every kind together
+	public int size() {
+		return countryCount * (1 + MONTHS + yearCount);
+	}
+
+	// get the memory taken by the groups, in bytes (3 int and 3 double columns, 36 bytes per group, plus the array headers)
+	public long getMemoryBytes() {
+		return 36L * (byCountry.counts.length + byMonth.counts.length + byYear.counts.length) + 3 * 6 * 16;
+	}
+}
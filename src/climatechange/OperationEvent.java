@@ -0,0 +1,30 @@
+package climatechange;
+import jdk.jfr.*;
+
+/**
+ * A Java Flight Recorder event committed by AnalyzerMetrics for every recorded operation,
+ * so that Task A/B/C queries, index builds and WeatherIO reads/writes show up in a flight recording
+ * It is only created and filled in while a recording has the climatechange.Operation event enabled
+ */
+@Name("climatechange.Operation")
+@Label("Climate Analyzer Operation")
+@Category("Climate Analyzer")
+@Description("A ClimateAnalyzer query, index build or WeatherIO read/write")
+class OperationEvent extends Event {
+	@Label("Operation")
+	String operation;
+
+	@Label("Latency")
+	@Timespan(Timespan.NANOSECONDS)
+	long latency;
+
+	@Label("Rows Scanned")
+	long rowsScanned;
+
+	@Label("Rows Returned")
+	long rowsReturned;
+
+	@Label("Allocated")
+	@DataAmount
+	long allocated;
+}
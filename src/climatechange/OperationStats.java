@@ -0,0 +1,109 @@
+package climatechange;
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationStats {
+	private String name;
+	private LongAdder count;
+	private LongAdder totalNanos;
+	private LongAdder rowsScanned;
+	private LongAdder rowsReturned;
+	private LongAdder allocatedBytes;
+	private LatencyHistogram latencies;
+
+	/**
+	 * (Constructor)
+	 * Creates the empty statistics of one operation, i.e a Task A/B/C method, an index build or a WeatherIO read/write
+	 * @param name the name of the operation
+	 */
+	public OperationStats(String name) {
+		this.name = name;
+		count = new LongAdder();
+		totalNanos = new LongAdder();
+		rowsScanned = new LongAdder();
+		rowsReturned = new LongAdder();
+		allocatedBytes = new LongAdder();
+		latencies = new LatencyHistogram();
+	}
+
+	/**
+	 * Records one call of the operation
+	 * @param nanos the latency of the call in nanoseconds
+	 * @param scanned the number of rows the call read
+	 * @param returned the number of rows the call returned or wrote
+	 * @param allocated the number of bytes the call allocated, or 0 if it was not measured
+	 */
+	public void record(long nanos, long scanned, long returned, long allocated) {
+		count.increment();
+		totalNanos.add(nanos);
+		rowsScanned.add(scanned);
+		rowsReturned.add(returned);
+		allocatedBytes.add(allocated);
+		latencies.record(nanos);
+	}
+
+	// get the name of the operation
+	public String getName() {
+		return name;
+	}
+
+	// get the number of calls
+	public long getCount() {
+		return count.sum();
+	}
+
+	// get the total latency of every call in nanoseconds
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	// get the average latency of a call in nanoseconds
+	public double getMeanNanos() {
+		long calls = getCount();
+		return calls == 0 ? 0 : (double) getTotalNanos() / calls;
+	}
+
+	// get the latency at the given percentile (0-100) in nanoseconds, i.e getPercentileNanos(99) for p99
+	public long getPercentileNanos(double percentile) {
+		return latencies.getPercentile(percentile);
+	}
+
+	// get the highest latency in nanoseconds
+	public long getMaxNanos() {
+		return latencies.getMax();
+	}
+
+	// get the total number of rows read by every call
+	public long getRowsScanned() {
+		return rowsScanned.sum();
+	}
+
+	// get the total number of rows returned or written by every call
+	public long getRowsReturned() {
+		return rowsReturned.sum();
+	}
+
+	// get the total number of bytes allocated by every call
+	public long getAllocatedBytes() {
+		return allocatedBytes.sum();
+	}
+
+	/**
+	 * Forgets every call recorded so far
+	 */
+	public void reset() {
+		count.reset();
+		totalNanos.reset();
+		rowsScanned.reset();
+		rowsReturned.reset();
+		allocatedBytes.reset();
+		latencies.reset();
+	}
+
+	//returns a String when OperationStats values are printed, with latencies in microseconds
+	public String toString() {
+		long calls = getCount();
+		return String.format("%-44s count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus rowsScanned/op=%d rowsReturned/op=%d bytes/op=%d",
+				name, calls, getMeanNanos() / 1000, getPercentileNanos(50) / 1000.0, getPercentileNanos(99) / 1000.0, getMaxNanos() / 1000.0,
+				calls == 0 ? 0 : getRowsScanned() / calls, calls == 0 ? 0 : getRowsReturned() / calls, calls == 0 ? 0 : getAllocatedBytes() / calls);
+	}
+}
@@ -0,0 +1,158 @@
+package climatechange;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class ParallelCsvReader {
+	private int threads;
+	private long chunkSize;
+
+	/**
+	 * (Constructor)
+	 * Creates a ParallelCsvReader, which splits the weather data file into line-aligned chunks,
+	 * parses them concurrently with MappedCsvReader and merges the readings back in file order
+	 * @param threads the number of threads parsing chunks at the same time
+	 * @param chunkSize the approximate size of each chunk in bytes
+	 */
+	public ParallelCsvReader(int threads, long chunkSize) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1, but was " + threads);
+		}
+		if(chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be at least 1, but was " + chunkSize);
+		}
+		this.threads = threads;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Reads every line of the given weather data file except the topic line, and passes each reading to the sink in file order
+	 * If the sink is a TemperatureTable, each parsed chunk is appended to it column by column
+	 * @param fileName the directory/name of the file from which the data is read
+	 * @param sink the ITemperatureSink that receives the readings
+	 */
+	public void read(String fileName, ITemperatureSink sink) throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ArrayList<Long> boundaries = chunkBoundaries(channel);
+
+			//a single chunk is parsed on the calling thread
+			if(boundaries.size() <= 2) {
+				new MappedCsvReader().read(channel, boundaries.get(0), boundaries.get(boundaries.size() - 1), sink);
+				return;
+			}
+
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				//at most 2 chunks per thread are parsed ahead of the merge, so memory stays bounded however large the file is
+				int chunkCount = boundaries.size() - 1;
+				int ahead = 2 * threads;
+				ArrayList<Future<TemperatureTable>> chunks = new ArrayList<>();
+				for(int i = 0; i < Math.min(ahead, chunkCount); i++) {
+					chunks.add(parse(pool, channel, boundaries, i));
+				}
+
+				//merges each chunk as soon as it and every chunk before it are parsed, so that the file order is kept
+				for(int i = 0; i < chunkCount; i++) {
+					TemperatureTable chunk = chunks.get(i).get();
+					chunks.set(i, null);
+					if(i + ahead < chunkCount) {
+						chunks.add(parse(pool, channel, boundaries, i + ahead));
+					}
+					merge(chunk, sink);
+				}
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while reading " + fileName);
+			}
+			catch(ExecutionException e) {
+				Throwable cause = e.getCause();
+				if(cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if(cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new IOException(cause);
+			}
+			finally {
+				pool.shutdownNow();
+			}
+		}
+		catch(NoSuchFileException e) {
+			throw new FileNotFoundException(fileName + " (No such file or directory)");
+		}
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Submits the parsing of the given chunk of the file into its own TemperatureTable
+	 */
+	private static Future<TemperatureTable> parse(ForkJoinPool pool, FileChannel channel, ArrayList<Long> boundaries, int index) {
+		long start = boundaries.get(index);
+		long end = boundaries.get(index + 1);
+		return pool.submit(() -> {
+			TemperatureTable chunk = new TemperatureTable();
+			new MappedCsvReader().read(channel, start, end, chunk);
+			return chunk;
+		});
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Splits the data lines of the file into chunks of about chunkSize bytes, each of them ending right after a line break
+	 * @return the start of every chunk followed by the end of the file
+	 */
+	private ArrayList<Long> chunkBoundaries(FileChannel channel) throws IOException {
+		ArrayList<Long> boundaries = new ArrayList<>();
+		long size = channel.size();
+		long position = MappedCsvReader.dataStart(channel);
+		boundaries.add(position);
+
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while(size - position > chunkSize) {
+			//moves from the tentative boundary to the byte after the next line break
+			long next = position + chunkSize;
+			long found = -1;
+			while(found < 0 && next < size) {
+				buffer.clear();
+				int read = channel.read(buffer, next);
+				if(read <= 0) {
+					break;
+				}
+				for(int i = 0; i < read; i++) {
+					if(buffer.get(i) == '\n') {
+						found = next + i + 1;
+						break;
+					}
+				}
+				next += read;
+			}
+			if(found < 0 || found >= size) {
+				break;
+			}
+			boundaries.add(found);
+			position = found;
+		}
+		boundaries.add(size);
+		return boundaries;
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Passes every reading of a parsed chunk to the sink
+	 */
+	private static void merge(TemperatureTable chunk, ITemperatureSink sink) {
+		if(sink instanceof TemperatureTable) {
+			((TemperatureTable) sink).addAll(chunk);
+			return;
+		}
+		for(int row = 0; row < chunk.size(); row++) {
+			int countryId = chunk.getCountryId(row);
+			sink.add(chunk.getTemperature(row), chunk.getYear(row), chunk.getMonth(row), chunk.getCountryName(countryId), chunk.getCountryCode(countryId));
+		}
+	}
+}
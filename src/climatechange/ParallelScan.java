@@ -0,0 +1,117 @@
+package climatechange;
+import java.util.concurrent.*;
+
+public class ParallelScan {
+	//the fewest rows a task scans, below which splitting costs more than it saves
+	private static final int MIN_ROWS_PER_TASK = 1 << 14;
+
+	private int parallelism;
+	private ForkJoinPool pool;
+
+	/**
+	 * A scan of a range of rows into a partial result, and the merge of the partial results of two adjacent ranges
+	 * @param <T> the type of the partial result
+	 */
+	public interface Scan<T> {
+		/**
+		 * Scans the rows from one row (inclusive) to another (exclusive)
+		 * @return the partial result of the rows
+		 */
+		T scan(int fromRow, int toRow);
+
+		/**
+		 * Merges the partial results of two adjacent ranges, where every row of left comes before every row of right,
+		 * so that ties are broken as by a single scan in increasing row order (i.e the right one wins for the last row)
+		 * @return the partial result of both ranges
+		 */
+		T merge(T left, T right);
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates a ParallelScan that splits the scans of a table into ranges of rows run on a ForkJoinPool of its own
+	 * Partial results are always merged from left to right in row order, whatever order the tasks finish in,
+	 * so the result only depends on the rows and never on the scheduling of the threads
+	 * @param parallelism the number of threads, or 1 to scan sequentially on the calling thread
+	 */
+	public ParallelScan(int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1, but was " + parallelism);
+		}
+		this.parallelism = parallelism;
+		if(parallelism > 1) {
+			pool = new ForkJoinPool(parallelism);
+		}
+	}
+
+	// get the number of threads of the scans
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Scans the rows from 0 to size, split into ranges scanned in parallel if there are enough of them
+	 * @param size the number of rows
+	 * @param scan the Scan of a range and the merge of two partial results
+	 * @return the merged result of every range
+	 */
+	public <T> T run(int size, Scan<T> scan) {
+		return run(size, size, scan);
+	}
+
+	/**
+	 * Scans the rows from 0 to size of which only the given number are read, i.e the rows of a RowBitmap,
+	 * split into as many ranges as the rows read are worth, or on the calling thread if they are few
+	 * @param size the number of rows
+	 * @param selected the number of rows the scan reads
+	 * @param scan the Scan of a range and the merge of two partial results
+	 * @return the merged result of every range
+	 */
+	public <T> T run(int size, int selected, Scan<T> scan) {
+		if(pool == null || selected < 2 * MIN_ROWS_PER_TASK) {
+			return scan.scan(0, size);
+		}
+		//a few ranges per thread, so that a thread that finishes early takes over the work of a slower one
+		int tasks = Math.min(parallelism * 4, selected / MIN_ROWS_PER_TASK);
+		return pool.invoke(new ScanTask<>(scan, 0, size, size / tasks + 1));
+	}
+
+	/**
+	 * Stops the threads of the scans, once the ParallelScan is no longer used
+	 */
+	public void shutdown() {
+		if(pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A range of rows, split in two halves until it has at most rowsPerTask rows
+	 */
+	private static class ScanTask<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = 1L;
+
+		private Scan<T> scan;
+		private int fromRow;
+		private int toRow;
+		private int rowsPerTask;
+
+		ScanTask(Scan<T> scan, int fromRow, int toRow, int rowsPerTask) {
+			this.scan = scan;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.rowsPerTask = rowsPerTask;
+		}
+
+		protected T compute() {
+			if(toRow - fromRow <= rowsPerTask) {
+				return scan.scan(fromRow, toRow);
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			ScanTask<T> left = new ScanTask<>(scan, fromRow, middle, rowsPerTask);
+			left.fork();
+			T right = new ScanTask<>(scan, middle, toRow, rowsPerTask).compute();
+			return scan.merge(left.join(), right);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package climatechange;
+import java.util.*;
+import java.util.function.Predicate;
+
+public class ResultCache {
+	//estimated heap cost of one cached entry (its key, map entry and result container) and of each reading in a result
+	static final long BYTES_PER_ENTRY = 160;
+	static final long BYTES_PER_READING = 72;
+
+	private int maxEntries;
+	private long maxBytes;
+	private long bytes;
+
+	//the cached results in least-recently-used order, the eldest entry is evicted first
+	private LinkedHashMap<List<Object>, Entry> entries;
+
+	//the data version the cached results were computed at
+	private long version;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	//a cached result and its estimated size in bytes
+	private static class Entry {
+		Object result;
+		long bytes;
+
+		Entry(Object result, long bytes) {
+			this.result = result;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates an empty ResultCache that holds at most maxEntries results and at most about maxBytes bytes of results,
+	 * evicting the least recently used results first
+	 * @param maxEntries the largest number of cached results
+	 * @param maxBytes the largest estimated size of every cached result together, in bytes
+	 */
+	public ResultCache(int maxEntries, long maxBytes) {
+		if(maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be at least 1, but was " + maxEntries);
+		}
+		if(maxBytes < 1) {
+			throw new IllegalArgumentException("maxBytes must be at least 1, but was " + maxBytes);
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets the cached result of the given key, if it was computed at the given data version
+	 * If the version has changed since the results were cached, and invalidate was not called with the new version,
+	 * every result is dropped first
+	 * @param key the method and parameters of the query
+	 * @param dataVersion the current version of the data
+	 * @return the cached result, or null on a miss
+	 */
+	public synchronized Object get(List<Object> key, long dataVersion) {
+		invalidateIfStale(dataVersion);
+		Entry entry = dataVersion == version ? entries.get(key) : null;
+		if(entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.result;
+	}
+
+	/**
+	 * Caches the result of the given key, evicting the least recently used results while the cache is over its bounds
+	 * A result larger than maxBytes on its own, or computed at a different data version than the cached results, is not cached
+	 * @param key the method and parameters of the query
+	 * @param dataVersion the version of the data the result was computed at
+	 * @param result the result of the query
+	 * @param readings the number of readings in the result, used to estimate its size
+	 */
+	public synchronized void put(List<Object> key, long dataVersion, Object result, int readings) {
+		if(dataVersion != version) {
+			return;
+		}
+		long size = BYTES_PER_ENTRY + BYTES_PER_READING * readings;
+		if(size > maxBytes) {
+			return;
+		}
+		Entry previous = entries.put(key, new Entry(result, size));
+		if(previous != null) {
+			bytes -= previous.bytes;
+		}
+		bytes += size;
+
+		Iterator<Entry> eldest = entries.values().iterator();
+		while(entries.size() > maxEntries || bytes > maxBytes) {
+			bytes -= eldest.next().bytes;
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Drops the cached results the data changes up to the given version can change, and keeps every other result
+	 * at the new version, i.e the results of the countries, months and years the readings added to the data are not of
+	 * @param dataVersion the new version of the data
+	 * @param stale checks whether the data changes can change the result of a key
+	 */
+	public synchronized void invalidate(long dataVersion, Predicate<List<Object>> stale) {
+		if(dataVersion <= version) {
+			return;
+		}
+		Iterator<Map.Entry<List<Object>, Entry>> iterator = entries.entrySet().iterator();
+		while(iterator.hasNext()) {
+			Map.Entry<List<Object>, Entry> entry = iterator.next();
+			if(stale.test(entry.getKey())) {
+				bytes -= entry.getValue().bytes;
+				iterator.remove();
+				invalidations++;
+			}
+		}
+		version = dataVersion;
+	}
+
+	/**
+	 * Drops every cached result
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Drops every cached result if they were computed at an older data version than the given one
+	 * Data versions only increase, so a lookup made with an older version than the cached results just misses
+	 */
+	private void invalidateIfStale(long dataVersion) {
+		if(dataVersion > version) {
+			invalidations += entries.size();
+			clear();
+			version = dataVersion;
+		}
+	}
+
+	// get the number of cached results
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	// get the estimated size of every cached result together, in bytes
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	// get the number of lookups that found a cached result
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	// get the number of lookups that did not find a cached result
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	// get the number of results evicted to stay within the bounds
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	// get the data version the cached results were computed at
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	// get the number of cached results dropped because the data changed
+	public synchronized long getInvalidations() {
+		return invalidations;
+	}
+
+	// get the share of lookups that found a cached result, between 0 and 1
+	public synchronized double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	//returns a String when ResultCache values are printed
+	public synchronized String toString() {
+		return String.format("ResultCache: entries=%d/%d bytes=%d/%d hits=%d misses=%d hitRate=%.3f evictions=%d invalidations=%d",
+				entries.size(), maxEntries, bytes, maxBytes, hits, misses, getHitRate(), evictions, invalidations);
+	}
+}
@@ -0,0 +1,223 @@
+package climatechange;
+import java.io.*;
+import java.util.*;
+
+public class ResultSink implements Closeable {
+	//the size of each file's write buffer
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	//values of at least this many hundredths are written in scientific notation by Double.toString, so they are not formatted here
+	private static final long LARGEST_PLAIN_HUNDREDTHS = 1_000_000_000L;
+
+	//every task file written so far, kept open until the sink is closed
+	private HashMap<String, Writer> files;
+
+	//reusable buffer that each output line is formatted into
+	private char[] line;
+
+	//records the latency and rows of every write
+	private AnalyzerMetrics metrics;
+
+	/**
+	 * (Constructor)
+	 * Creates a ResultSink that writes the results of ClimateAnalyzer tasks in the same format as
+	 * WeatherIO.writeSubjectHeaderInFile and WeatherIO.writeDataToFile, but keeps each file open and buffered across calls
+	 * Nothing is guaranteed to be on disk until flush or close is called
+	 */
+	public ResultSink() {
+		this(new AnalyzerMetrics());
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates a ResultSink like ResultSink(), which records every write in the given AnalyzerMetrics
+	 * @param metrics the AnalyzerMetrics of the WeatherIO that opened the sink
+	 */
+	public ResultSink(AnalyzerMetrics metrics) {
+		files = new HashMap<>();
+		line = new char[256];
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Writes the subject header for a ClimateAnalyzer method call, appending it to the given file
+	 * @param filename the directory/name of the task file
+	 * @param subject the subject header
+	 */
+	public void writeSubjectHeaderInFile(String filename, String subject) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.writeSubjectHeaderInFile");
+		Writer out = fileFor(filename);
+		out.write(subject);
+		out.write(System.lineSeparator());
+		timer.stop(0, 1);
+	}
+
+	/**
+	 * Writes the given ArrayList<ITemperature> returned from a ClimateAnalyzer task in csv format, appending it to the given file
+	 * Each ITemperature object is written in one row, with both Celsius and Fahrenheit rounded to a maximum of 2 decimal places
+	 * @param filename the directory/name of the task file
+	 * @param topic the header for each value
+	 * @param theWeatherList the returned ArrayList<ITemperature> from a ClimateAnalyzer task
+	 */
+	public void writeDataToFile(String filename, String topic, ArrayList<ITemperature> theWeatherList) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.writeDataToFile");
+		Writer out = fileFor(filename);
+		out.write(topic);
+		out.write(System.lineSeparator());
+		for(ITemperature c: theWeatherList) {
+			int length = formatRow(c);
+			out.write(line, 0, length);
+		}
+		timer.stop(theWeatherList.size(), theWeatherList.size());
+	}
+
+	/**
+	 * Writes everything buffered so far to the files
+	 */
+	public void flush() throws IOException {
+		for(Writer out: files.values()) {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Flushes and closes every file of the sink
+	 * Every file is closed even if one of them fails, and the first failure is thrown
+	 */
+	public void close() throws IOException {
+		IOException failure = null;
+		for(Writer out: files.values()) {
+			try {
+				out.close();
+			}
+			catch(IOException e) {
+				if(failure == null) {
+					failure = e;
+				}
+			}
+		}
+		files.clear();
+		if(failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the open writer of the given file, opening it in append mode the first time it is used
+	 */
+	private Writer fileFor(String filename) throws IOException {
+		Writer out = files.get(filename);
+		if(out == null) {
+			out = new BufferedWriter(new FileWriter(filename, true), BUFFER_SIZE);
+			files.put(filename, out);
+		}
+		return out;
+	}
+
+	/**
+	 * (Helper Method for writeDataToFile)
+	 * Formats one row as "celsius(C) fahrenheit(F),year,month,country,code" followed by a line break into the line buffer
+	 * @return the number of characters of the row
+	 */
+	private int formatRow(ITemperature c) {
+		String month = c.getMonth();
+		String country = c.getCountry();
+		String code = c.getCountry3LetterCode();
+		String separator = System.lineSeparator();
+		int needed = 2 * 32 + 12 + month.length() + country.length() + code.length() + separator.length() + 8;
+		if(line.length < needed) {
+			line = new char[needed * 2];
+		}
+
+		int length = 0;
+		if(c instanceof Temperature && ((Temperature) c).isCentiDegrees()) {
+			//a reading in hundredths of a degree is formatted straight from its integer values, without rounding
+			int centiDegrees = ((Temperature) c).getCentiDegrees();
+			length = formatHundredths(centiDegrees, length);
+			length = append("(C) ", length);
+			length = formatHundredths(CentiDegrees.toCentiFahrenheit(centiDegrees), length);
+		}
+		else {
+			length = formatHundredths(Math.round(c.getTemperature(false) * 100.0), length);
+			length = append("(C) ", length);
+			length = formatHundredths(Math.round(c.getTemperature(true) * 100.0), length);
+		}
+		length = append("(F),", length);
+		length = formatLong(c.getYear(), length);
+		line[length++] = ',';
+		length = append(month, length);
+		line[length++] = ',';
+		length = append(country, length);
+		line[length++] = ',';
+		length = append(code, length);
+		return append(separator, length);
+	}
+
+	/**
+	 * (Helper Method for formatRow)
+	 * Writes a number of hundredths into the line buffer exactly as Double.toString(hundredths / 100.0) would,
+	 * i.e 2150 as "21.5", 2105 as "21.05" and 2100 as "21.0", without creating a String
+	 * @param hundredths the value multiplied by 100 and rounded, as by Math.round(value * 100.0)
+	 * @param length the number of characters already in the line buffer
+	 * @return the number of characters in the line buffer after the value
+	 */
+	private int formatHundredths(long hundredths, int length) {
+		if(hundredths >= LARGEST_PLAIN_HUNDREDTHS || hundredths <= -LARGEST_PLAIN_HUNDREDTHS) {
+			return append(Double.toString(hundredths / 100.0), length);
+		}
+		if(hundredths < 0) {
+			line[length++] = '-';
+			hundredths = -hundredths;
+		}
+		length = formatLong(hundredths / 100, length);
+		line[length++] = '.';
+		int fraction = (int) (hundredths % 100);
+		line[length++] = (char) ('0' + fraction / 10);
+		if(fraction % 10 != 0) {
+			line[length++] = (char) ('0' + fraction % 10);
+		}
+		return length;
+	}
+
+	/**
+	 * (Helper Method for formatRow)
+	 * Writes the digits of a non-negative number, or of a negative number preceded by '-', into the line buffer
+	 * @return the number of characters in the line buffer after the number
+	 */
+	private int formatLong(long value, int length) {
+		if(value < 0) {
+			if(value == Long.MIN_VALUE) {
+				return append(Long.toString(value), length);
+			}
+			line[length++] = '-';
+			value = -value;
+		}
+		int start = length;
+		do {
+			line[length++] = (char) ('0' + value % 10);
+			value /= 10;
+		} while(value != 0);
+
+		//the digits were written from the lowest, so they are reversed in place
+		for(int i = start, j = length - 1; i < j; i++, j--) {
+			char swap = line[i];
+			line[i] = line[j];
+			line[j] = swap;
+		}
+		return length;
+	}
+
+	/**
+	 * (Helper Method for formatRow)
+	 * Copies a String into the line buffer, growing the buffer if needed
+	 * @return the number of characters in the line buffer after the String
+	 */
+	private int append(String value, int length) {
+		if(length + value.length() > line.length) {
+			line = Arrays.copyOf(line, (length + value.length()) * 2);
+		}
+		value.getChars(0, value.length(), line, length);
+		return length + value.length();
+	}
+}
@@ -0,0 +1,468 @@
+package climatechange;
+import java.util.*;
+
+public class RowBitmap {
+	//a container holds the rows that share their upper 16 bits, as a sorted array while it has at most ARRAY_LIMIT rows
+	//and as a bitmap of 65536 bits once it has more, as in a Roaring bitmap
+	private static final int ARRAY_LIMIT = 4096;
+	private static final int BITMAP_WORDS = 1024;
+
+	//the upper 16 bits of the rows of each container, in increasing order, and the containers themselves
+	private char[] keys;
+	private Container[] containers;
+	private int containerCount;
+
+	/**
+	 * The rows of one container, by their lower 16 bits
+	 */
+	private static class Container {
+		//the sorted values while the container is an array, or null once it is a bitmap
+		char[] values;
+		//the bits of the values once the container is a bitmap, or null while it is an array
+		long[] words;
+		int cardinality;
+
+		Container(char[] values, long[] words, int cardinality) {
+			this.values = values;
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		// check whether the container holds the given value
+		boolean contains(int value) {
+			if(words != null) {
+				return (words[value >>> 6] & (1L << value)) != 0;
+			}
+			return Arrays.binarySearch(values, 0, cardinality, (char) value) >= 0;
+		}
+
+		/**
+		 * Adds a value to the container, turning it into a bitmap once it holds more than ARRAY_LIMIT values
+		 */
+		void add(int value) {
+			if(words != null) {
+				long bit = 1L << value;
+				if((words[value >>> 6] & bit) == 0) {
+					words[value >>> 6] |= bit;
+					cardinality++;
+				}
+				return;
+			}
+			//rows are usually added in increasing order, so the value usually goes at the end
+			int index = cardinality > 0 && values[cardinality - 1] < value ? -cardinality - 1 : Arrays.binarySearch(values, 0, cardinality, (char) value);
+			if(index >= 0) {
+				return;
+			}
+			index = -index - 1;
+			if(cardinality == ARRAY_LIMIT) {
+				toBitmap();
+				add(value);
+				return;
+			}
+			if(cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, values.length * 2));
+			}
+			System.arraycopy(values, index, values, index + 1, cardinality - index);
+			values[index] = (char) value;
+			cardinality++;
+		}
+
+		/**
+		 * (Helper Method for add)
+		 * Turns an array container into a bitmap container
+		 */
+		void toBitmap() {
+			words = new long[BITMAP_WORDS];
+			for(int i = 0; i < cardinality; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			values = null;
+		}
+
+		/**
+		 * Gets the first value of the container that is greater than or equal to the given value
+		 * @return the value, or -1 if there is none
+		 */
+		int next(int value) {
+			if(words != null) {
+				int word = value >>> 6;
+				if(word >= BITMAP_WORDS) {
+					return -1;
+				}
+				long bits = words[word] & (-1L << value);
+				while(bits == 0) {
+					if(++word == BITMAP_WORDS) {
+						return -1;
+					}
+					bits = words[word];
+				}
+				return word * 64 + Long.numberOfTrailingZeros(bits);
+			}
+			int index = Arrays.binarySearch(values, 0, cardinality, (char) value);
+			if(index < 0) {
+				index = -index - 1;
+			}
+			return index < cardinality ? values[index] : -1;
+		}
+
+		/**
+		 * Gets the end (exclusive) of the run of consecutive values that starts at the given value of the container
+		 * @return the first value after the run, which is 65536 if the run reaches the end of the container
+		 */
+		int runEnd(int value) {
+			if(words != null) {
+				int word = value >>> 6;
+				long gaps = ~words[word] & (-1L << value);
+				while(gaps == 0) {
+					if(++word == BITMAP_WORDS) {
+						return 1 << 16;
+					}
+					gaps = ~words[word];
+				}
+				return word * 64 + Long.numberOfTrailingZeros(gaps);
+			}
+			int index = Arrays.binarySearch(values, 0, cardinality, (char) value);
+			while(index + 1 < cardinality && values[index + 1] == values[index] + 1) {
+				index++;
+			}
+			return values[index] + 1;
+		}
+
+		// get the memory taken by the container, in bytes
+		long getMemoryBytes() {
+			return words != null ? 8L * BITMAP_WORDS : 2L * values.length;
+		}
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates an empty RowBitmap, a compressed set of rows of a TemperatureTable in the style of a Roaring bitmap
+	 * Sparse runs of rows are stored as sorted 16-bit arrays and dense ones as plain bitmaps, so a bitmap of every row
+	 * of one country or one month takes far less memory than an int per row, and two of them are intersected
+	 * or united container by container
+	 */
+	public RowBitmap() {
+		keys = new char[4];
+		containers = new Container[4];
+		containerCount = 0;
+	}
+
+	/**
+	 * Adds a row to the bitmap
+	 * Adding rows in increasing order, as the rows of a table are added, is the fastest
+	 * @param row the row, which must not be negative
+	 */
+	public void add(int row) {
+		if(row < 0) {
+			throw new IllegalArgumentException("row must not be negative, but was " + row);
+		}
+		char key = (char) (row >>> 16);
+		int index = containerCount > 0 && keys[containerCount - 1] == key ? containerCount - 1 : indexOf(key);
+		if(index < 0) {
+			index = -index - 1;
+			insertContainer(index, key, new Container(new char[4], null, 0));
+		}
+		containers[index].add(row & 0xFFFF);
+	}
+
+	/**
+	 * Checks whether the bitmap holds the given row
+	 * @param row the row
+	 * @return true if the row is in the bitmap
+	 */
+	public boolean contains(int row) {
+		if(row < 0) {
+			return false;
+		}
+		int index = indexOf((char) (row >>> 16));
+		return index >= 0 && containers[index].contains(row & 0xFFFF);
+	}
+
+	/**
+	 * Gets the first row of the bitmap that is greater than or equal to the given row, so that the rows of the bitmap
+	 * are visited in increasing order with for(int row = bitmap.next(0); row >= 0; row = bitmap.next(row + 1))
+	 * @param row the row to start from
+	 * @return the first row of the bitmap from the given row on, or -1 if there is none
+	 */
+	public int next(int row) {
+		if(row < 0) {
+			row = 0;
+		}
+		int index = indexOf((char) (row >>> 16));
+		int value = row & 0xFFFF;
+		if(index < 0) {
+			index = -index - 1;
+			value = 0;
+		}
+		for(; index < containerCount; index++) {
+			int found = containers[index].next(value);
+			if(found >= 0) {
+				return (keys[index] << 16) | found;
+			}
+			value = 0;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the end of the run of consecutive rows of the bitmap that starts at the given row, so that the rows
+	 * are visited as ranges, i.e to hand a whole range of a column to an ITemperatureKernels at once
+	 * @param row a row of the bitmap
+	 * @return the first row after the run (exclusive), or the given row itself if it is not in the bitmap
+	 */
+	public int runEnd(int row) {
+		int index = row < 0 ? -1 : indexOf((char) (row >>> 16));
+		if(index < 0 || !containers[index].contains(row & 0xFFFF)) {
+			return row;
+		}
+		while(true) {
+			int end = (keys[index] << 16) + containers[index].runEnd(row & 0xFFFF);
+			//a run that fills the end of its container goes on if the next container starts with the next row
+			if((end & 0xFFFF) != 0 || index + 1 == containerCount || keys[index + 1] != keys[index] + 1 || !containers[index + 1].contains(0)) {
+				return end;
+			}
+			index++;
+			row = end;
+		}
+	}
+
+	// get the number of rows in the bitmap
+	public int getCardinality() {
+		int cardinality = 0;
+		for(int i = 0; i < containerCount; i++) {
+			cardinality += containers[i].cardinality;
+		}
+		return cardinality;
+	}
+
+	// check whether the bitmap holds no row
+	public boolean isEmpty() {
+		return getCardinality() == 0;
+	}
+
+	// get the memory taken by the bitmap, in bytes
+	public long getMemoryBytes() {
+		long bytes = 2L * keys.length + 8L * containers.length;
+		for(int i = 0; i < containerCount; i++) {
+			bytes += containers[i].getMemoryBytes() + 32;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gets every row of the bitmap, in increasing order
+	 * @return an int[] with the rows
+	 */
+	public int[] toArray() {
+		int[] rows = new int[getCardinality()];
+		int count = 0;
+		for(int row = next(0); row >= 0; row = next(row + 1)) {
+			rows[count++] = row;
+		}
+		return rows;
+	}
+
+	/**
+	 * Gets the rows that are in both this bitmap and the given one
+	 * @param other the other RowBitmap
+	 * @return a new RowBitmap with the intersection
+	 */
+	public RowBitmap and(RowBitmap other) {
+		RowBitmap result = new RowBitmap();
+		int i = 0;
+		int j = 0;
+		while(i < containerCount && j < other.containerCount) {
+			if(keys[i] < other.keys[j]) {
+				i++;
+			}
+			else if(keys[i] > other.keys[j]) {
+				j++;
+			}
+			else {
+				Container container = and(containers[i], other.containers[j]);
+				if(container.cardinality > 0) {
+					result.insertContainer(result.containerCount, keys[i], container);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the rows that are in this bitmap, the given one or both
+	 * @param other the other RowBitmap
+	 * @return a new RowBitmap with the union
+	 */
+	public RowBitmap or(RowBitmap other) {
+		RowBitmap result = new RowBitmap();
+		int i = 0;
+		int j = 0;
+		while(i < containerCount || j < other.containerCount) {
+			if(j == other.containerCount || (i < containerCount && keys[i] < other.keys[j])) {
+				result.insertContainer(result.containerCount, keys[i], copy(containers[i]));
+				i++;
+			}
+			else if(i == containerCount || keys[i] > other.keys[j]) {
+				result.insertContainer(result.containerCount, other.keys[j], copy(other.containers[j]));
+				j++;
+			}
+			else {
+				result.insertContainer(result.containerCount, keys[i], or(containers[i], other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * (Helper Method for and)
+	 * Intersects two containers, merging two arrays, filtering an array by a bitmap, or ANDing two bitmaps word by word
+	 */
+	private static Container and(Container a, Container b) {
+		if(a.words != null && b.words != null) {
+			long[] words = new long[BITMAP_WORDS];
+			int cardinality = 0;
+			for(int w = 0; w < BITMAP_WORDS; w++) {
+				words[w] = a.words[w] & b.words[w];
+				cardinality += Long.bitCount(words[w]);
+			}
+			Container container = new Container(null, words, cardinality);
+			return cardinality <= ARRAY_LIMIT ? toArray(container) : container;
+		}
+		if(a.words != null) {
+			Container swap = a;
+			a = b;
+			b = swap;
+		}
+		//a is an array, so the intersection is at most as large as a and is always an array
+		char[] values = new char[Math.max(a.cardinality, 1)];
+		int cardinality = 0;
+		if(b.words != null) {
+			for(int i = 0; i < a.cardinality; i++) {
+				if(b.contains(a.values[i])) {
+					values[cardinality++] = a.values[i];
+				}
+			}
+		}
+		else {
+			int i = 0;
+			int j = 0;
+			while(i < a.cardinality && j < b.cardinality) {
+				if(a.values[i] < b.values[j]) {
+					i++;
+				}
+				else if(a.values[i] > b.values[j]) {
+					j++;
+				}
+				else {
+					values[cardinality++] = a.values[i];
+					i++;
+					j++;
+				}
+			}
+		}
+		return new Container(values, null, cardinality);
+	}
+
+	/**
+	 * (Helper Method for or)
+	 * Unites two containers, merging two arrays or ORing into a bitmap once the union can exceed ARRAY_LIMIT values
+	 */
+	private static Container or(Container a, Container b) {
+		if(a.words == null && b.words == null && a.cardinality + b.cardinality <= ARRAY_LIMIT) {
+			char[] values = new char[Math.max(a.cardinality + b.cardinality, 1)];
+			int cardinality = 0;
+			int i = 0;
+			int j = 0;
+			while(i < a.cardinality || j < b.cardinality) {
+				if(j == b.cardinality || (i < a.cardinality && a.values[i] < b.values[j])) {
+					values[cardinality++] = a.values[i++];
+				}
+				else if(i == a.cardinality || a.values[i] > b.values[j]) {
+					values[cardinality++] = b.values[j++];
+				}
+				else {
+					values[cardinality++] = a.values[i];
+					i++;
+					j++;
+				}
+			}
+			return new Container(values, null, cardinality);
+		}
+		long[] words = new long[BITMAP_WORDS];
+		for(Container container: new Container[] {a, b}) {
+			if(container.words != null) {
+				for(int w = 0; w < BITMAP_WORDS; w++) {
+					words[w] |= container.words[w];
+				}
+			}
+			else {
+				for(int i = 0; i < container.cardinality; i++) {
+					words[container.values[i] >>> 6] |= 1L << container.values[i];
+				}
+			}
+		}
+		int cardinality = 0;
+		for(int w = 0; w < BITMAP_WORDS; w++) {
+			cardinality += Long.bitCount(words[w]);
+		}
+		Container container = new Container(null, words, cardinality);
+		return cardinality <= ARRAY_LIMIT ? toArray(container) : container;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Turns a bitmap container with at most ARRAY_LIMIT values back into an array container
+	 */
+	private static Container toArray(Container container) {
+		char[] values = new char[Math.max(container.cardinality, 1)];
+		int count = 0;
+		for(int w = 0; w < BITMAP_WORDS; w++) {
+			long bits = container.words[w];
+			while(bits != 0) {
+				values[count++] = (char) (w * 64 + Long.numberOfTrailingZeros(bits));
+				bits &= bits - 1;
+			}
+		}
+		return new Container(values, null, container.cardinality);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Copies a container, so that the result of or never shares a container with its inputs
+	 */
+	private static Container copy(Container container) {
+		if(container.words != null) {
+			return new Container(null, container.words.clone(), container.cardinality);
+		}
+		return new Container(Arrays.copyOf(container.values, Math.max(container.cardinality, 1)), null, container.cardinality);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Finds the container with the given key with a binary search
+	 * @return the index of the container, or -(insertion point) - 1 if there is none
+	 */
+	private int indexOf(char key) {
+		return Arrays.binarySearch(keys, 0, containerCount, key);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Inserts a container at the given index, keeping the keys in increasing order
+	 */
+	private void insertContainer(int index, char key, Container container) {
+		if(containerCount == keys.length) {
+			keys = Arrays.copyOf(keys, keys.length * 2);
+			containers = Arrays.copyOf(containers, containers.length * 2);
+		}
+		System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+		System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+		keys[index] = key;
+		containers[index] = container;
+		containerCount++;
+	}
+}
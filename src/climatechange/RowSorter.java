@@ -0,0 +1,241 @@
+package climatechange;
+import java.util.*;
+
+public class RowSorter {
+
+	/**
+	 * Gets every row of the given table, sorted in the same order as Temperature.compareTo
+	 * Each row is given two primitive keys, so rows are compared without creating any objects or comparing any Strings
+	 * @param table the TemperatureTable to sort
+	 * @return the rows of the table, arranged from low to high
+	 */
+	public static int[] sort(TemperatureTable table) {
+		int size = table.size();
+		int[] countryRanks = rankCountries(table);
+		long[] primary = new long[size];
+		long[] secondary = new long[size];
+		int[] rows = new int[size];
+		double[] temperatures = table.temperatureColumn();
+		short[] years = table.yearColumn();
+		byte[] months = table.monthColumn();
+		int[] countries = table.countryColumn();
+		for(int row = 0; row < size; row++) {
+			rows[row] = row;
+			primary[row] = temperatureKey(temperatures != null ? temperatures[row] : table.getTemperature(row));
+			secondary[row] = secondaryKey(countryRanks[countries[row]], years[row], months[row]);
+		}
+		mergeSort(rows, primary, secondary);
+		return rows;
+	}
+
+	/**
+	 * Merges rows appended to the given table into rows of the table that are already sorted, i.e the rows of a
+	 * SortedTemperatureIndex, in the same order as Temperature.compareTo
+	 * Only the new rows are sorted, so merging m rows into n sorted rows takes O(n + m log m) instead of sorting them again
+	 * @param table the TemperatureTable of the rows
+	 * @param countryRanks the rank of every country id of the table by name, from rankCountries(table)
+	 * @param sortedRows rows of the table, sorted in the same order as Temperature.compareTo
+	 * @param newRows rows of the table that are not in sortedRows, in any order
+	 * @return a new array with the rows of both, arranged from low to high
+	 */
+	static int[] merge(TemperatureTable table, int[] countryRanks, int[] sortedRows, int[] newRows) {
+		double[] temperatures = table.temperatureColumn();
+		short[] years = table.yearColumn();
+		byte[] months = table.monthColumn();
+		int[] countries = table.countryColumn();
+
+		//sorts the new rows by their keys, as in sort(table)
+		int count = newRows.length;
+		long[] primary = new long[count];
+		long[] secondary = new long[count];
+		int[] items = new int[count];
+		for(int i = 0; i < count; i++) {
+			int row = newRows[i];
+			items[i] = i;
+			primary[i] = temperatureKey(temperatures != null ? temperatures[row] : table.getTemperature(row));
+			secondary[i] = secondaryKey(countryRanks[countries[row]], years[row], months[row]);
+		}
+		mergeSort(items, primary, secondary);
+
+		//merges both, the keys of the sorted rows are computed as they are reached, and they come first on equal keys
+		int[] merged = new int[sortedRows.length + count];
+		int left = 0;
+		int right = 0;
+		int out = 0;
+		while(left < sortedRows.length && right < count) {
+			int row = sortedRows[left];
+			long leftPrimary = temperatureKey(temperatures != null ? temperatures[row] : table.getTemperature(row));
+			int item = items[right];
+			if(primary[item] < leftPrimary || (primary[item] == leftPrimary
+					&& secondary[item] < secondaryKey(countryRanks[countries[row]], years[row], months[row]))) {
+				merged[out++] = newRows[item];
+				right++;
+			}
+			else {
+				merged[out++] = row;
+				left++;
+			}
+		}
+		while(left < sortedRows.length) {
+			merged[out++] = sortedRows[left++];
+		}
+		while(right < count) {
+			merged[out++] = newRows[items[right++]];
+		}
+		return merged;
+	}
+
+	/**
+	 * Ranks the countries of the given table by name, as used by merge
+	 * @param table the TemperatureTable of the countries
+	 * @return the rank of every country id of the table
+	 */
+	static int[] rankCountries(TemperatureTable table) {
+		return rankCountries(table.getCountryNames(), table.getCountryCount());
+	}
+
+	/**
+	 * Sorts the given list in the same order as Temperature.compareTo, i.e the results of ClimateAnalyzer
+	 * Temperature objects are sorted by their primitive keys, any other ITemperature falls back to Collections.sort
+	 * @param list the ArrayList<ITemperature> to sort in place
+	 */
+	public static void sort(ArrayList<ITemperature> list) {
+		int size = list.size();
+		for(ITemperature t: list) {
+			if(!(t instanceof Temperature)) {
+				Collections.sort(list);
+				return;
+			}
+		}
+
+		//every country of the list is given an id in a dictionary of the list's own countries, which is ranked once by name
+		Dictionary countries = new Dictionary();
+		int[] countryIds = new int[size];
+		String lastCountry = null;
+		int lastCountryId = -1;
+		for(int i = 0; i < size; i++) {
+			String country = list.get(i).getCountry();
+			if(country != lastCountry) {
+				lastCountryId = countries.intern(country);
+				lastCountry = country;
+			}
+			countryIds[i] = lastCountryId;
+		}
+		int[] countryRanks = rankCountries(countries.values(), countries.size());
+		long[] primary = new long[size];
+		long[] secondary = new long[size];
+		int[] items = new int[size];
+		for(int i = 0; i < size; i++) {
+			Temperature t = (Temperature) list.get(i);
+			items[i] = i;
+			primary[i] = t.getTemperatureKey();
+			secondary[i] = ((long) countryRanks[countryIds[i]] << 36) | t.getYearMonthKey();
+		}
+		mergeSort(items, primary, secondary);
+
+		ITemperature[] sorted = new ITemperature[size];
+		for(int i = 0; i < size; i++) {
+			sorted[i] = list.get(items[i]);
+		}
+		for(int i = 0; i < size; i++) {
+			list.set(i, sorted[i]);
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Turns a temperature into a long that orders the same way as Double.compare
+	 * The bits of negative values are flipped so that the long comparison of any two keys matches the order of their temperatures
+	 * @param temperature the temperature
+	 * @return the sort key of the temperature
+	 */
+	static long temperatureKey(double temperature) {
+		long bits = Double.doubleToLongBits(temperature);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Packs a year and a month between 0 and 15 into a long that orders by year, then month
+	 * @param year the year
+	 * @param month the month as an integer
+	 * @return the sort key of the year and month, which uses the lowest 36 bits
+	 */
+	static long yearMonthKey(int year, int month) {
+		return ((year - (long) Integer.MIN_VALUE) << 4) | month;
+	}
+
+	/**
+	 * (Helper Method for sort)
+	 * Packs the rank of the country by name, the year and the month of a row into a long that orders by all three
+	 */
+	private static long secondaryKey(int countryRank, int year, int month) {
+		return ((long) countryRank << 36) | yearMonthKey(year, month);
+	}
+
+	/**
+	 * (Helper Method for sort)
+	 * Ranks the given countries by name, so that they can be ordered without comparing Strings
+	 * @param names the name of every country id
+	 * @param count the number of country ids to rank
+	 * @return the rank of every country id
+	 */
+	private static int[] rankCountries(ArrayList<String> names, int count) {
+		String[] sortedNames = new String[count];
+		for(int id = 0; id < count; id++) {
+			sortedNames[id] = names.get(id);
+		}
+		Arrays.sort(sortedNames);
+		int[] ranks = new int[count];
+		for(int id = 0; id < count; id++) {
+			ranks[id] = Arrays.binarySearch(sortedNames, names.get(id)); //names are unique, so the search finds the only match
+		}
+		return ranks;
+	}
+
+	/**
+	 * (Helper Method for sort)
+	 * Sorts the items by their primary key, then their secondary key, with a stable bottom-up merge sort
+	 * @param items the indexes into the key arrays, sorted in place
+	 * @param primary the primary key of every index
+	 * @param secondary the secondary key of every index
+	 */
+	private static void mergeSort(int[] items, long[] primary, long[] secondary) {
+		int size = items.length;
+		int[] source = items;
+		int[] target = new int[size];
+		for(int width = 1; width < size; width *= 2) {
+			for(int from = 0; from < size; from += 2 * width) {
+				int middle = Math.min(from + width, size);
+				int to = Math.min(from + 2 * width, size);
+				int left = from;
+				int right = middle;
+				int out = from;
+				while(left < middle && right < to) {
+					int a = source[left];
+					int b = source[right];
+					if(primary[b] < primary[a] || (primary[b] == primary[a] && secondary[b] < secondary[a])) {
+						target[out++] = b;
+						right++;
+					}
+					else {
+						target[out++] = a;
+						left++;
+					}
+				}
+				while(left < middle) {
+					target[out++] = source[left++];
+				}
+				while(right < to) {
+					target[out++] = source[right++];
+				}
+			}
+			int[] swap = source;
+			source = target;
+			target = swap;
+		}
+		if(source != items) {
+			System.arraycopy(source, 0, items, 0, size);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package climatechange;
+
+public class ScalarKernels implements ITemperatureKernels {
+	//the class of the Vector API kernels, in the vector source folder, and the module it needs
+	private static final String VECTOR_KERNELS = "climatechange.VectorKernels";
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+	/**
+	 * (Constructor)
+	 * Creates the scalar kernels, one comparison per value, which run on every JVM
+	 */
+	public ScalarKernels() {
+	}
+
+	/**
+	 * Gets the fastest kernels this JVM can run, i.e the Vector API kernels when the vector source folder is compiled
+	 * and the JVM is started with --add-modules jdk.incubator.vector, or the scalar kernels otherwise
+	 * With -Dclimatechange.kernels=scalar, the scalar kernels are used even when the vector kernels can run
+	 * @return the ITemperatureKernels to use
+	 */
+	public static ITemperatureKernels select() {
+		if(!"scalar".equals(System.getProperty("climatechange.kernels"))) {
+			ITemperatureKernels vector = vector();
+			if(vector != null) {
+				return vector;
+			}
+		}
+		return new ScalarKernels();
+	}
+
+	/**
+	 * Gets the Vector API kernels, which are loaded by name so that this class compiles and runs without them
+	 * @return the vector ITemperatureKernels, or null if the module or the class is not available
+	 */
+	public static ITemperatureKernels vector() {
+		if(!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+			return null;
+		}
+		try {
+			return (ITemperatureKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException | LinkageError e) {
+			return null; //the vector source folder was not compiled, or cannot run on this JVM
+		}
+	}
+
+	public int lowestIndex(double[] values, int fromIndex, int toIndex) {
+		double minValue = Double.MAX_VALUE;
+		int lowest = -1;
+		for(int i = fromIndex; i < toIndex; i++) {
+			if(values[i] <= minValue) {
+				minValue = values[i];
+				lowest = i;
+			}
+		}
+		return lowest;
+	}
+
+	public int highestIndex(double[] values, int fromIndex, int toIndex) {
+		double maxValue = Double.NEGATIVE_INFINITY;
+		int highest = -1;
+		for(int i = fromIndex; i < toIndex; i++) {
+			if(values[i] >= maxValue) {
+				maxValue = values[i];
+				highest = i;
+			}
+		}
+		return highest;
+	}
+
+	public int lowestIndex(short[] values, int fromIndex, int toIndex) {
+		int minValue = Short.MAX_VALUE;
+		int lowest = -1;
+		for(int i = fromIndex; i < toIndex; i++) {
+			if(values[i] <= minValue) {
+				minValue = values[i];
+				lowest = i;
+			}
+		}
+		return lowest;
+	}
+
+	public int highestIndex(short[] values, int fromIndex, int toIndex) {
+		int maxValue = Short.MIN_VALUE;
+		int highest = -1;
+		for(int i = fromIndex; i < toIndex; i++) {
+			if(values[i] >= maxValue) {
+				maxValue = values[i];
+				highest = i;
+			}
+		}
+		return highest;
+	}
+
+	public String getName() {
+		return "scalar";
+	}
+}
@@ -0,0 +1,329 @@
+package climatechange;
+import java.util.*;
+
+public class SortedTemperatureIndex {
+	private TemperatureTable table;
+
+	//every row of the table, sorted in the same order as Temperature.compareTo, and the temperature of each of them
+	private int[] sortedRows;
+	private double[] sortedTemperatures;
+
+	//the same, split by country id
+	private int[][] countryRows;
+	private double[][] countryTemperatures;
+
+	//the rows appended since the sorted rows were last merged, sorted on their own, and the temperature of each of them
+	//queries read both and merge the two slices, so that an append only sorts the few appended rows
+	private int[] deltaRows;
+	private double[] deltaTemperatures;
+
+	//the rank of every country id by name, which orders rows of the same temperature, or null until it is needed
+	private int[] countryRanks;
+
+	//the delta is merged into the sorted rows once it holds more than this many rows, or the square root of the table size
+	private static final int MIN_DELTA_ROWS = 1 << 10;
+
+	/**
+	 * (Constructor)
+	 * Creates a SortedTemperatureIndex that keeps the rows of the given table sorted by temperature,
+	 * both for the whole table and for each country
+	 * Rows with the same temperature are ordered by country name, then year, then month, as in Temperature.compareTo
+	 * @param table the TemperatureTable to index
+	 */
+	public SortedTemperatureIndex(TemperatureTable table) {
+		this.table = table;
+		//sorts the rows by primitive keys, without boxing them or comparing Strings
+		split(RowSorter.sort(table));
+		clearDelta();
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates a SortedTemperatureIndex from rows that are already sorted, i.e the rows saved in a TemperatureSnapshot
+	 * @param table the TemperatureTable to index
+	 * @param sortedRows every row of the table, sorted in the same order as Temperature.compareTo
+	 */
+	public SortedTemperatureIndex(TemperatureTable table, int[] sortedRows) {
+		if(sortedRows.length != table.size()) {
+			throw new IllegalArgumentException("Expected " + table.size() + " sorted rows, but got " + sortedRows.length);
+		}
+		this.table = table;
+		split(sortedRows);
+		clearDelta();
+	}
+
+	/**
+	 * (Helper Method for the constructors)
+	 * Stores the sorted rows with their temperatures, and splits them by country
+	 * @param rows every row of the table, sorted in the same order as Temperature.compareTo
+	 */
+	private void split(int[] rows) {
+		int size = rows.length;
+		int countryCount = table.getCountryCount();
+		sortedRows = rows;
+		sortedTemperatures = new double[size];
+		int[] countryCounts = new int[countryCount];
+		for(int i = 0; i < size; i++) {
+			sortedTemperatures[i] = table.getTemperature(rows[i]);
+			countryCounts[table.getCountryId(rows[i])]++;
+		}
+
+		//splits the sorted rows by country, which keeps each country's rows in sorted order
+		countryRows = new int[countryCount][];
+		countryTemperatures = new double[countryCount][];
+		for(int countryId = 0; countryId < countryCount; countryId++) {
+			countryRows[countryId] = new int[countryCounts[countryId]];
+			countryTemperatures[countryId] = new double[countryCounts[countryId]];
+		}
+		int[] filled = new int[countryCount];
+		for(int i = 0; i < size; i++) {
+			int countryId = table.getCountryId(sortedRows[i]);
+			countryRows[countryId][filled[countryId]] = sortedRows[i];
+			countryTemperatures[countryId][filled[countryId]] = sortedTemperatures[i];
+			filled[countryId]++;
+		}
+	}
+
+	/**
+	 * Adds the rows appended to the table since the index was built or last updated, i.e every row from fromRow to the end
+	 * The new rows are sorted on their own and merged into the small sorted delta, which costs O(d + m log m) for m new rows
+	 * and a delta of d rows. Once the delta grows past the square root of the table size (at least MIN_DELTA_ROWS),
+	 * it is merged into the sorted rows, so that appending one row at a time does not merge the whole table every time.
+	 * @param fromRow the first row that is not in the index yet
+	 */
+	public void addRows(int fromRow) {
+		int size = table.size();
+		if(fromRow >= size) {
+			return;
+		}
+		int[] newRows = new int[size - fromRow];
+		for(int row = fromRow; row < size; row++) {
+			newRows[row - fromRow] = row;
+		}
+		deltaRows = RowSorter.merge(table, ranks(), deltaRows, newRows);
+		deltaTemperatures = temperaturesOf(deltaRows);
+		if(deltaRows.length > Math.max(MIN_DELTA_ROWS, (int) Math.sqrt(size))) {
+			mergeDelta();
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Merges the delta into the sorted rows, and only merges the countries the delta rows belong to again
+	 */
+	private void mergeDelta() {
+		if(deltaRows.length == 0) {
+			return;
+		}
+		int[] countryRanks = ranks();
+		int[] newRows = deltaRows;
+		sortedRows = RowSorter.merge(table, countryRanks, sortedRows, newRows);
+		sortedTemperatures = temperaturesOf(sortedRows);
+
+		//groups the new rows by country, growing the country arrays for countries that are new to the table
+		int countryCount = table.getCountryCount();
+		if(countryCount > countryRows.length) {
+			int oldCount = countryRows.length;
+			countryRows = Arrays.copyOf(countryRows, countryCount);
+			countryTemperatures = Arrays.copyOf(countryTemperatures, countryCount);
+			for(int countryId = oldCount; countryId < countryCount; countryId++) {
+				countryRows[countryId] = new int[0];
+				countryTemperatures[countryId] = new double[0];
+			}
+		}
+		int[] countryCounts = new int[countryCount];
+		for(int row: newRows) {
+			countryCounts[table.getCountryId(row)]++;
+		}
+		int[][] countryNewRows = new int[countryCount][];
+		for(int row: newRows) {
+			int countryId = table.getCountryId(row);
+			if(countryNewRows[countryId] == null) {
+				countryNewRows[countryId] = new int[countryCounts[countryId]];
+				countryCounts[countryId] = 0;
+			}
+			countryNewRows[countryId][countryCounts[countryId]++] = row;
+		}
+		for(int countryId = 0; countryId < countryCount; countryId++) {
+			if(countryNewRows[countryId] != null) {
+				countryRows[countryId] = RowSorter.merge(table, countryRanks, countryRows[countryId], countryNewRows[countryId]);
+				countryTemperatures[countryId] = temperaturesOf(countryRows[countryId]);
+			}
+		}
+		clearDelta();
+	}
+
+	// empty the delta, i.e after the index is built or the delta is merged into the sorted rows
+	private void clearDelta() {
+		deltaRows = new int[0];
+		deltaTemperatures = new double[0];
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the rank of every country id of the table by name, ranking them again only when countries were added
+	 */
+	private int[] ranks() {
+		if(countryRanks == null || countryRanks.length != table.getCountryCount()) {
+			countryRanks = RowSorter.rankCountries(table);
+		}
+		return countryRanks;
+	}
+
+	/**
+	 * (Helper Method for addRows and mergeDelta)
+	 * Gets the temperature of each of the given rows
+	 */
+	private double[] temperaturesOf(int[] rows) {
+		double[] temperatures = new double[rows.length];
+		for(int i = 0; i < rows.length; i++) {
+			temperatures[i] = table.getTemperature(rows[i]);
+		}
+		return temperatures;
+	}
+
+	/**
+	 * Gets every row of the table, sorted in the same order as Temperature.compareTo, merging the delta first
+	 * The returned array is shared with the index and must not be modified
+	 * @return the sorted rows
+	 */
+	int[] getSortedRows() {
+		mergeDelta();
+		return sortedRows;
+	}
+
+	/**
+	 * Gets every reading with a temperature within the given range (inclusive), arranged from low to high
+	 * Readings that compare equal (same temperature, country, year and month) are returned once, as the baseline Task B-3
+	 * gathered them through the TreeSet of Task A-3
+	 * @param lowTemp the lower-end of the range in Celsius
+	 * @param highTemp the higher-end of the range in Celsius
+	 * @return an ArrayList<ITemperature> of the readings within the range
+	 */
+	public ArrayList<ITemperature> getWithinRange(double lowTemp, double highTemp) {
+		return slice(sortedRows, sortedTemperatures, -1, lowTemp, highTemp);
+	}
+
+	/**
+	 * Gets every reading of the given country with a temperature within the given range (inclusive), arranged from low to high
+	 * Readings that compare equal are returned once, as in a TreeSet
+	 * @param countryId the id of the country, or -1 for a country that is not in the table
+	 * @param lowTemp the lower-end of the range in Celsius
+	 * @param highTemp the higher-end of the range in Celsius
+	 * @return an ArrayList<ITemperature> of the readings within the range
+	 */
+	public ArrayList<ITemperature> getWithinRange(int countryId, double lowTemp, double highTemp) {
+		if(countryId < 0) {
+			return new ArrayList<>();
+		}
+		if(countryId >= countryRows.length) {
+			//a country that was only appended so far has all of its rows in the delta
+			return slice(new int[0], new double[0], countryId, lowTemp, highTemp);
+		}
+		return slice(countryRows[countryId], countryTemperatures[countryId], countryId, lowTemp, highTemp);
+	}
+
+	/**
+	 * (Helper Method for getWithinRange)
+	 * Finds the readings within the range with two binary searches in the sorted rows and two in the delta,
+	 * and merges the two contiguous slices between them
+	 * Readings that compare equal are next to each other in the merged slices, so only the first of them is kept
+	 * @param countryId the country of the given rows, whose rows are picked out of the delta, or -1 for every country
+	 */
+	private ArrayList<ITemperature> slice(int[] rows, double[] temperatures, int countryId, double lowTemp, double highTemp) {
+		int from = firstAtLeast(temperatures, lowTemp);
+		int to = firstAbove(temperatures, highTemp);
+		int deltaFrom = firstAtLeast(deltaTemperatures, lowTemp);
+		int deltaTo = firstAbove(deltaTemperatures, highTemp);
+		ArrayList<ITemperature> range = new ArrayList<>(Math.max(to - from, 0) + Math.max(deltaTo - deltaFrom, 0));
+		int previous = -1;
+		while(true) {
+			while(countryId >= 0 && deltaFrom < deltaTo && table.getCountryId(deltaRows[deltaFrom]) != countryId) {
+				deltaFrom++;
+			}
+			int row;
+			if(from < to && (deltaFrom >= deltaTo || !precedes(deltaRows[deltaFrom], rows[from]))) {
+				row = rows[from++];
+			}
+			else if(deltaFrom < deltaTo) {
+				row = deltaRows[deltaFrom++];
+			}
+			else {
+				break;
+			}
+			if(previous < 0 || !sameReading(previous, row)) {
+				range.add(table.getRow(row));
+			}
+			previous = row;
+		}
+		return range;
+	}
+
+	/**
+	 * (Helper Method for slice)
+	 * Checks whether a row of the delta comes strictly before a row of the sorted rows, in the same order as
+	 * Temperature.compareTo; on equal keys the older row of the sorted rows comes first, as when they are merged
+	 */
+	private boolean precedes(int deltaRow, int row) {
+		long key = RowSorter.temperatureKey(table.getTemperature(deltaRow));
+		long otherKey = RowSorter.temperatureKey(table.getTemperature(row));
+		if(key != otherKey) {
+			return key < otherKey;
+		}
+		int[] countryRanks = ranks();
+		int rank = countryRanks[table.getCountryId(deltaRow)];
+		int otherRank = countryRanks[table.getCountryId(row)];
+		if(rank != otherRank) {
+			return rank < otherRank;
+		}
+		long yearMonth = RowSorter.yearMonthKey(table.getYear(deltaRow), table.getMonth(deltaRow));
+		return yearMonth < RowSorter.yearMonthKey(table.getYear(row), table.getMonth(row));
+	}
+
+	/**
+	 * (Helper Method for slice)
+	 * Checks whether two rows compare equal as in Temperature.compareTo, i.e have the same temperature, country, year and month
+	 */
+	private boolean sameReading(int row, int otherRow) {
+		return Double.compare(table.getTemperature(row), table.getTemperature(otherRow)) == 0 && table.getCountryId(row) == table.getCountryId(otherRow)
+				&& table.getYear(row) == table.getYear(otherRow) && table.getMonth(row) == table.getMonth(otherRow);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the index of the first temperature that is greater than or equal to the given value
+	 */
+	private static int firstAtLeast(double[] temperatures, double value) {
+		int low = 0;
+		int high = temperatures.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(temperatures[middle] < value) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the index of the first temperature that is greater than the given value
+	 */
+	private static int firstAbove(double[] temperatures, double value) {
+		int low = 0;
+		int high = temperatures.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(temperatures[middle] <= value) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,246 @@
+package climatechange;
+import java.util.*;
+import java.io.*;
+
+public class StreamingAnalyzer implements ITemperatureSink {
+
+	private WeatherIO weather;
+	private AnalyzerMetrics metrics;
+	private TemperatureUnit unit;
+
+	//the queries answered by the next pass
+	private ArrayList<StreamingQuery<?>> queries;
+
+	//the countries seen during the current pass, whose ids are passed to the queries
+	private Dictionary countries;
+
+	//the last country seen, since the readings of a country are usually next to each other in the data file
+	private String lastCountry;
+	private int lastCountryId;
+	private long rows;
+
+	/**
+	 * (Constructor)
+	 * Creates a StreamingAnalyzer, which answers IClimateAnalyzer queries in a single forward pass over a data file or
+	 * snapshot instead of loading every reading first, so that files larger than the heap can be analyzed
+	 * Queries are registered first, then run or runSnapshot answers every registered query in the same pass,
+	 * and each query's result is read from the StreamingQuery that registered it
+	 * Memory is bounded by what the results need (i.e one reading per country for a top K), not by the size of the file,
+	 * except for the range queries whose results hold every matching reading
+	 */
+	public StreamingAnalyzer() {
+		weather = new WeatherIO();
+		metrics = new AnalyzerMetrics();
+		weather.setMetrics(metrics);
+		weather.setIngestChunkSize(8L * 1024 * 1024); //smaller chunks than a full load, since only a few of them are held at once
+		queries = new ArrayList<>();
+		unit = TemperatureUnit.CELSIUS; //initialized to Celsius, the unit the readings are compared in
+	}
+
+	// get the AnalyzerMetrics that records every pass and the reads it makes
+	public AnalyzerMetrics getMetrics() {
+		return metrics;
+	}
+
+	// get the WeatherIO used to read the data files, i.e to change its number of ingest threads
+	public WeatherIO getWeatherIO() {
+		return weather;
+	}
+
+	// set the unit of the temperature ranges and deltas of the queries registered from now on
+	public void setUnit(TemperatureUnit unit) {
+		this.unit = unit;
+	}
+
+	// get the unit of temperature ranges and deltas
+	public TemperatureUnit getUnit() {
+		return unit;
+	}
+
+	// set whether the temperature ranges and deltas of the queries registered from now on are in Fahrenheit instead of Celsius
+	public void setFahrenheit(boolean getFahrenheit) {
+		setUnit(TemperatureUnit.of(getFahrenheit));
+	}
+
+	// check whether temperature ranges and deltas are in Fahrenheit
+	public boolean isFahrenheit() {
+		return unit == TemperatureUnit.FAHRENHEIT;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Registers a query for the next pass
+	 */
+	private <T extends StreamingQuery<?>> T register(T query) {
+		queries.add(query);
+		return query;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Converts the lower threshold of a range query to Celsius once, as in ClimateAnalyzer
+	 */
+	private double lowToCelsius(double value) {
+		return unit.lowToCelsius(value);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Converts the upper threshold of a range query to Celsius once, as in ClimateAnalyzer
+	 */
+	private double highToCelsius(double value) {
+		return unit.highToCelsius(value);
+	}
+
+	// TASK A-1, answered by the next pass
+	public StreamingQuery<ITemperature> getLowestTempByMonth(String country, int month) {
+		return register(new StreamingQuery.Extreme(country, month, 0, false));
+	}
+
+	// TASK A-1, answered by the next pass
+	public StreamingQuery<ITemperature> getHighestTempByMonth(String country, int month) {
+		return register(new StreamingQuery.Extreme(country, month, 0, true));
+	}
+
+	// TASK A-2, answered by the next pass
+	public StreamingQuery<ITemperature> getLowestTempByYear(String country, int year) {
+		return register(new StreamingQuery.Extreme(country, 0, year, false));
+	}
+
+	// TASK A-2, answered by the next pass
+	public StreamingQuery<ITemperature> getHighestTempByYear(String country, int year) {
+		return register(new StreamingQuery.Extreme(country, 0, year, true));
+	}
+
+	// TASK A-3, answered by the next pass, the readings are arranged from low to high with equal readings kept once as in the TreeSet of ClimateAnalyzer
+	public StreamingQuery<ArrayList<ITemperature>> getTempWithinRange(String country, double rangeLowTemp, double rangeHighTemp) {
+		return register(new StreamingQuery.Range(country, lowToCelsius(rangeLowTemp), highToCelsius(rangeHighTemp)));
+	}
+
+	// TASK A-4, answered by the next pass
+	public StreamingQuery<ITemperature> getLowestTempYearByCountry(String country) {
+		return register(new StreamingQuery.Extreme(country, 0, 0, false));
+	}
+
+	// TASK A-4, answered by the next pass
+	public StreamingQuery<ITemperature> getHighestTempYearByCountry(String country) {
+		return register(new StreamingQuery.Extreme(country, 0, 0, true));
+	}
+
+	// TASK B-1, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesGetTopKLowestTemp(int month, int k) {
+		return register(new StreamingQuery.CountryExtremes(month, k, false));
+	}
+
+	// TASK B-1, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesGetTopKHighestTemp(int month, int k) {
+		return register(new StreamingQuery.CountryExtremes(month, k, true));
+	}
+
+	// TASK B-2, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesGetTopKLowestTemp(int k) {
+		return register(new StreamingQuery.CountryExtremes(0, k, false));
+	}
+
+	// TASK B-2, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesGetTopKHighestTemp(int k) {
+		return register(new StreamingQuery.CountryExtremes(0, k, true));
+	}
+
+	// TASK B-3, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesGetAllDataWithinTempRange(double lowRangeTemp, double highRangeTemp) {
+		return register(new StreamingQuery.Range(null, lowToCelsius(lowRangeTemp), highToCelsius(highRangeTemp)));
+	}
+
+	// TASK C-1, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesTopKTempDelta(int month, int year1, int year2, int k) {
+		return register(new StreamingQuery.Deltas(month, year1, year2, k, unit));
+	}
+
+	// TASK C-1, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesTempDeltas(int month, int year1, int year2) {
+		return register(new StreamingQuery.Deltas(month, year1, year2, -1, unit));
+	}
+
+	// TASK C-1, answered by the next pass
+	public StreamingQuery<ArrayList<ITemperature>> allCountriesTempDeltasAllMonths(int year1, int year2) {
+		return register(new StreamingQuery.Deltas(0, year1, year2, -1, unit));
+	}
+
+	/**
+	 * Answers every registered query in a single forward pass over the given data file
+	 * The file is parsed by WeatherIO.readDataFromFileParallel, which holds at most a few chunks of it in memory at once
+	 * Once the pass is over, the queries are unregistered and their results can be read
+	 * @param fileName the data file, in the same format as the input file
+	 * @return the number of readings passed
+	 */
+	public long run(String fileName) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("StreamingAnalyzer.run");
+		startPass();
+		try {
+			weather.readDataFromFileParallel(fileName, this);
+		}
+		finally {
+			queries = new ArrayList<>();
+		}
+		timer.stop(rows, rows);
+		return rows;
+	}
+
+	/**
+	 * Answers every registered query in a single forward pass over the given snapshot, written by WeatherIO.writeSnapshot
+	 * The columns are read through memory-mapped windows, without loading them
+	 * Once the pass is over, the queries are unregistered and their results can be read
+	 * @param snapshotFile the snapshot file
+	 * @return the number of readings passed
+	 */
+	public long runSnapshot(String snapshotFile) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("StreamingAnalyzer.runSnapshot");
+		startPass();
+		try {
+			weather.readSnapshot(snapshotFile, this);
+		}
+		finally {
+			queries = new ArrayList<>();
+		}
+		timer.stop(rows, rows);
+		return rows;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Forgets the countries seen during the previous pass
+	 */
+	private void startPass() {
+		countries = new Dictionary();
+		lastCountry = null;
+		lastCountryId = -1;
+		rows = 0;
+	}
+
+	/**
+	 * Passes a reading to every registered query, used by the readers during a pass
+	 * @param temperature the temperature in Celsius
+	 * @param year the year of the reading
+	 * @param month the month of the reading as an integer between 1 and 12
+	 * @param country the name of the country
+	 * @param countryCode the 3-letter code of the country
+	 */
+	public void add(double temperature, int year, int month, String country, String countryCode) {
+		if(country != lastCountry) {
+			int seen = countries.size();
+			lastCountryId = countries.intern(country);
+			if(lastCountryId == seen) {
+				//the first reading of the country in this pass, whose code is used for every reading of the country
+				for(StreamingQuery<?> query: queries) {
+					query.addCountry(lastCountryId, country, countryCode);
+				}
+			}
+			lastCountry = country;
+		}
+		for(StreamingQuery<?> query: queries) {
+			query.accept(temperature, year, month, lastCountryId);
+		}
+		rows++;
+	}
+}
@@ -0,0 +1,291 @@
+package climatechange;
+import java.util.*;
+
+/**
+ * A query that is answered in a single forward pass over the readings, registered with a StreamingAnalyzer
+ * Each query only keeps what its result needs (i.e one reading per country for a top K), never the readings themselves,
+ * and getResult gives the same result as the matching ClimateAnalyzer method once the pass is over
+ * @param <T> the type of the result
+ */
+public abstract class StreamingQuery<T> {
+	//the name of every country seen during the pass, and the code it was first seen with, by country id
+	private ArrayList<String> countryNames = new ArrayList<>();
+	private ArrayList<String> countryCodes = new ArrayList<>();
+
+	/**
+	 * Called the first time a country is seen during the pass, before any of its readings
+	 * @param countryId the id of the country, numbered from 0 in the order the countries are first seen during the pass
+	 * @param country the name of the country
+	 */
+	void countrySeen(int countryId, String country) {
+	}
+
+	/**
+	 * Called for every reading of the pass, in file order
+	 * @param temperature the temperature in Celsius
+	 * @param year the year of the reading
+	 * @param month the month of the reading between 1 and 12
+	 * @param countryId the id the country was given when it was first seen during the pass
+	 */
+	abstract void accept(double temperature, int year, int month, int countryId);
+
+	/**
+	 * Gets the result of the query for the readings passed so far
+	 * @return the result, as the matching ClimateAnalyzer method would return it
+	 */
+	public abstract T getResult();
+
+	/**
+	 * Records a country the first time it is seen during the pass, used by the StreamingAnalyzer before any of its readings
+	 * @param countryId the id of the country, which is the number of countries seen before it
+	 * @param country the name of the country
+	 * @param countryCode the 3-letter code of the country, used for every reading of the country
+	 */
+	final void addCountry(int countryId, String country, String countryCode) {
+		countryNames.add(country);
+		countryCodes.add(countryCode);
+		countrySeen(countryId, country);
+	}
+
+	/**
+	 * (Helper Method)
+	 * Creates a Temperature object for a reading of the country with the given id
+	 * @param month the month of the reading between 1 and 12
+	 */
+	Temperature reading(double temperature, int year, int month, int countryId) {
+		return new Temperature(temperature, year, month - 1, countryNames.get(countryId), countryCodes.get(countryId));
+	}
+
+	/**
+	 * (Helper Method)
+	 * Checks whether a country name is the given name, ignoring case as TemperatureTable.findCountry does
+	 */
+	static boolean sameCountry(String name, String country) {
+		return country != null && name.toLowerCase().equals(country.toLowerCase());
+	}
+
+	/**
+	 * The lowest or highest reading of one country, optionally of a single month or year (Task A-1, A-2 and A-4)
+	 * If several readings share the lowest or highest temperature, the last one is kept
+	 * If no reading matches, the first reading of the pass is the result, as row 0 is for ClimateAnalyzer
+	 */
+	static class Extreme extends StreamingQuery<ITemperature> {
+		private String country;
+		private int month;
+		private int year;
+		private boolean highest;
+
+		//the id of the country once it has been seen, the best value so far and its reading
+		private int targetId = -1;
+		private double best;
+		private ITemperature bestReading;
+		private ITemperature firstReading;
+
+		Extreme(String country, int month, int year, boolean highest) {
+			this.country = country;
+			this.month = month;
+			this.year = year;
+			this.highest = highest;
+			best = highest ? Double.NEGATIVE_INFINITY : Double.MAX_VALUE; //the same starting values as ClimateAnalyzer's scans
+		}
+
+		void countrySeen(int countryId, String name) {
+			if(targetId < 0 && sameCountry(name, country)) {
+				targetId = countryId;
+			}
+		}
+
+		void accept(double temperature, int year, int month, int countryId) {
+			if(firstReading == null) {
+				firstReading = reading(temperature, year, month, countryId);
+			}
+			if(countryId == targetId && (this.month == 0 || month == this.month) && (this.year == 0 || year == this.year)) {
+				if(highest ? temperature >= best : temperature <= best) {
+					best = temperature;
+					bestReading = reading(temperature, year, month, countryId);
+				}
+			}
+		}
+
+		public ITemperature getResult() {
+			return bestReading != null ? bestReading : firstReading;
+		}
+	}
+
+	/**
+	 * Every reading within a temperature range (inclusive), of one country (Task A-3) or of every country (Task B-3)
+	 * The result is sorted at the end of the pass, in the same order as Temperature.compareTo, and readings that compare
+	 * equal (i.e a reading repeated in the data file) are kept once, as in the TreeSet of Task A-3
+	 */
+	static class Range extends StreamingQuery<ArrayList<ITemperature>> {
+		private String country;
+		private double lowTemp;
+		private double highTemp;
+
+		private int targetId = -1;
+		private ArrayList<ITemperature> readings = new ArrayList<>();
+		private boolean sorted = true;
+
+		Range(String country, double lowTemp, double highTemp) {
+			this.country = country;
+			this.lowTemp = lowTemp;
+			this.highTemp = highTemp;
+		}
+
+		void countrySeen(int countryId, String name) {
+			if(country != null && targetId < 0 && sameCountry(name, country)) {
+				targetId = countryId;
+			}
+		}
+
+		void accept(double temperature, int year, int month, int countryId) {
+			if((country == null || countryId == targetId) && temperature >= lowTemp && temperature <= highTemp) {
+				readings.add(reading(temperature, year, month, countryId));
+				sorted = false;
+			}
+		}
+
+		public ArrayList<ITemperature> getResult() {
+			if(!sorted) {
+				RowSorter.sort(readings);
+				//equal readings are next to each other once sorted, so only the first of each run is kept
+				int kept = 0;
+				for(ITemperature t: readings) {
+					if(kept == 0 || readings.get(kept - 1).compareTo(t) != 0) {
+						readings.set(kept++, t);
+					}
+				}
+				readings.subList(kept, readings.size()).clear();
+				sorted = true;
+			}
+			return new ArrayList<>(readings);
+		}
+	}
+
+	/**
+	 * The k countries with the lowest or highest reading, optionally of a single month (Task B-1 and B-2)
+	 * Only the lowest or highest reading of each country is kept during the pass, as in CountryAggregation
+	 */
+	static class CountryExtremes extends StreamingQuery<ArrayList<ITemperature>> {
+		private int month;
+		private int k;
+		private boolean highest;
+
+		//one entry per country id: the best temperature of the country, and its year and month
+		private double[] values = new double[0];
+		private int[] years = new int[0];
+		private byte[] months = new byte[0];
+
+		CountryExtremes(int month, int k, boolean highest) {
+			this.month = month;
+			this.k = k;
+			this.highest = highest;
+		}
+
+		void countrySeen(int countryId, String name) {
+			if(countryId >= values.length) {
+				int capacity = Math.max(countryId + 1, values.length * 2);
+				values = Arrays.copyOf(values, capacity);
+				years = Arrays.copyOf(years, capacity);
+				months = Arrays.copyOf(months, capacity);
+			}
+			values[countryId] = highest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY; //the same starting values as CountryAggregation
+		}
+
+		void accept(double temperature, int year, int month, int countryId) {
+			if(this.month == 0 || month == this.month) {
+				if(highest ? temperature >= values[countryId] : temperature <= values[countryId]) {
+					values[countryId] = temperature;
+					years[countryId] = year;
+					months[countryId] = (byte) month; //a month of 0 means the country has no matching reading
+				}
+			}
+		}
+
+		public ArrayList<ITemperature> getResult() {
+			ArrayList<ITemperature> readings = new ArrayList<>();
+			for(int countryId = 0; countryId < values.length; countryId++) {
+				if(months[countryId] != 0) {
+					readings.add(reading(values[countryId], years[countryId], months[countryId], countryId));
+				}
+			}
+			return highest ? TopK.highest(readings, k) : TopK.lowest(readings, k);
+		}
+	}
+
+	/**
+	 * The temperature difference (absolute value) of every country between two years, for one month or every month (Task C-1)
+	 * Only the readings of the two years are kept during the pass, one per country and month, as in TempDeltaJoin
+	 */
+	static class Deltas extends StreamingQuery<ArrayList<ITemperature>> {
+		private int month;
+		private int year1;
+		private int year2;
+		private int k;
+		private TemperatureUnit unit;
+
+		//one entry per (country id, month): the temperature in each year, and whether there is one
+		private double[] year1Values = new double[0];
+		private double[] year2Values = new double[0];
+		private boolean[] hasYear1 = new boolean[0];
+		private boolean[] hasYear2 = new boolean[0];
+
+		//the ids of the countries in the order they are first seen during the pass, which breaks ties between top k deltas
+		private ArrayList<Integer> countryOrder = new ArrayList<>();
+
+		/**
+		 * @param k the number of largest deltas to keep, or -1 to keep the delta of every country
+		 */
+		Deltas(int month, int year1, int year2, int k, TemperatureUnit unit) {
+			this.month = month;
+			this.year1 = year1;
+			this.year2 = year2;
+			this.k = k;
+			this.unit = unit;
+		}
+
+		void countrySeen(int countryId, String name) {
+			int needed = (countryId + 1) * 12;
+			if(needed > year1Values.length) {
+				int capacity = Math.max(needed, year1Values.length * 2);
+				year1Values = Arrays.copyOf(year1Values, capacity);
+				year2Values = Arrays.copyOf(year2Values, capacity);
+				hasYear1 = Arrays.copyOf(hasYear1, capacity);
+				hasYear2 = Arrays.copyOf(hasYear2, capacity);
+			}
+			countryOrder.add(countryId);
+		}
+
+		void accept(double temperature, int year, int month, int countryId) {
+			if(this.month == 0 || month == this.month) {
+				int slot = countryId * 12 + month - 1;
+				if(year == year1) {
+					year1Values[slot] = temperature;
+					hasYear1[slot] = true;
+				}
+				if(year == year2) {
+					year2Values[slot] = temperature;
+					hasYear2[slot] = true;
+				}
+			}
+		}
+
+		public ArrayList<ITemperature> getResult() {
+			ArrayList<ITemperature> deltas = new ArrayList<>();
+			for(int countryId: countryOrder) {
+				for(int slot = countryId * 12; slot < countryId * 12 + 12; slot++) {
+					if(hasYear1[slot] && hasYear2[slot]) {
+						//only the two readings of each delta are converted, once the pass is over
+						double difference = Math.abs(unit.fromCelsius(year1Values[slot]) - unit.fromCelsius(year2Values[slot]));
+						deltas.add(reading(difference, year2 - year1, slot % 12 + 1, countryId));
+					}
+				}
+			}
+			if(k >= 0) {
+				return TopK.largestDeltas(deltas, k); //ties broken by the order the countries were seen, as in ClimateAnalyzer
+			}
+			RowSorter.sort(deltas);
+			return deltas;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package climatechange;
+import java.util.*;
+
+public class TempDeltaJoin {
+	private int year1;
+	private int year2;
+
+	//one entry per (country id, month): the row of the reading in year1 and in year2, or -1 if there is none
+	private int[] year1Rows;
+	private int[] year2Rows;
+
+	/**
+	 * (Constructor)
+	 * Joins the readings of year1 and year2 on country and month in a single scan of the given table
+	 * If several rows share the same country, month and year, the last one is kept
+	 * @param table the TemperatureTable to scan
+	 * @param month the month to join between 1 and 12, or 0 to join every month
+	 * @param year1 one of the two years
+	 * @param year2 other one of the two years
+	 */
+	public TempDeltaJoin(TemperatureTable table, int month, int year1, int year2) {
+		this(table, year1, year2);
+		byte[] months = table.monthColumn();
+		int size = table.size();
+
+		for(int row = 0; row < size; row++) {
+			if(month == 0 || months[row] == month) {
+				joinRow(table, row);
+			}
+		}
+	}
+
+	/**
+	 * (Constructor)
+	 * Joins the readings of year1 and year2 on country and month, reading only the given rows,
+	 * i.e the rows of both years (and of a month) found with a BitmapIndex
+	 * The rows are visited in increasing order, so the last of several rows of the same slot is kept as by a scan
+	 * @param table the TemperatureTable the rows belong to
+	 * @param rows the rows to join, any of them that is not of year1 or year2 is skipped
+	 * @param year1 one of the two years
+	 * @param year2 other one of the two years
+	 */
+	public TempDeltaJoin(TemperatureTable table, RowBitmap rows, int year1, int year2) {
+		this(table, year1, year2);
+		joinRows(table, rows, 0, table.size());
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates a join with no row in either year, i.e a partial join of a ParallelScan
+	 */
+	private TempDeltaJoin(TemperatureTable table, int year1, int year2) {
+		this.year1 = year1;
+		this.year2 = year2;
+		year1Rows = new int[table.getCountryCount() * 12];
+		year2Rows = new int[table.getCountryCount() * 12];
+		Arrays.fill(year1Rows, -1);
+		Arrays.fill(year2Rows, -1);
+	}
+
+	/**
+	 * Joins the readings of year1 and year2 on the given rows as the constructor does, but with the table split into
+	 * ranges of rows joined by the threads of the given ParallelScan
+	 * The partial joins are merged in row order, so the last of several rows of the same slot is kept as by a scan
+	 * @param table the TemperatureTable the rows belong to
+	 * @param rows the rows to join, any of them that is not of year1 or year2 is skipped
+	 * @param year1 one of the two years
+	 * @param year2 other one of the two years
+	 * @param scan the ParallelScan that runs the ranges
+	 * @return the TempDeltaJoin of the given rows
+	 */
+	public static TempDeltaJoin join(TemperatureTable table, RowBitmap rows, int year1, int year2, ParallelScan scan) {
+		return scan.run(table.size(), rows.getCardinality(), new ParallelScan.Scan<TempDeltaJoin>() {
+			public TempDeltaJoin scan(int fromRow, int toRow) {
+				TempDeltaJoin part = new TempDeltaJoin(table, year1, year2);
+				part.joinRows(table, rows, fromRow, toRow);
+				return part;
+			}
+
+			public TempDeltaJoin merge(TempDeltaJoin left, TempDeltaJoin right) {
+				//a row of the right range is later than any row of the left one, so it replaces it
+				for(int slot = 0; slot < left.year1Rows.length; slot++) {
+					if(right.year1Rows[slot] >= 0) {
+						left.year1Rows[slot] = right.year1Rows[slot];
+					}
+					if(right.year2Rows[slot] >= 0) {
+						left.year2Rows[slot] = right.year2Rows[slot];
+					}
+				}
+				return left;
+			}
+		});
+	}
+
+	/**
+	 * (Helper Method)
+	 * Joins the given rows from one row (inclusive) to another (exclusive)
+	 */
+	private void joinRows(TemperatureTable table, RowBitmap rows, int fromRow, int toRow) {
+		for(int row = rows.next(fromRow); row >= 0 && row < toRow; row = rows.next(row + 1)) {
+			joinRow(table, row);
+		}
+	}
+
+	/**
+	 * (Helper Method)
+	 * Records a row in the slot of its country and month if it is of year1 or year2
+	 */
+	private void joinRow(TemperatureTable table, int row) {
+		int year = table.yearColumn()[row];
+		int slot = table.countryColumn()[row] * 12 + table.monthColumn()[row] - 1;
+		if(year == year1) {
+			year1Rows[slot] = row;
+		}
+		if(year == year2) {
+			year2Rows[slot] = row;
+		}
+	}
+
+	// get the first of the two joined years
+	public int getYear1() {
+		return year1;
+	}
+
+	// get the second of the two joined years
+	public int getYear2() {
+		return year2;
+	}
+
+	// get the row of the given country and month in year1, or -1 if there is none
+	public int getYear1Row(int countryId, int month) {
+		return year1Rows[countryId * 12 + month - 1];
+	}
+
+	// get the row of the given country and month in year2, or -1 if there is none
+	public int getYear2Row(int countryId, int month) {
+		return year2Rows[countryId * 12 + month - 1];
+	}
+
+	// check whether the given country has a reading for the given month in both years
+	public boolean hasBoth(int countryId, int month) {
+		return getYear1Row(countryId, month) >= 0 && getYear2Row(countryId, month) >= 0;
+	}
+}
@@ -2,19 +2,61 @@ package climatechange;
 import java.util.*;
 
 public class Temperature implements ITemperature{
+	//the value of centiDegrees for a Temperature that was not created from hundredths of a degree
+	private static final int NOT_CENTI_DEGREES = Integer.MIN_VALUE;
+	
 	private double temperature;
 	private int year;
-	private String month;
+	
+	//the temperature in hundredths of a degree Celsius if it comes from a table in hundredths of a degree (see CentiDegrees)
+	private int centiDegrees = NOT_CENTI_DEGREES;
+	
+	//the month as an integer between 0 and 11, and the country and countryCode
+	private int month;
 	private String country;
 	private String countryCode;
 	
+	//precomputed keys used by compareTo and hashCode, so that ordering and hashing never create objects
+	private long temperatureKey;
+	private long yearMonthKey;
+	private int hash;
+	
 	//Creates a Temperature Object with a given temperature, year, month, country, and countryCode
+	//The month must be the first 3 letters of a month as written in the data file, any other String is rejected
 	public Temperature(double temperature, int year, String month, String country, String countryCode){
+		this(temperature, year, checkMonth(month) - 1, country, countryCode);
+	}
+	
+	//Creates a Temperature Object with a given temperature, year, month as an integer between 0 and 11, country, and countryCode
+	Temperature(double temperature, int year, int month, String country, String countryCode){
 		this.temperature = temperature;
 		this.year = year;
 		this.month = month;
 		this.country = country;
 		this.countryCode = countryCode;
+		
+		int monthOrdinal = month + 1;
+		this.temperatureKey = RowSorter.temperatureKey(temperature);
+		this.yearMonthKey = RowSorter.yearMonthKey(year, monthOrdinal);
+		this.hash = (int)temperature + monthOrdinal + year;
+	}
+	
+	//Creates a Temperature Object from a temperature in hundredths of a degree Celsius, i.e a row of a TemperatureTable in
+	//hundredths of a degree, whose Celsius and Fahrenheit values are then formatted from integers without rounding
+	static Temperature fromCentiDegrees(int centiDegrees, int year, int month, String country, String countryCode) {
+		Temperature temperature = new Temperature(CentiDegrees.toCelsius(centiDegrees), year, month, country, countryCode);
+		temperature.centiDegrees = centiDegrees;
+		return temperature;
+	}
+	
+	//Helper Method for the constructor
+	//gets the month as an integer between 1 and 12, or throws an IllegalArgumentException if it is not a month
+	private static int checkMonth(String month) {
+		int value = TemperatureTable.getMonthAsInt(month);
+		if(value == 0) {
+			throw new IllegalArgumentException("Unrecognized month: " + month);
+		}
+		return value;
 	}
 	
 	// get the name of the country
@@ -29,24 +71,34 @@ public class Temperature implements ITemperature{
 	
 	// get the month
 	public String getMonth() {
-		return month;
+		return TemperatureTable.getMonthAsString(month + 1);
 	}
 	
 	//Helper Method
 	//given the first 3 letters of a month as a String, gets its corresponding integer value
 	//(i.e, if given "Jan", returns the value 1)
 	public int getMonthAsInt(String month) {
+		return TemperatureTable.getMonthAsInt(month); //returns the value of a month as an integer
+	}
 		
-		//Employs a HashMap to associate the first 3 letters of each month with the corresponding number
-		HashMap<String, Integer> months = new HashMap<>();
-		String[] listOfMonths = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
-		int number = 1;
-		for(String value: listOfMonths) {
-			months.put(value, number);
-			number++;
-		}
-		
-		return months.get(month); //returns the value of a month as an integer
+	// get the sort key of the temperature, see RowSorter.temperatureKey
+	long getTemperatureKey() {
+		return temperatureKey;
+	}
+	
+	// get the sort key of the year and month, see RowSorter.yearMonthKey
+	long getYearMonthKey() {
+		return yearMonthKey;
+	}
+	
+	// check whether the temperature was created from hundredths of a degree
+	boolean isCentiDegrees() {
+		return centiDegrees != NOT_CENTI_DEGREES;
+	}
+	
+	// get the temperature in hundredths of a degree Celsius, only valid if isCentiDegrees() is true
+	int getCentiDegrees() {
+		return centiDegrees;
 	}
 	
 	// get the year
@@ -56,35 +108,35 @@ public class Temperature implements ITemperature{
 	
 	// get temperature; input parameter of false = return Celsius value)
 	public double getTemperature(boolean getFahrenheit) {
-		if(getFahrenheit) {
-			double fahrenheit = (temperature * 9/5) + 32;
-			return fahrenheit;
+		return getTemperature(TemperatureUnit.of(getFahrenheit));
+	}
+	
+	// get temperature in the given unit, the Celsius value is stored and the other units are converted from it
+	// the value is not rounded, whether or not it came from hundredths of a degree, rounding is left to the output
+	public double getTemperature(TemperatureUnit unit) {
+		if(unit == TemperatureUnit.CELSIUS) {
+			return temperature;
 		}
-		return temperature;
+		return unit.fromCelsius(temperature);
 	}
 	
 	//implements compareTo() as a part of the Comparable<ITemperature> interface
 	//Checks first by temperature,then country,then year, and then month
+	//The temperature, year and month are compared through the precomputed keys, and country names only when they are different Strings
 	//returns 1, -1, and 0, depending on whether this object is greater, lesser than or equal to the other object
 	public int compareTo(ITemperature otherObject) {
 		Temperature other = (Temperature) otherObject;
-		int temp = Double.compare(this.temperature, other.temperature);
+		int temp = Long.compare(this.temperatureKey, other.temperatureKey);
 		if(temp != 0){
 			return temp;
 		}
 		else {
-			int countries = country.compareTo(other.country);
+			int countries = country == other.country ? 0 : country.compareTo(other.country);
 			if(countries != 0) {
 				return countries;
 			}
 			else {
-				int years = Integer.compare(this.year, other.year);
-				if(years != 0) {
-					return years;
-				}
-				else {
-					return Integer.compare(getMonthAsInt(month), getMonthAsInt(other.month));
-				}
+				return Long.compare(this.yearMonthKey, other.yearMonthKey); //compares the year, then the month
 			}
 		}
 	}
@@ -97,13 +149,12 @@ public class Temperature implements ITemperature{
 	
 	//implements hashCode() as a part of the Comparable<ITemperature> interface
 	public int hashCode() {
-		int temp = (int)this.getTemperature(false);
-		return temp + this.getMonthAsInt(this.getMonth()) + this.getYear();
+		return hash; //the temperature as an int + the month as an int + the year, computed by the constructor
 	}
 	
 	//returns a String when Temperature values are printed
 	public String toString() {
-		return "Temperature: " + temperature + " Month/Year: " + month +"/" + year + " Country: " + country;
+		return "Temperature: " + temperature + " Month/Year: " + getMonth() +"/" + year + " Country: " + getCountry();
 	}
 	
 }
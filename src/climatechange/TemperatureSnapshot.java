@@ -0,0 +1,358 @@
+package climatechange;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public class TemperatureSnapshot {
+	//"CLIM" in ASCII, followed by the version of the format
+	private static final int MAGIC = 0x434C494D;
+	private static final int VERSION = 1;
+	private static final int FLAG_SORTED_INDEX = 1;
+
+	//the largest region of a file that is mapped at once (a MappedByteBuffer is indexed by int)
+	private static final long MAX_WINDOW = Integer.MAX_VALUE - 8;
+
+	//the number of rows of each column mapped at once by stream
+	private static final int STREAM_ROWS = 1 << 20;
+
+	private TemperatureTable table;
+	private int[] sortedRows;
+
+	/**
+	 * (Constructor)
+	 * Creates a TemperatureSnapshot holding a loaded table and, if it was saved, the sorted rows of its SortedTemperatureIndex
+	 */
+	private TemperatureSnapshot(TemperatureTable table, int[] sortedRows) {
+		this.table = table;
+		this.sortedRows = sortedRows;
+	}
+
+	// get the table loaded from the snapshot
+	public TemperatureTable getTable() {
+		return table;
+	}
+
+	// check whether the snapshot holds a prebuilt SortedTemperatureIndex
+	public boolean hasSortedIndex() {
+		return sortedRows != null;
+	}
+
+	/**
+	 * Gets the SortedTemperatureIndex of the loaded table, rebuilt in linear time from the saved sorted rows
+	 * @return the SortedTemperatureIndex, or null if the snapshot was written without it
+	 */
+	public SortedTemperatureIndex getSortedIndex() {
+		if(sortedRows == null) {
+			return null;
+		}
+		return new SortedTemperatureIndex(table, sortedRows);
+	}
+
+	/**
+	 * Writes a binary snapshot of the given table, which can be loaded back with read instead of parsing the source file again
+	 * The snapshot records the size, last-modified time and CRC32 checksum of the source file so that stale snapshots are detected.
+	 * It is written to a temporary file first and then moved into place, so a reader never sees a partial snapshot.
+	 * Layout (big-endian): header, source file size, modified time and checksum, flags, row count, country count,
+	 * the name and code of every country, the temperature, year, month and country id columns, and optionally the sorted rows.
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sourceFile the directory/name of the data file the table was read from
+	 * @param table the TemperatureTable to save
+	 * @param sortedIndex the SortedTemperatureIndex of the table to save with it, or null to leave it out
+	 */
+	public static void write(String snapshotFile, String sourceFile, TemperatureTable table, SortedTemperatureIndex sortedIndex) throws IOException {
+		Path source = Paths.get(sourceFile);
+		Path target = Paths.get(snapshotFile).toAbsolutePath();
+		Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(Files.size(source));
+			out.writeLong(Files.getLastModifiedTime(source).toMillis());
+			out.writeLong(checksum(source));
+			out.writeInt(sortedIndex != null ? FLAG_SORTED_INDEX : 0);
+
+			int size = table.size();
+			int countryCount = table.getCountryCount();
+			out.writeInt(size);
+			out.writeInt(countryCount);
+			for(int countryId = 0; countryId < countryCount; countryId++) {
+				writeString(out, table.getCountryName(countryId));
+				writeString(out, table.getCountryCode(countryId));
+			}
+
+			short[] years = table.yearColumn();
+			byte[] months = table.monthColumn();
+			int[] countries = table.countryColumn();
+			for(int row = 0; row < size; row++) {
+				out.writeDouble(table.getTemperature(row)); //a table in hundredths of a degree is written as doubles too
+			}
+			for(int row = 0; row < size; row++) {
+				out.writeShort(years[row]);
+			}
+			out.write(months, 0, size);
+			for(int row = 0; row < size; row++) {
+				out.writeInt(countries[row]);
+			}
+			if(sortedIndex != null) {
+				for(int row: sortedIndex.getSortedRows()) {
+					out.writeInt(row);
+				}
+			}
+		}
+		catch(IOException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Loads a snapshot written by write, through a memory-mapped buffer
+	 * The snapshot is stale if the source file's size has changed, or if its last-modified time has changed and its
+	 * checksum no longer matches. When verifyChecksum is true, the checksum is compared even if the time is unchanged.
+	 * Each column is bulk-copied out of the mapped file into an array, so loading is still linear in the number of rows,
+	 * but it skips parsing the text of the source file and, when the sorted rows were saved, sorting them again.
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sourceFile the directory/name of the data file the snapshot was made from
+	 * @param verifyChecksum true to always compare the checksum of the source file
+	 * @return the loaded TemperatureSnapshot, or null if the snapshot does not exist, is stale or is not a snapshot
+	 * @throws IOException if the snapshot is truncated or corrupt, i.e its length does not match the row and country counts of its header
+	 */
+	public static TemperatureSnapshot read(String snapshotFile, String sourceFile, boolean verifyChecksum) throws IOException {
+		Path snapshot = Paths.get(snapshotFile);
+		Path source = Paths.get(sourceFile);
+		if(!Files.isRegularFile(snapshot) || !Files.isRegularFile(source)) {
+			return null;
+		}
+
+		try(FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+			//the header and the country names are read from a first window, and each column is then copied out in bulk
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(MAX_WINDOW, channel.size()));
+			if(buffer.remaining() < 44 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+
+			long sourceSize = buffer.getLong();
+			long sourceModified = buffer.getLong();
+			long sourceChecksum = buffer.getLong();
+			if(sourceSize != Files.size(source)) {
+				return null;
+			}
+			boolean sameTime = sourceModified == Files.getLastModifiedTime(source).toMillis();
+			if((verifyChecksum || !sameTime) && sourceChecksum != checksum(source)) {
+				return null;
+			}
+
+			int flags = buffer.getInt();
+			int size = buffer.getInt();
+			int countryCount = buffer.getInt();
+			checkCounts(buffer, size, countryCount, snapshotFile);
+			ArrayList<String> countryNames = new ArrayList<>(countryCount);
+			ArrayList<String> countryCodes = new ArrayList<>(countryCount);
+			for(int countryId = 0; countryId < countryCount; countryId++) {
+				countryNames.add(readString(buffer, snapshotFile));
+				countryCodes.add(readString(buffer, snapshotFile));
+			}
+
+			long position = buffer.position();
+			checkLength(channel, position, flags, size, snapshotFile);
+			double[] temperatures = new double[size];
+			short[] years = new short[size];
+			byte[] months = new byte[size];
+			int[] countries = new int[size];
+			position = readColumn(channel, position, 8, size, (window, from, count) -> window.asDoubleBuffer().get(temperatures, from, count));
+			position = readColumn(channel, position, 2, size, (window, from, count) -> window.asShortBuffer().get(years, from, count));
+			position = readColumn(channel, position, 1, size, (window, from, count) -> window.get(months, from, count));
+			position = readColumn(channel, position, 4, size, (window, from, count) -> window.asIntBuffer().get(countries, from, count));
+
+			for(int row = 0; row < size; row++) {
+				if(countries[row] < 0 || countries[row] >= countryCount || months[row] < 1 || months[row] > 12) {
+					throw corrupt(snapshotFile);
+				}
+			}
+
+			int[] sortedRows = null;
+			if((flags & FLAG_SORTED_INDEX) != 0) {
+				int[] rows = new int[size];
+				position = readColumn(channel, position, 4, size, (window, from, count) -> window.asIntBuffer().get(rows, from, count));
+				//the sorted rows must hold every row exactly once
+				boolean[] seen = new boolean[size];
+				for(int row: rows) {
+					if(row < 0 || row >= size || seen[row]) {
+						throw corrupt(snapshotFile);
+					}
+					seen[row] = true;
+				}
+				sortedRows = rows;
+			}
+
+			TemperatureTable table = TemperatureTable.fromColumns(temperatures, years, months, countries, size, countryNames, countryCodes);
+			return new TemperatureSnapshot(table, sortedRows);
+		}
+	}
+
+	/**
+	 * Passes every reading of a snapshot written by write to the given sink, in row order, without loading the snapshot
+	 * The four columns are read side by side through memory-mapped windows of at most STREAM_ROWS rows each,
+	 * so memory stays bounded however large the snapshot is. The source file is not checked.
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sink the ITemperatureSink that receives the readings
+	 * @return the number of readings passed to the sink
+	 */
+	public static int stream(String snapshotFile, ITemperatureSink sink) throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(snapshotFile), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(MAX_WINDOW, channel.size()));
+			if(buffer.remaining() < 44 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException(snapshotFile + " is not a snapshot");
+			}
+			buffer.position(buffer.position() + 3 * 8); //skips the source file's size, modified time and checksum
+			int flags = buffer.getInt();
+			int size = buffer.getInt();
+			int countryCount = buffer.getInt();
+			checkCounts(buffer, size, countryCount, snapshotFile);
+
+			//one String per country, passed with every reading of the country
+			String[] countryNames = new String[countryCount];
+			String[] countryCodes = new String[countryCount];
+			for(int countryId = 0; countryId < countryCount; countryId++) {
+				countryNames[countryId] = readString(buffer, snapshotFile);
+				countryCodes[countryId] = readString(buffer, snapshotFile);
+			}
+
+			long temperaturesStart = buffer.position();
+			checkLength(channel, temperaturesStart, flags, size, snapshotFile);
+			long yearsStart = temperaturesStart + 8L * size;
+			long monthsStart = yearsStart + 2L * size;
+			long countriesStart = monthsStart + size;
+			for(int from = 0; from < size; from += STREAM_ROWS) {
+				int count = Math.min(STREAM_ROWS, size - from);
+				ByteBuffer temperatures = channel.map(FileChannel.MapMode.READ_ONLY, temperaturesStart + 8L * from, 8L * count);
+				ByteBuffer years = channel.map(FileChannel.MapMode.READ_ONLY, yearsStart + 2L * from, 2L * count);
+				ByteBuffer months = channel.map(FileChannel.MapMode.READ_ONLY, monthsStart + from, count);
+				ByteBuffer countries = channel.map(FileChannel.MapMode.READ_ONLY, countriesStart + 4L * from, 4L * count);
+				for(int i = 0; i < count; i++) {
+					int countryId = countries.getInt(4 * i);
+					if(countryId < 0 || countryId >= countryCount) {
+						throw corrupt(snapshotFile);
+					}
+					sink.add(temperatures.getDouble(8 * i), years.getShort(2 * i), months.get(i), countryNames[countryId], countryCodes[countryId]);
+				}
+			}
+			return size;
+		}
+		catch(NoSuchFileException e) {
+			throw new FileNotFoundException(snapshotFile + " (No such file or directory)");
+		}
+	}
+
+	/**
+	 * (Helper Method for read and stream)
+	 * Checks that the row and country counts of the header are not negative, and that every country could fit in the snapshot
+	 */
+	private static void checkCounts(ByteBuffer buffer, int size, int countryCount, String snapshotFile) throws IOException {
+		//each country takes at least the two lengths of its name and code
+		if(size < 0 || countryCount < 0 || countryCount > buffer.remaining() / 8) {
+			throw corrupt(snapshotFile);
+		}
+	}
+
+	/**
+	 * (Helper Method for read and stream)
+	 * Checks that the columns announced by the header end exactly at the end of the snapshot,
+	 * so that a truncated snapshot is never mapped past its end
+	 * @param channel the open snapshot file
+	 * @param position the position of the first column, after the country names and codes
+	 * @param flags the flags of the header
+	 * @param size the row count of the header
+	 */
+	private static void checkLength(FileChannel channel, long position, int flags, int size, String snapshotFile) throws IOException {
+		long rowWidth = 8 + 2 + 1 + 4 + ((flags & FLAG_SORTED_INDEX) != 0 ? 4 : 0);
+		if(position + rowWidth * size != channel.size()) {
+			throw corrupt(snapshotFile);
+		}
+	}
+
+	// get the exception thrown for a snapshot that is truncated or corrupt
+	private static IOException corrupt(String snapshotFile) {
+		return new IOException(snapshotFile + " is truncated or corrupt");
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Copies a column of fixed-width values out of the snapshot, mapping it in windows of at most 2GB
+	 * @param channel the open snapshot file
+	 * @param position the position of the first value of the column
+	 * @param width the width of each value in bytes
+	 * @param size the number of values in the column
+	 * @param copier copies the values of one mapped window into the column array
+	 * @return the position after the last value of the column
+	 */
+	private static long readColumn(FileChannel channel, long position, int width, int size, ColumnCopier copier) throws IOException {
+		int perWindow = (int) (MAX_WINDOW / width);
+		int copied = 0;
+		while(copied < size) {
+			int count = Math.min(perWindow, size - copied);
+			copier.copy(channel.map(FileChannel.MapMode.READ_ONLY, position, (long) count * width), copied, count);
+			position += (long) count * width;
+			copied += count;
+		}
+		return position;
+	}
+
+	//copies count values from the start of a mapped window into a column array, starting at index from
+	private interface ColumnCopier {
+		void copy(MappedByteBuffer window, int from, int count);
+	}
+
+	/**
+	 * Computes the CRC32 checksum of the given file, reading it through memory-mapped windows
+	 * @param file the file to check
+	 * @return the checksum of the file's contents
+	 */
+	public static long checksum(Path file) throws IOException {
+		CRC32 crc = new CRC32();
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			while(position < size) {
+				long length = Math.min(MAX_WINDOW, size - position);
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+				position += length;
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * (Helper Method for write)
+	 * Writes a String as its length in bytes followed by its UTF-8 bytes
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * (Helper Method for read)
+	 * Reads a String written by writeString
+	 */
+	private static String readString(ByteBuffer buffer, String snapshotFile) throws IOException {
+		if(buffer.remaining() < 4) {
+			throw corrupt(snapshotFile);
+		}
+		int length = buffer.getInt();
+		if(length < 0 || length > buffer.remaining()) {
+			throw corrupt(snapshotFile);
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
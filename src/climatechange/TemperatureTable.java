@@ -0,0 +1,369 @@
+package climatechange;
+import java.util.*;
+
+public class TemperatureTable implements ITemperatureSink {
+	private static final int INITIAL_CAPACITY = 1024;
+
+	//the first 3 letters of each month as written in the data file, in order, and the integer value of each of them
+	private static final String[] MONTH_NAMES = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+	private static final HashMap<String, Integer> MONTH_VALUES = new HashMap<>();
+	static {
+		for(int month = 1; month <= 12; month++) {
+			MONTH_VALUES.put(MONTH_NAMES[month - 1], month);
+		}
+	}
+
+	//parallel columns, one entry per temperature reading (row)
+	//the temperatures are either in temperatures, or in hundredths of a degree in centiTemperatures, the other one is null
+	private double[] temperatures;
+	private short[] centiTemperatures;
+	private short[] years;
+	private byte[] months;
+	private int[] countries;
+	private int size;
+
+	//dictionary of the country names, whose ids are used in the countries column, and the 3-letter code of each country id
+	private Dictionary countryNames;
+	private ArrayList<String> countryCodes;
+
+	//the last country added, since the readings of a country are usually next to each other in the data file
+	private String lastCountry;
+	private int lastCountryId;
+
+	/**
+	 * (Constructor)
+	 * Creates an empty TemperatureTable that stores temperature readings column by column in primitive arrays
+	 * instead of one Temperature object per reading
+	 */
+	public TemperatureTable() {
+		this(false);
+	}
+
+	/**
+	 * (Constructor)
+	 * Creates an empty TemperatureTable like TemperatureTable(), optionally with the temperatures encoded as whole
+	 * hundredths of a degree (see CentiDegrees) in a short[] column, which takes a quarter of the memory of a double[] one
+	 * The encoding rounds every temperature to 2 decimal places, which is the precision of the output files, so
+	 * readings that only differ after the second decimal compare as equal
+	 * @param centiDegrees true to store the temperatures in hundredths of a degree, false to store them as doubles
+	 */
+	public TemperatureTable(boolean centiDegrees) {
+		if(centiDegrees) {
+			centiTemperatures = new short[INITIAL_CAPACITY];
+		}
+		else {
+			temperatures = new double[INITIAL_CAPACITY];
+		}
+		years = new short[INITIAL_CAPACITY];
+		months = new byte[INITIAL_CAPACITY];
+		countries = new int[INITIAL_CAPACITY];
+		size = 0;
+
+		countryNames = new Dictionary();
+		countryCodes = new ArrayList<>();
+		lastCountry = null;
+		lastCountryId = -1;
+	}
+
+	/**
+	 * Creates a TemperatureTable with all the readings of the given list, in the same order
+	 * @param data the ArrayList<ITemperature> returned from IWeatherIO.readDataFromFile
+	 * @return a TemperatureTable holding the same readings as data
+	 * @throws IllegalArgumentException if the month of a reading is not the first 3 letters of a month, i.e "Jan"
+	 */
+	public static TemperatureTable fromList(ArrayList<ITemperature> data) {
+		TemperatureTable table = new TemperatureTable();
+		for(ITemperature t: data) {
+			int month = getMonthAsInt(t.getMonth());
+			if(month == 0) {
+				throw new IllegalArgumentException("Unrecognized month: " + t.getMonth() + " in a reading of " + t.getCountry());
+			}
+			table.add(t.getTemperature(false), t.getYear(), month, t.getCountry(), t.getCountry3LetterCode());
+		}
+		return table;
+	}
+
+	/**
+	 * Creates a TemperatureTable that uses the given arrays as its columns, i.e the columns loaded from a TemperatureSnapshot
+	 * @param temperatures the temperature column in Celsius
+	 * @param years the year column
+	 * @param months the month column, with months between 1 and 12
+	 * @param countries the country id column
+	 * @param size the number of valid rows in the columns
+	 * @param countryNames the name of every country id
+	 * @param countryCodes the 3-letter code of every country id
+	 * @return a TemperatureTable holding the given columns
+	 */
+	static TemperatureTable fromColumns(double[] temperatures, short[] years, byte[] months, int[] countries, int size,
+			ArrayList<String> countryNames, ArrayList<String> countryCodes) {
+		TemperatureTable table = new TemperatureTable();
+		table.temperatures = temperatures;
+		table.years = years;
+		table.months = months;
+		table.countries = countries;
+		table.size = size;
+		for(int countryId = 0; countryId < countryNames.size(); countryId++) {
+			table.addCountry(countryNames.get(countryId), countryCodes.get(countryId));
+		}
+		if(temperatures.length == 0) {
+			table.grow();
+		}
+		return table;
+	}
+
+	/**
+	 * (Helper Method)
+	 * When provided a month as an integer, returns its corresponding string name
+	 * i.e, if month is given as 1, returns "Jan"
+	 * @param month the integer value of a month between 1 and 12
+	 * @return the corresponding string name of the given integer month, or null if month is not between 1 and 12
+	 */
+	public static String getMonthAsString(int month) {
+		if(month < 1 || month > 12) {
+			return null;
+		}
+		return MONTH_NAMES[month - 1];
+	}
+
+	/**
+	 * (Helper Method)
+	 * Given the first 3 letters of a month as a String, gets its corresponding integer value
+	 * i.e, if given "Jan", returns the value 1
+	 * @param month the first 3 letters of a month, as written in the input data file
+	 * @return the integer value of the month between 1 and 12, or 0 if month is not recognized
+	 */
+	public static int getMonthAsInt(String month) {
+		Integer value = month == null ? null : MONTH_VALUES.get(month);
+		return value == null ? 0 : value;
+	}
+
+	/**
+	 * Adds a temperature reading to the end of the table
+	 * @param temperature the temperature in Celsius
+	 * @param year the year of the reading
+	 * @param month the month of the reading as an integer between 1 and 12
+	 * @param country the name of the country
+	 * @param countryCode the 3-letter code of the country
+	 * @throws IllegalArgumentException if the month is not between 1 and 12
+	 */
+	public void add(double temperature, int year, int month, String country, String countryCode) {
+		if(month < 1 || month > 12) {
+			throw new IllegalArgumentException("Unrecognized month: " + month + " in a reading of " + country);
+		}
+		if(size == years.length) {
+			grow();
+		}
+		if(centiTemperatures != null) {
+			centiTemperatures[size] = CentiDegrees.encode(temperature);
+		}
+		else {
+			temperatures[size] = temperature;
+		}
+		years[size] = (short) year;
+		months[size] = (byte) month;
+		countries[size] = addCountry(country, countryCode);
+		size++;
+	}
+
+	/**
+	 * Adds every reading of the given table to the end of this table, in the same order
+	 * The columns are copied in bulk and the country ids of the other table are mapped to the ids of this table
+	 * @param other the TemperatureTable whose readings are added
+	 */
+	public void addAll(TemperatureTable other) {
+		int[] countryMap = new int[other.getCountryCount()];
+		for(int countryId = 0; countryId < countryMap.length; countryId++) {
+			countryMap[countryId] = addCountry(other.getCountryName(countryId), other.getCountryCode(countryId));
+		}
+		while(size + other.size > years.length) {
+			grow();
+		}
+		if(isCentiDegrees() == other.isCentiDegrees()) {
+			System.arraycopy(isCentiDegrees() ? other.centiTemperatures : other.temperatures, 0,
+					isCentiDegrees() ? centiTemperatures : temperatures, size, other.size);
+		}
+		else {
+			//the tables are encoded differently, so each temperature is converted
+			for(int row = 0; row < other.size; row++) {
+				if(centiTemperatures != null) {
+					centiTemperatures[size + row] = CentiDegrees.encode(other.getTemperature(row));
+				}
+				else {
+					temperatures[size + row] = other.getTemperature(row);
+				}
+			}
+		}
+		System.arraycopy(other.years, 0, years, size, other.size);
+		System.arraycopy(other.months, 0, months, size, other.size);
+		for(int row = 0; row < other.size; row++) {
+			countries[size + row] = countryMap[other.countries[row]];
+		}
+		size += other.size;
+	}
+
+	/**
+	 * (Helper Method for add)
+	 * Gets the id of the given country, adding it to the dictionaries if it has not been seen before
+	 * @return the id of the country
+	 */
+	private int addCountry(String country, String countryCode) {
+		if(country == lastCountry) {
+			return lastCountryId;
+		}
+		int id = countryNames.getId(country);
+		if(id < 0) {
+			id = countryNames.intern(country);
+			countryCodes.add(countryCode);
+		}
+		lastCountry = country;
+		lastCountryId = id;
+		return id;
+	}
+
+	/**
+	 * (Helper Method for add)
+	 * Doubles the capacity of every column
+	 */
+	private void grow() {
+		int capacity = Math.max(years.length * 2, INITIAL_CAPACITY);
+		if(centiTemperatures != null) {
+			centiTemperatures = Arrays.copyOf(centiTemperatures, capacity);
+		}
+		else {
+			temperatures = Arrays.copyOf(temperatures, capacity);
+		}
+		years = Arrays.copyOf(years, capacity);
+		months = Arrays.copyOf(months, capacity);
+		countries = Arrays.copyOf(countries, capacity);
+	}
+
+	// get the number of readings in the table
+	public int size() {
+		return size;
+	}
+
+	// get the temperature of the given row in Celsius
+	public double getTemperature(int row) {
+		if(centiTemperatures != null) {
+			return CentiDegrees.toCelsius(centiTemperatures[row]);
+		}
+		return temperatures[row];
+	}
+
+	// get the temperature of the given row in hundredths of a degree Celsius, rounded half up if the table stores doubles
+	public int getCentiDegrees(int row) {
+		if(centiTemperatures != null) {
+			return centiTemperatures[row];
+		}
+		return CentiDegrees.encode(temperatures[row]);
+	}
+
+	// check whether the temperatures are stored in hundredths of a degree
+	public boolean isCentiDegrees() {
+		return centiTemperatures != null;
+	}
+
+	// get the memory taken by the columns, in bytes
+	public long getMemoryBytes() {
+		long temperatureBytes = centiTemperatures != null ? 2L * centiTemperatures.length : 8L * temperatures.length;
+		return temperatureBytes + 2L * years.length + months.length + 4L * countries.length;
+	}
+
+	// get the year of the given row
+	public int getYear(int row) {
+		return years[row];
+	}
+
+	// get the month of the given row as an integer between 1 and 12
+	public int getMonth(int row) {
+		return months[row];
+	}
+
+	// get the country id of the given row
+	public int getCountryId(int row) {
+		return countries[row];
+	}
+
+	// get the number of distinct countries in the table
+	public int getCountryCount() {
+		return countryNames.size();
+	}
+
+	// get the name of the country with the given id
+	public String getCountryName(int countryId) {
+		return countryNames.get(countryId);
+	}
+
+	// get the 3-letter code of the country with the given id
+	public String getCountryCode(int countryId) {
+		return countryCodes.get(countryId);
+	}
+
+	/**
+	 * Gets the id of the country with exactly the given name
+	 * @param country the name of the country
+	 * @return the id of the country, or -1 if the country is not in the table
+	 */
+	public int getCountryIdExact(String country) {
+		return countryNames.getId(country);
+	}
+
+	/**
+	 * Gets the id of the country with the given name, ignoring case
+	 * @param country the name of the country
+	 * @return the id of the country, or -1 if the country is not in the table
+	 */
+	public int findCountry(String country) {
+		return countryNames.findIgnoreCase(country);
+	}
+
+	/**
+	 * Gets an ArrayList of the names of all the countries in the table, in the order they were first added
+	 * @return an ArrayList<String> with the names of all the countries
+	 */
+	public ArrayList<String> getCountryNames() {
+		return countryNames.values();
+	}
+
+	/**
+	 * Creates an ITemperature object for the given row
+	 * Used to produce results, the table itself never stores ITemperature objects
+	 * The Temperature object shares the country name and code Strings of this table's dictionary, without any lookup
+	 * @param row the row of the reading
+	 * @return a Temperature object with the values of the given row
+	 */
+	public ITemperature getRow(int row) {
+		if(row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " is out of bounds for a table of size " + size);
+		}
+		int countryId = countries[row];
+		if(centiTemperatures != null) {
+			return Temperature.fromCentiDegrees(centiTemperatures[row], years[row], months[row] - 1, countryNames.get(countryId), countryCodes.get(countryId));
+		}
+		return new Temperature(temperatures[row], years[row], months[row] - 1, countryNames.get(countryId), countryCodes.get(countryId));
+	}
+
+	//The column accessors below expose the backing arrays so that ClimateAnalyzer can scan them directly.
+	//Only the first size() entries of each array are valid, and callers must not modify them.
+	//temperatureColumn() is null when the table is in hundredths of a degree, and centiColumn() is null when it is not.
+
+	double[] temperatureColumn() {
+		return temperatures;
+	}
+
+	short[] centiColumn() {
+		return centiTemperatures;
+	}
+
+	short[] yearColumn() {
+		return years;
+	}
+
+	byte[] monthColumn() {
+		return months;
+	}
+
+	int[] countryColumn() {
+		return countries;
+	}
+}
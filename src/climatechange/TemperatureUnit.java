@@ -0,0 +1,98 @@
+package climatechange;
+
+/**
+ * The units a ClimateAnalyzer takes temperature ranges in and gives temperature deltas in
+ * Readings are always stored and compared in CELSIUS, the canonical unit, so a query in another unit converts its
+ * thresholds to Celsius once before scanning, and converts the readings it returns only when they are output
+ */
+public enum TemperatureUnit {
+	CELSIUS("C"),
+	FAHRENHEIT("F");
+
+	//the symbol of the unit, as written after the temperatures of the output files, i.e "(C)"
+	private String symbol;
+
+	TemperatureUnit(String symbol) {
+		this.symbol = symbol;
+	}
+
+	// get the symbol of the unit, i.e "C" or "F"
+	public String getSymbol() {
+		return symbol;
+	}
+
+	/**
+	 * Gets the unit selected by the getFahrenheit flags of ITemperature and IClimateAnalyzer
+	 * @param getFahrenheit true for FAHRENHEIT, false for CELSIUS
+	 * @return the TemperatureUnit
+	 */
+	public static TemperatureUnit of(boolean getFahrenheit) {
+		return getFahrenheit ? FAHRENHEIT : CELSIUS;
+	}
+
+	/**
+	 * Converts a temperature in Celsius to this unit, i.e to output a reading
+	 * @param celsius the temperature in Celsius
+	 * @return the temperature in this unit
+	 */
+	public double fromCelsius(double celsius) {
+		if(this == FAHRENHEIT) {
+			return (celsius * 9/5) + 32;
+		}
+		return celsius;
+	}
+
+	/**
+	 * Converts a temperature in this unit to Celsius, i.e a threshold of a query, once before the readings are scanned
+	 * @param value the temperature in this unit
+	 * @return the temperature in Celsius
+	 */
+	public double toCelsius(double value) {
+		if(this == FAHRENHEIT) {
+			return (value - 32) * 5/9;
+		}
+		return value;
+	}
+
+	/**
+	 * Converts the lower bound of a range in this unit to Celsius, so that a reading is at or above the returned bound
+	 * exactly when its value in this unit, given by fromCelsius, is at or above the given one
+	 * toCelsius alone may be a rounding error off, i.e leave out a reading whose Fahrenheit value is the bound itself
+	 * @param low the lower bound in this unit
+	 * @return the lowest temperature in Celsius whose value in this unit is at least low
+	 */
+	public double lowToCelsius(double low) {
+		double celsius = toCelsius(low);
+		if(Double.isNaN(celsius) || Double.isInfinite(celsius)) {
+			return celsius;
+		}
+		//fromCelsius never decreases as celsius grows, so the bound is found a few steps of one ulp away
+		while(fromCelsius(celsius) < low) {
+			celsius = Math.nextUp(celsius);
+		}
+		while(fromCelsius(Math.nextDown(celsius)) >= low) {
+			celsius = Math.nextDown(celsius);
+		}
+		return celsius;
+	}
+
+	/**
+	 * Converts the upper bound of a range in this unit to Celsius, so that a reading is at or below the returned bound
+	 * exactly when its value in this unit, given by fromCelsius, is at or below the given one
+	 * @param high the upper bound in this unit
+	 * @return the highest temperature in Celsius whose value in this unit is at most high
+	 */
+	public double highToCelsius(double high) {
+		double celsius = toCelsius(high);
+		if(Double.isNaN(celsius) || Double.isInfinite(celsius)) {
+			return celsius;
+		}
+		while(fromCelsius(celsius) > high) {
+			celsius = Math.nextDown(celsius);
+		}
+		while(fromCelsius(Math.nextUp(celsius)) <= high) {
+			celsius = Math.nextUp(celsius);
+		}
+		return celsius;
+	}
+}
@@ -0,0 +1,109 @@
+package climatechange;
+import java.util.*;
+
+public class TopK {
+
+	/**
+	 * Selects the k lowest items of the given collection using a bounded heap of size k, in O(n log k) time
+	 * @param items the items to select from
+	 * @param k the number of items to select
+	 * @param comparator the ordering of the items
+	 * @return an ArrayList with the k lowest items (or all of them, if there are fewer than k), arranged from low to high
+	 */
+	public static <T> ArrayList<T> lowest(Collection<? extends T> items, int k, Comparator<? super T> comparator) {
+		if(k <= 0) {
+			return new ArrayList<>();
+		}
+		//max-heap holding the k lowest items seen so far, its head is the highest of them
+		PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, Math.max(items.size(), 1)), Collections.reverseOrder(comparator));
+		for(T item: items) {
+			if(heap.size() < k) {
+				heap.add(item);
+			}
+			else if(comparator.compare(item, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(item);
+			}
+		}
+		return sorted(heap, comparator);
+	}
+
+	/**
+	 * Selects the k highest items of the given collection using a bounded heap of size k, in O(n log k) time
+	 * @param items the items to select from
+	 * @param k the number of items to select
+	 * @param comparator the ordering of the items
+	 * @return an ArrayList with the k highest items (or all of them, if there are fewer than k), arranged from low to high
+	 */
+	public static <T> ArrayList<T> highest(Collection<? extends T> items, int k, Comparator<? super T> comparator) {
+		if(k <= 0) {
+			return new ArrayList<>();
+		}
+		//min-heap holding the k highest items seen so far, its head is the lowest of them
+		PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, Math.max(items.size(), 1)), comparator);
+		for(T item: items) {
+			if(heap.size() < k) {
+				heap.add(item);
+			}
+			else if(comparator.compare(item, heap.peek()) > 0) {
+				heap.poll();
+				heap.add(item);
+			}
+		}
+		return sorted(heap, comparator);
+	}
+
+	/**
+	 * Selects the k lowest items of the given collection according to their natural ordering
+	 * @return an ArrayList with the k lowest items, arranged from low to high
+	 */
+	public static <T extends Comparable<? super T>> ArrayList<T> lowest(Collection<? extends T> items, int k) {
+		return lowest(items, k, Comparator.<T>naturalOrder());
+	}
+
+	/**
+	 * Selects the k highest items of the given collection according to their natural ordering
+	 * @return an ArrayList with the k highest items, arranged from low to high
+	 */
+	public static <T extends Comparable<? super T>> ArrayList<T> highest(Collection<? extends T> items, int k) {
+		return highest(items, k, Comparator.<T>naturalOrder());
+	}
+
+	/**
+	 * Selects the k largest temperature deltas as the repeated getLargestTempDeltaByCountry selection of Task C-1 did:
+	 * only deltas above Double.MIN_VALUE are selected, and of equal deltas the one earliest in the given order wins,
+	 * which is the order the countries first appear in the data file
+	 * @param deltas the temperature deltas, arranged in the order their countries first appear in the data file
+	 * @param k the number of deltas to select
+	 * @return an ArrayList with the k largest deltas (or all of them, if there are fewer than k), arranged from low to high
+	 * and, among equal deltas, from the latest country to the earliest as the reversed selection listed them
+	 */
+	public static ArrayList<ITemperature> largestDeltas(List<ITemperature> deltas, int k) {
+		ArrayList<Integer> positions = new ArrayList<>(deltas.size());
+		for(int i = 0; i < deltas.size(); i++) {
+			if(deltas.get(i).getTemperature(false) > Double.MIN_VALUE) {
+				positions.add(i);
+			}
+		}
+		//the higher of two equal deltas is the one earlier in the data file
+		ArrayList<Integer> largest = highest(positions, k, (a, b) -> {
+			int difference = Double.compare(deltas.get(a).getTemperature(false), deltas.get(b).getTemperature(false));
+			return difference != 0 ? difference : Integer.compare(b, a);
+		});
+		ArrayList<ITemperature> solution = new ArrayList<>(largest.size());
+		for(int i: largest) {
+			solution.add(deltas.get(i));
+		}
+		return solution;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Empties the given heap into an ArrayList arranged from low to high
+	 */
+	private static <T> ArrayList<T> sorted(PriorityQueue<T> heap, Comparator<? super T> comparator) {
+		ArrayList<T> solution = new ArrayList<>(heap);
+		solution.sort(comparator);
+		return solution;
+	}
+}
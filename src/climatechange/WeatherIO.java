@@ -3,8 +3,17 @@ package climatechange;
 import java.util.*;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 
 public class WeatherIO implements IWeatherIO {
+	
+	//the number of threads and the approximate chunk size in bytes used by readDataFromFile(fileName, sink)
+	private int ingestThreads = Runtime.getRuntime().availableProcessors();
+	private long ingestChunkSize = 64L * 1024 * 1024;
+	
+	//records the latency and rows of every read and write, shared with the ClimateAnalyzer that owns this WeatherIO
+	private AnalyzerMetrics metrics = new AnalyzerMetrics();
 
 	/**
 	 * Reads all data from the weather data file
@@ -12,6 +21,7 @@ public class WeatherIO implements IWeatherIO {
 	 * @return ArrayList<ITemperature> of all the data with each line stored as an ITemperature object
 	 */
 	public ArrayList<ITemperature> readDataFromFile(String fileName) throws FileNotFoundException{
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readDataFromFile");
 		ArrayList<ITemperature> data = new ArrayList<ITemperature>();
 		
 		File inputFile = new File(fileName);
@@ -32,10 +42,195 @@ public class WeatherIO implements IWeatherIO {
 		
 		scan.close(); //closes scanner
 		
+		timer.stop(data.size(), data.size());
 		return data; //returns an ArrayList<ITemperature> of all the data
 		
 	}
 	
+	/**
+	 * Reads all data from the weather data file through a memory-mapped buffer, using MappedCsvReader
+	 * Returns the same data as readDataFromFile, without splitting each line into Strings
+	 * @param filename the the directory/name of the file from which the data is read
+	 * @return ArrayList<ITemperature> of all the data with each line stored as an ITemperature object
+	 */
+	public ArrayList<ITemperature> readDataFromFileMapped(String fileName) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readDataFromFileMapped");
+		ArrayList<ITemperature> data = new ArrayList<ITemperature>();
+		
+		//stores each reading as an ITemperature object, sharing the String of the month with every other reading of that month
+		new MappedCsvReader().read(fileName, (temperature, year, month, country, countryCode) ->
+			data.add(new Temperature(temperature, year, TemperatureTable.getMonthAsString(month), country, countryCode)));
+		
+		timer.stop(data.size(), data.size());
+		return data;
+	}
+	
+	/**
+	 * Reads all data from the weather data file through a memory-mapped buffer, using MappedCsvReader,
+	 * and passes each reading to the given sink in file order (i.e, a TemperatureTable)
+	 * @param filename the the directory/name of the file from which the data is read
+	 * @param sink the ITemperatureSink that receives the readings
+	 */
+	public void readDataFromFile(String fileName, ITemperatureSink sink) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readDataFromFile (sink)");
+		int before = rowsIn(sink);
+		new MappedCsvReader().read(fileName, sink);
+		int rows = rowsIn(sink) - before;
+		timer.stop(rows, rows);
+	}
+	
+	/**
+	 * Reads all data from the weather data file using ParallelCsvReader, which parses line-aligned chunks of the file
+	 * on ingestThreads threads at the same time and passes each reading to the given sink in file order
+	 * Files no larger than one chunk are read on the calling thread
+	 * @param filename the the directory/name of the file from which the data is read
+	 * @param sink the ITemperatureSink that receives the readings
+	 */
+	public void readDataFromFileParallel(String fileName, ITemperatureSink sink) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readDataFromFileParallel");
+		int before = rowsIn(sink);
+		new ParallelCsvReader(ingestThreads, ingestChunkSize).read(fileName, sink);
+		int rows = rowsIn(sink) - before;
+		timer.stop(rows, rows);
+	}
+	
+	/**
+	 * Reads the lines added to the end of the weather data file since the given position, i.e while another program appends
+	 * new monthly readings to it, and passes each reading to the given sink in file order
+	 * A last line without a line break is still being written, so it is left for the next call
+	 * @param fileName the directory/name of the file from which the data is read
+	 * @param position the position returned by the previous call, or 0 to read every line after the topic line
+	 * @param sink the ITemperatureSink that receives the readings
+	 * @return the position to pass to the next call, after the last line that was read
+	 * @throws IOException if the file is now shorter than the position, i.e it was truncated or replaced, in which case
+	 * the lines already read cannot be told apart from new ones and nothing is read
+	 */
+	public long readDataFromFileTail(String fileName, long position, ITemperatureSink sink) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readDataFromFileTail");
+		int before = rowsIn(sink);
+		try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(position > size) {
+				throw new IOException(fileName + " is shorter than the " + position + " bytes already read, it was truncated or replaced");
+			}
+			if(position == 0) {
+				position = MappedCsvReader.lastLineEnd(channel, 0, MappedCsvReader.dataStart(channel)); //stays at 0 until the topic line is complete
+			}
+			long end = MappedCsvReader.lastLineEnd(channel, position, size);
+			if(end > position) {
+				new MappedCsvReader().read(channel, position, end, sink);
+				position = end;
+			}
+		}
+		catch(NoSuchFileException e) {
+			throw new FileNotFoundException(fileName + " (No such file or directory)");
+		}
+		int rows = rowsIn(sink) - before;
+		timer.stop(rows, rows);
+		return position;
+	}
+	
+	/**
+	 * (Helper Method)
+	 * Gets the number of rows in the given sink if it is a TemperatureTable, so that reads can report the rows they added
+	 * @return the size of the TemperatureTable, or 0 for any other sink
+	 */
+	private static int rowsIn(ITemperatureSink sink) {
+		if(sink instanceof TemperatureTable) {
+			return ((TemperatureTable) sink).size();
+		}
+		return 0;
+	}
+	
+	// set the AnalyzerMetrics that every read and write is recorded in
+	public void setMetrics(AnalyzerMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	// get the AnalyzerMetrics that every read and write is recorded in
+	public AnalyzerMetrics getMetrics() {
+		return metrics;
+	}
+	
+	// set the number of threads used by readDataFromFileParallel (defaults to the number of available processors)
+	public void setIngestThreads(int threads) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1, but was " + threads);
+		}
+		ingestThreads = threads;
+	}
+	
+	// set the approximate size in bytes of each chunk parsed by readDataFromFileParallel (defaults to 64MB)
+	public void setIngestChunkSize(long chunkSize) {
+		if(chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be at least 1, but was " + chunkSize);
+		}
+		ingestChunkSize = chunkSize;
+	}
+	
+	// get the number of threads used by readDataFromFileParallel
+	public int getIngestThreads() {
+		return ingestThreads;
+	}
+	
+	// get the approximate size in bytes of each chunk parsed by readDataFromFileParallel
+	public long getIngestChunkSize() {
+		return ingestChunkSize;
+	}
+	
+	/**
+	 * Writes a binary snapshot of the given table, using TemperatureSnapshot
+	 * The snapshot can be loaded back with readSnapshot instead of parsing the data file again
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sourceFile the directory/name of the data file the table was read from
+	 * @param table the TemperatureTable to save
+	 */
+	public void writeSnapshot(String snapshotFile, String sourceFile, TemperatureTable table) throws IOException {
+		writeSnapshot(snapshotFile, sourceFile, table, null);
+	}
+	
+	/**
+	 * Writes a binary snapshot of the given table and, if not null, its SortedTemperatureIndex, using TemperatureSnapshot
+	 * Unlike the other writeSnapshot, this is not part of IWeatherIO, which does not depend on the indexes of ClimateAnalyzer
+	 * The snapshot can be loaded back with readSnapshot instead of parsing the data file again
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sourceFile the directory/name of the data file the table was read from
+	 * @param table the TemperatureTable to save
+	 * @param sortedIndex the SortedTemperatureIndex to save with the table, or null
+	 */
+	public void writeSnapshot(String snapshotFile, String sourceFile, TemperatureTable table, SortedTemperatureIndex sortedIndex) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.writeSnapshot");
+		TemperatureSnapshot.write(snapshotFile, sourceFile, table, sortedIndex);
+		timer.stop(table.size(), table.size());
+	}
+	
+	/**
+	 * Loads a binary snapshot written by writeSnapshot through a memory-mapped buffer, using TemperatureSnapshot
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sourceFile the directory/name of the data file the snapshot was made from
+	 * @param verifyChecksum true to compare the checksum of the data file even if its size and last-modified time are unchanged
+	 * @return the loaded TemperatureSnapshot, or null if the snapshot is missing or stale
+	 */
+	public TemperatureSnapshot readSnapshot(String snapshotFile, String sourceFile, boolean verifyChecksum) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readSnapshot");
+		TemperatureSnapshot snapshot = TemperatureSnapshot.read(snapshotFile, sourceFile, verifyChecksum);
+		int rows = snapshot == null ? 0 : snapshot.getTable().size();
+		timer.stop(rows, rows);
+		return snapshot;
+	}
+	
+	/**
+	 * Passes every reading of a snapshot written by writeSnapshot to the given sink in row order, using TemperatureSnapshot.stream
+	 * Unlike readSnapshot, the columns are not loaded into memory, and the snapshot is not checked against its data file
+	 * @param snapshotFile the directory/name of the snapshot file
+	 * @param sink the ITemperatureSink that receives the readings
+	 */
+	public void readSnapshot(String snapshotFile, ITemperatureSink sink) throws IOException {
+		AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.readSnapshot (sink)");
+		int rows = TemperatureSnapshot.stream(snapshotFile, sink);
+		timer.stop(rows, rows);
+	}
+	
 	/**
 	 * (Helper Method for readDataFromFile)
 	 * Stores a line of data as an ITemperature object
@@ -64,6 +259,7 @@ public class WeatherIO implements IWeatherIO {
 	 * Writes the subject header for each ClimateAnalyzer method call before dumping data returned from each ClimateAnalyzer method
 	 */
 	 public void writeSubjectHeaderInFile(String filename, String subject)  {
+		 AnalyzerMetrics.Timer timer = metrics.start("WeatherIO.writeSubjectHeaderInFile");
 		 //creates a File and PrintWriter
 		 File outputFile = new File(filename);
 		 PrintWriter pw;
@@ -90,6 +286,7 @@ public class WeatherIO implements IWeatherIO {
 		catch(IOException e) {
 			System.out.println(e.getMessage());
 		}
+		timer.stop(0, 1);
 	 }
 
 	 /**
@@ -101,18 +298,20 @@ public class WeatherIO implements IWeatherIO {
 	  * @param theWeatherList the returned ArrayList<ITemperature> from each ClimateAnalyzer
 	  */
 	 public void writeDataToFile(String filename, String topic, ArrayList<ITemperature> theWeatherList) throws FileNotFoundException, IOException {
-		 File outputFile = new File(filename);
-		 FileWriter fr = new FileWriter(outputFile, true);
-		 PrintWriter pw = new PrintWriter(fr);
-		 pw.println(topic);
-		 
-		 //iterates through all the ITemperature objects in theWeatherList and prints it in the proper csv format
-		 for(ITemperature c: theWeatherList) {
-			 pw.println((Math.round(c.getTemperature(false) * 100.0)/100.0) + "(C) " + (Math.round(c.getTemperature(true) * 100.0)/100.0) + "(F)" + "," + c.getYear() + "," + c.getMonth()+ "," + c.getCountry() + "," + c.getCountry3LetterCode());
+		 //writes through a ResultSink that is closed right away, which formats each row without temporary Strings
+		 try(ResultSink results = openResultSink()) {
+			 results.writeDataToFile(filename, topic, theWeatherList);
 		 }
-		 //closes PrintWriter and FileWriter
-		 pw.close();
-		 fr.close();
+	 }
+	 
+	 /**
+	  * Opens a ResultSink, which writes the same output as writeSubjectHeaderInFile and writeDataToFile
+	  * but keeps each file open and buffered until it is closed
+	  * Callers writing many results (i.e runClimateAnalyzer and runBatch) should use one ResultSink for all of them
+	  * @return a new ResultSink, which must be closed to flush its files
+	  */
+	 public ResultSink openResultSink() {
+		 return new ResultSink(metrics);
 	 }
 
 }
@@ -0,0 +1,138 @@
+package climatechange;
+import jdk.incubator.vector.*;
+
+public class VectorKernels implements ITemperatureKernels {
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Short> SHORT_SPECIES = ShortVector.SPECIES_PREFERRED;
+
+	//the kernels used for the values that do not fill a whole vector, and for ranges too short to be worth vectorizing
+	private ScalarKernels scalar;
+
+	/**
+	 * (Constructor)
+	 * Creates the Vector API kernels, which compare SPECIES.length() values per instruction
+	 * They need --add-modules jdk.incubator.vector to compile and run, and are only loaded by ScalarKernels.select
+	 */
+	public VectorKernels() {
+		scalar = new ScalarKernels();
+	}
+
+	/**
+	 * Finds the lowest value in two passes: a masked lane-wise minimum, then a search from the end for the last
+	 * index that holds it, so that ties are broken as by the scalar kernel
+	 */
+	public int lowestIndex(double[] values, int fromIndex, int toIndex) {
+		if(toIndex - fromIndex < 2 * SPECIES.length()) {
+			return scalar.lowestIndex(values, fromIndex, toIndex);
+		}
+		int upperBound = fromIndex + SPECIES.loopBound(toIndex - fromIndex);
+		DoubleVector minimum = DoubleVector.broadcast(SPECIES, Double.MAX_VALUE);
+		for(int i = fromIndex; i < upperBound; i += SPECIES.length()) {
+			DoubleVector vector = DoubleVector.fromArray(SPECIES, values, i);
+			//lanes above Double.MAX_VALUE and NaN lanes are left out, as the scalar kernel never picks them
+			minimum = minimum.lanewise(VectorOperators.MIN, vector, vector.compare(VectorOperators.LE, Double.MAX_VALUE));
+		}
+		double minValue = minimum.reduceLanes(VectorOperators.MIN);
+		int tail = scalar.lowestIndex(values, upperBound, toIndex);
+		if(tail >= 0 && values[tail] <= minValue) {
+			return tail; //the tail holds the later rows, so it wins a tie
+		}
+		return lastIndexOf(values, fromIndex, upperBound, minValue);
+	}
+
+	/**
+	 * Finds the highest value in two passes: a masked lane-wise maximum, then a search from the end for the last
+	 * index that holds it, so that ties are broken as by the scalar kernel
+	 */
+	public int highestIndex(double[] values, int fromIndex, int toIndex) {
+		if(toIndex - fromIndex < 2 * SPECIES.length()) {
+			return scalar.highestIndex(values, fromIndex, toIndex);
+		}
+		int upperBound = fromIndex + SPECIES.loopBound(toIndex - fromIndex);
+		DoubleVector maximum = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+		for(int i = fromIndex; i < upperBound; i += SPECIES.length()) {
+			DoubleVector vector = DoubleVector.fromArray(SPECIES, values, i);
+			//NaN lanes are left out, as the scalar kernel never picks them
+			maximum = maximum.lanewise(VectorOperators.MAX, vector, vector.compare(VectorOperators.GE, Double.NEGATIVE_INFINITY));
+		}
+		double maxValue = maximum.reduceLanes(VectorOperators.MAX);
+		int tail = scalar.highestIndex(values, upperBound, toIndex);
+		if(tail >= 0 && values[tail] >= maxValue) {
+			return tail; //the tail holds the later rows, so it wins a tie
+		}
+		return lastIndexOf(values, fromIndex, upperBound, maxValue);
+	}
+
+	/**
+	 * Finds the lowest value of a column in hundredths of a degree, with SHORT_SPECIES.length() values per instruction
+	 */
+	public int lowestIndex(short[] values, int fromIndex, int toIndex) {
+		if(toIndex - fromIndex < 2 * SHORT_SPECIES.length()) {
+			return scalar.lowestIndex(values, fromIndex, toIndex);
+		}
+		int upperBound = fromIndex + SHORT_SPECIES.loopBound(toIndex - fromIndex);
+		ShortVector minimum = ShortVector.broadcast(SHORT_SPECIES, Short.MAX_VALUE);
+		for(int i = fromIndex; i < upperBound; i += SHORT_SPECIES.length()) {
+			minimum = minimum.min(ShortVector.fromArray(SHORT_SPECIES, values, i));
+		}
+		short minValue = minimum.reduceLanes(VectorOperators.MIN);
+		int tail = scalar.lowestIndex(values, upperBound, toIndex);
+		if(tail >= 0 && values[tail] <= minValue) {
+			return tail; //the tail holds the later rows, so it wins a tie
+		}
+		return lastIndexOf(values, fromIndex, upperBound, minValue);
+	}
+
+	/**
+	 * Finds the highest value of a column in hundredths of a degree, with SHORT_SPECIES.length() values per instruction
+	 */
+	public int highestIndex(short[] values, int fromIndex, int toIndex) {
+		if(toIndex - fromIndex < 2 * SHORT_SPECIES.length()) {
+			return scalar.highestIndex(values, fromIndex, toIndex);
+		}
+		int upperBound = fromIndex + SHORT_SPECIES.loopBound(toIndex - fromIndex);
+		ShortVector maximum = ShortVector.broadcast(SHORT_SPECIES, Short.MIN_VALUE);
+		for(int i = fromIndex; i < upperBound; i += SHORT_SPECIES.length()) {
+			maximum = maximum.max(ShortVector.fromArray(SHORT_SPECIES, values, i));
+		}
+		short maxValue = maximum.reduceLanes(VectorOperators.MAX);
+		int tail = scalar.highestIndex(values, upperBound, toIndex);
+		if(tail >= 0 && values[tail] >= maxValue) {
+			return tail; //the tail holds the later rows, so it wins a tie
+		}
+		return lastIndexOf(values, fromIndex, upperBound, maxValue);
+	}
+
+	public String getName() {
+		return "vector (" + SPECIES.length() + " lanes)";
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the last index from fromIndex to upperBound, a whole number of vectors, whose value equals the given one,
+	 * or -1 if there is none (i.e when every value was left out of the minimum or maximum)
+	 */
+	private static int lastIndexOf(double[] values, int fromIndex, int upperBound, double value) {
+		for(int i = upperBound - SPECIES.length(); i >= fromIndex; i -= SPECIES.length()) {
+			VectorMask<Double> equal = DoubleVector.fromArray(SPECIES, values, i).compare(VectorOperators.EQ, value);
+			if(equal.anyTrue()) {
+				return i + equal.lastTrue();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * (Helper Method)
+	 * Gets the last index from fromIndex to upperBound, a whole number of vectors, whose value equals the given one
+	 */
+	private static int lastIndexOf(short[] values, int fromIndex, int upperBound, short value) {
+		for(int i = upperBound - SHORT_SPECIES.length(); i >= fromIndex; i -= SHORT_SPECIES.length()) {
+			VectorMask<Short> equal = ShortVector.fromArray(SHORT_SPECIES, values, i).compare(VectorOperators.EQ, value);
+			if(equal.anyTrue()) {
+				return i + equal.lastTrue();
+			}
+		}
+		return -1;
+	}
+}